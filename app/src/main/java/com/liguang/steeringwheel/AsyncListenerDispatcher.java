@@ -0,0 +1,159 @@
+package com.liguang.steeringwheel;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在指定线程中回调监听者。
+ * <p>
+ * 主线程只负责发布状态；同一时刻最多只有一个回调任务在排队或执行，监听者处理较慢时，
+ * 期间的多次发布合并为一次，回调时取最新状态，不会形成积压。同时统计回调延迟和被合并的次数。
+ * <p>
+ * 发布时递增工作计数，计数从0变为1时才提交回调任务；任务退出前扣除已处理的计数，
+ * 期间又有发布时在同一任务中再回调一次。即使执行器是多线程的，回调也不会并发执行。
+ */
+public class AsyncListenerDispatcher {
+    private final SteeringWheelView mView;
+    private final StateSeqLock mStateLock;
+    private final Executor mExecutor;
+    private volatile SteeringWheelView.SteeringWheelListener mListener;
+    private volatile SteeringWheelView.SteeringWheelTimedListener mTimedListener;
+    private volatile SteeringWheelMetrics mMetrics;
+    /**
+     * 工作计数，不为0时已有回调任务在排队或执行，之后的发布只累加计数
+     */
+    private final AtomicInteger mWip = new AtomicInteger();
+    /**
+     * 只在回调任务中使用，任务不会并发执行
+     */
+    private final SteeringWheelState mState = new SteeringWheelState();
+    private final Runnable mDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            int missed = 1;
+            for (; ; ) {
+                dispatch();
+                //本轮回调覆盖了missed次发布，其余的被合并
+                mConflatedCount = mConflatedCount + missed - 1;
+                missed = mWip.addAndGet(-missed);
+                if (missed == 0)
+                    break;
+            }
+        }
+    };
+    /**
+     * 以下统计数据均只由一个线程写入：发布次数由主线程写入，其余由回调任务写入
+     */
+    private volatile long mPublishedCount;
+    private volatile long mConflatedCount;
+    private volatile long mDeliveredCount;
+    private volatile long mLastLagNanos;
+    private volatile long mMaxLagNanos;
+    private volatile long mTotalLagNanos;
+
+    AsyncListenerDispatcher(SteeringWheelView view, StateSeqLock stateLock, Executor executor) {
+        mView = view;
+        mStateLock = stateLock;
+        mExecutor = executor;
+    }
+
+    void setListener(SteeringWheelView.SteeringWheelListener listener) {
+        mListener = listener;
+    }
+
+    void setTimedListener(SteeringWheelView.SteeringWheelTimedListener listener) {
+        mTimedListener = listener;
+    }
+
+    void setMetrics(SteeringWheelMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    /**
+     * 状态已发布，安排一次回调。在主线程中调用
+     */
+    void publish() {
+        mPublishedCount = mPublishedCount + 1;
+        if (mWip.getAndIncrement() == 0) {
+            mExecutor.execute(mDispatchRunnable);
+        }
+    }
+
+    /**
+     * 读取最新状态并回调一次，只在回调任务中调用
+     */
+    private void dispatch() {
+        SteeringWheelView.SteeringWheelListener listener = mListener;
+        SteeringWheelView.SteeringWheelTimedListener timedListener = mTimedListener;
+        if (listener == null && timedListener == null)
+            return;
+
+        mStateLock.read(mState);
+        long lag = System.nanoTime() - mState.getEventTimeNanos();
+        if (listener != null) {
+            listener.onStatusChanged(mView, (int) mState.getAngle(), mState.getPower(), mState.getDirection());
+        }
+        if (timedListener != null) {
+            timedListener.onStatusChanged(mView, (int) mState.getAngle(), mState.getPower(),
+                    mState.getDirection(), mState.getEventTimeNanos(), lag);
+        }
+        recordDelivery(lag);
+        SteeringWheelMetrics metrics = mMetrics;
+        if (metrics != null) {
+            metrics.increment(SteeringWheelMetrics.DELIVERIES);
+            metrics.recordDeliveryLatency(lag);
+        }
+    }
+
+    private void recordDelivery(long lagNanos) {
+        mDeliveredCount = mDeliveredCount + 1;
+        mLastLagNanos = lagNanos;
+        mTotalLagNanos = mTotalLagNanos + lagNanos;
+        if (lagNanos > mMaxLagNanos) {
+            mMaxLagNanos = lagNanos;
+        }
+    }
+
+    /**
+     * @return 主线程发布的次数
+     */
+    public long getPublishedCount() {
+        return mPublishedCount;
+    }
+
+    /**
+     * @return 因已有回调在排队或执行而被合并的发布次数
+     */
+    public long getConflatedCount() {
+        return mConflatedCount;
+    }
+
+    /**
+     * @return 实际回调监听者的次数
+     */
+    public long getDeliveredCount() {
+        return mDeliveredCount;
+    }
+
+    /**
+     * @return 最近一次回调开始时距产生该状态的事件的时间，单位纳秒
+     */
+    public long getLastLagNanos() {
+        return mLastLagNanos;
+    }
+
+    /**
+     * @return 回调延迟的最大值，单位纳秒
+     */
+    public long getMaxLagNanos() {
+        return mMaxLagNanos;
+    }
+
+    /**
+     * @return 回调延迟的平均值，单位纳秒
+     */
+    public long getMeanLagNanos() {
+        long delivered = mDeliveredCount;
+        return delivered > 0 ? mTotalLagNanos / delivered : 0;
+    }
+}
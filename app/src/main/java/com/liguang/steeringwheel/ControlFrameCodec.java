@@ -0,0 +1,65 @@
+package com.liguang.steeringwheel;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 方向盘状态的定长二进制帧编解码。
+ * <p>
+ * 帧格式(大端序，共 {@link #FRAME_SIZE} 字节)：
+ * <pre>
+ * 0      版本号 {@link #VERSION}
+ * 1-4    序号，无符号32位，取状态序号的低32位
+ * 5-8    事件时间，无符号32位，单位毫秒，取单调时钟的低32位
+ * 9-10   角度，无符号16位，65536等分360度
+ * 11     力度，0-100
+ * 12-13  方向，有符号16位，可容纳 {@link DirectionQuantizer} 的全部方向值
+ * </pre>
+ * 编解码直接读写调用方提供的缓冲区，不分配内存。
+ */
+public final class ControlFrameCodec {
+    public static final byte VERSION = 2;
+    public static final int FRAME_SIZE = 14;
+    /**
+     * 角度量化的步长，单位度
+     */
+    public static final double ANGLE_STEP = 360.0 / 65536;
+
+    private ControlFrameCodec() {
+    }
+
+    /**
+     * 编码一帧，写入位置从 out 的当前位置开始，写完后位置后移 {@link #FRAME_SIZE}
+     *
+     * @param state 状态快照
+     * @param out   输出缓冲区，剩余空间不少于 {@link #FRAME_SIZE}
+     */
+    public static void encode(SteeringWheelState state, ByteBuffer out) {
+        out.put(VERSION);
+        out.putInt((int) state.getSequence());
+        out.putInt((int) (state.getEventTimeNanos() / 1000000L));
+        out.putShort((short) ((int) Math.round(state.getAngle() / ANGLE_STEP) & 0xFFFF));
+        out.put((byte) state.getPower());
+        out.putShort((short) state.getDirection());
+    }
+
+    /**
+     * 解码一帧，读取位置从 in 的当前位置开始。球的偏移和单轴输出不在帧中传输，解码后为0
+     *
+     * @param in  输入缓冲区
+     * @param out 输出快照，事件时间为毫秒值换算的纳秒，序号为无符号32位
+     * @return 是否成功，长度不足或版本号不符时返回false，此时 in 的位置不变
+     */
+    public static boolean decode(ByteBuffer in, SteeringWheelState out) {
+        if (in.remaining() < FRAME_SIZE || in.get(in.position()) != VERSION)
+            return false;
+
+        in.get();
+        long sequence = in.getInt() & 0xFFFFFFFFL;
+        long timeMillis = in.getInt() & 0xFFFFFFFFL;
+        double angle = (in.getShort() & 0xFFFF) * ANGLE_STEP;
+        int power = in.get() & 0xFF;
+        int direction = in.getShort();
+        out.set(angle, power, direction, 0, 0, 0, 0, timeMillis * 1000000L, sequence);
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+package com.liguang.steeringwheel;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link DeltaStreamEncoder} 输出流的增量解码。
+ * <p>
+ * 输入可以按任意长度分块到达，不完整的帧留在缓冲区中等待后续数据。
+ * 收到第一个关键帧之前的增量帧会被跳过。解码过程不分配内存。
+ */
+public class DeltaStreamDecoder {
+    private boolean mSynced;
+    /**
+     * 读取变长整数时数据不足
+     */
+    private boolean mUnderflow;
+    private long mTime;
+    private int mAngle;
+    private int mPower;
+    private int mDirection;
+    private int mX;
+    private int mY;
+    private long mDecodedCount;
+    private long mSkippedCount;
+
+    /**
+     * 解码缓冲区中所有完整的帧。返回时 in 的位置停在第一个不完整帧的开头，
+     * 调用方可以 compact 后继续写入新数据
+     *
+     * @param in      输入缓冲区
+     * @param handler 解码出的采样的接收者
+     * @return 本次解码出的采样数
+     * @throws IllegalStateException 遇到无法识别的帧类型
+     */
+    public int decode(ByteBuffer in, SampleRingBuffer.SampleHandler handler) {
+        int count = 0;
+        while (in.hasRemaining()) {
+            int start = in.position();
+            byte type = in.get();
+            if (type != DeltaStreamEncoder.FRAME_KEY && type != DeltaStreamEncoder.FRAME_DELTA) {
+                in.position(start);
+                throw new IllegalStateException("unknown frame type " + type + " at " + start);
+            }
+
+            mUnderflow = false;
+            long time = readUnsigned(in);
+            long angle = type == DeltaStreamEncoder.FRAME_KEY ? readUnsigned(in) : readSigned(in);
+            long power = type == DeltaStreamEncoder.FRAME_KEY ? readUnsigned(in) : readSigned(in);
+            int direction = readSigned(in);
+            int x = readSigned(in);
+            int y = readSigned(in);
+            if (mUnderflow) {
+                in.position(start);
+                break;
+            }
+
+            if (type == DeltaStreamEncoder.FRAME_KEY) {
+                mSynced = true;
+                mTime = time;
+                mAngle = (int) angle;
+                mPower = (int) power;
+                mDirection = direction;
+                mX = x;
+                mY = y;
+            } else {
+                if (!mSynced) {
+                    mSkippedCount++;
+                    continue;
+                }
+                mTime += time;
+                mAngle = (mAngle + (int) angle + DeltaStreamEncoder.ANGLE_RANGE) % DeltaStreamEncoder.ANGLE_RANGE;
+                mPower += (int) power;
+                mDirection += direction;
+                mX += x;
+                mY += y;
+            }
+
+            handler.onSample(mTime * 1000000L,
+                    (float) mX / DeltaStreamEncoder.POSITION_SCALE,
+                    (float) mY / DeltaStreamEncoder.POSITION_SCALE,
+                    (float) mAngle / DeltaStreamEncoder.ANGLE_SCALE,
+                    mPower, mDirection);
+            mDecodedCount++;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 丢弃同步状态，等待下一个关键帧，例如检测到丢包时
+     */
+    public void resync() {
+        mSynced = false;
+    }
+
+    private int readSigned(ByteBuffer in) {
+        int value = (int) readUnsigned(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readUnsigned(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (in.hasRemaining()) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+            shift += 7;
+        }
+        mUnderflow = true;
+        return 0;
+    }
+
+    public long getDecodedCount() {
+        return mDecodedCount;
+    }
+
+    /**
+     * @return 同步之前被跳过的增量帧数
+     */
+    public long getSkippedCount() {
+        return mSkippedCount;
+    }
+}
@@ -0,0 +1,193 @@
+package com.liguang.steeringwheel;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 方向盘采样流的增量压缩编码。
+ * <p>
+ * 每个采样先量化为整数：时间单位毫秒，角度单位0.01度，偏移单位 1/{@link #POSITION_SCALE} 像素。
+ * 关键帧写入绝对值，其余帧写入相对上一次输出的差值，均采用zig-zag变长整数编码。
+ * 变化量都落在死区内的采样不输出，每输出 keyframeInterval 帧插入一个关键帧，
+ * 解码端可以从任意关键帧开始同步。摇杆保持不动时所有采样都落在死区内，距上一次输出超过
+ * maxSilenceMillis 的采样强制输出为关键帧，作为心跳，中途加入或丢包的接收端仍能按时同步。
+ * 编码过程不分配内存。
+ */
+public class DeltaStreamEncoder {
+    static final byte FRAME_KEY = 'K';
+    static final byte FRAME_DELTA = 'D';
+    /**
+     * 偏移量化的精度，每像素的份数
+     */
+    public static final int POSITION_SCALE = 4;
+    /**
+     * 角度量化的精度，每度的份数
+     */
+    public static final int ANGLE_SCALE = 100;
+    static final int ANGLE_RANGE = 360 * ANGLE_SCALE;
+    /**
+     * 单帧最大字节数
+     */
+    public static final int MAX_FRAME_SIZE = 1 + 10 + 5 * 5;
+    /**
+     * 默认的最长静默时间，单位毫秒
+     */
+    public static final long DEFAULT_MAX_SILENCE_MILLIS = 1000;
+
+    private final int mKeyframeInterval;
+    private final long mMaxSilenceMillis;
+    private final int mAngleDeadBand;
+    private final int mPowerDeadBand;
+    private final int mPositionDeadBand;
+    /**
+     * 距离上一个关键帧已输出的帧数，-1表示下一帧必须是关键帧
+     */
+    private int mFramesSinceKey = -1;
+    private long mLastTime;
+    private int mLastAngle;
+    private int mLastPower;
+    private int mLastDirection;
+    private int mLastX;
+    private int mLastY;
+    private long mWrittenCount;
+    private long mSuppressedCount;
+    private long mKeyframeCount;
+
+    /**
+     * 最长静默时间为 {@link #DEFAULT_MAX_SILENCE_MILLIS}
+     *
+     * @param keyframeInterval 关键帧间隔，每输出多少帧插入一个关键帧
+     * @param angleDeadBand    角度死区，单位度，变化小于该值视为没有变化
+     * @param powerDeadBand    力度死区，变化小于该值视为没有变化
+     * @param positionDeadBand 偏移死区，单位像素，变化小于该值视为没有变化
+     */
+    public DeltaStreamEncoder(int keyframeInterval, float angleDeadBand, int powerDeadBand, float positionDeadBand) {
+        this(keyframeInterval, DEFAULT_MAX_SILENCE_MILLIS, angleDeadBand, powerDeadBand, positionDeadBand);
+    }
+
+    /**
+     * @param keyframeInterval 关键帧间隔，每输出多少帧插入一个关键帧
+     * @param maxSilenceMillis 最长静默时间，单位毫秒，距上一次输出达到该值的采样即使落在死区内也输出为关键帧
+     * @param angleDeadBand    角度死区，单位度，变化小于该值视为没有变化
+     * @param powerDeadBand    力度死区，变化小于该值视为没有变化
+     * @param positionDeadBand 偏移死区，单位像素，变化小于该值视为没有变化
+     */
+    public DeltaStreamEncoder(int keyframeInterval, long maxSilenceMillis, float angleDeadBand, int powerDeadBand,
+                              float positionDeadBand) {
+        if (keyframeInterval <= 0) {
+            throw new RuntimeException("keyframeInterval <= 0 is not accept");
+        }
+        if (maxSilenceMillis <= 0) {
+            throw new RuntimeException("maxSilenceMillis <= 0 is not accept");
+        }
+
+        mKeyframeInterval = keyframeInterval;
+        mMaxSilenceMillis = maxSilenceMillis;
+        mAngleDeadBand = Math.round(angleDeadBand * ANGLE_SCALE);
+        mPowerDeadBand = powerDeadBand;
+        mPositionDeadBand = Math.round(positionDeadBand * POSITION_SCALE);
+    }
+
+    /**
+     * 下一个输出的帧强制为关键帧，例如接收端请求重新同步时
+     */
+    public void requestKeyframe() {
+        mFramesSinceKey = -1;
+    }
+
+    /**
+     * 编码一个采样。需要心跳时，摇杆不动期间也应按固定频率调用
+     *
+     * @param out 输出缓冲区，剩余空间不少于 {@link #MAX_FRAME_SIZE}
+     * @return 是否输出了帧，落在死区内时返回false
+     */
+    public boolean encode(long timeNanos, float x, float y, double angle, int power, int direction, ByteBuffer out) {
+        long time = timeNanos / 1000000L;
+        int qAngle = (int) Math.round(angle * ANGLE_SCALE) % ANGLE_RANGE;
+        int qX = Math.round(x * POSITION_SCALE);
+        int qY = Math.round(y * POSITION_SCALE);
+
+        boolean key = mFramesSinceKey < 0 || mFramesSinceKey >= mKeyframeInterval || time < mLastTime
+                || time - mLastTime >= mMaxSilenceMillis;
+        int dAngle = wrapAngle(qAngle - mLastAngle);
+        if (!key && direction == mLastDirection
+                && Math.abs(dAngle) < mAngleDeadBand
+                && Math.abs(power - mLastPower) < mPowerDeadBand
+                && Math.abs(qX - mLastX) < mPositionDeadBand
+                && Math.abs(qY - mLastY) < mPositionDeadBand) {
+            mSuppressedCount++;
+            return false;
+        }
+
+        if (key) {
+            out.put(FRAME_KEY);
+            writeUnsigned(out, time);
+            writeUnsigned(out, qAngle);
+            writeUnsigned(out, power);
+            writeSigned(out, direction);
+            writeSigned(out, qX);
+            writeSigned(out, qY);
+            mFramesSinceKey = 0;
+            mKeyframeCount++;
+        } else {
+            out.put(FRAME_DELTA);
+            writeUnsigned(out, time - mLastTime);
+            writeSigned(out, dAngle);
+            writeSigned(out, power - mLastPower);
+            writeSigned(out, direction - mLastDirection);
+            writeSigned(out, qX - mLastX);
+            writeSigned(out, qY - mLastY);
+        }
+        mFramesSinceKey++;
+        mWrittenCount++;
+        mLastTime = time;
+        mLastAngle = qAngle;
+        mLastPower = power;
+        mLastDirection = direction;
+        mLastX = qX;
+        mLastY = qY;
+        return true;
+    }
+
+    /**
+     * 把角度差值规整到半圈以内，跨越0度时差值仍然很小
+     */
+    static int wrapAngle(int delta) {
+        delta %= ANGLE_RANGE;
+        if (delta >= ANGLE_RANGE / 2) {
+            delta -= ANGLE_RANGE;
+        } else if (delta < -ANGLE_RANGE / 2) {
+            delta += ANGLE_RANGE;
+        }
+        return delta;
+    }
+
+    private static void writeSigned(ByteBuffer out, int value) {
+        writeUnsigned(out, ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    private static void writeUnsigned(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * @return 已输出的帧数
+     */
+    public long getWrittenCount() {
+        return mWrittenCount;
+    }
+
+    /**
+     * @return 落在死区内未输出的采样数
+     */
+    public long getSuppressedCount() {
+        return mSuppressedCount;
+    }
+
+    public long getKeyframeCount() {
+        return mKeyframeCount;
+    }
+}
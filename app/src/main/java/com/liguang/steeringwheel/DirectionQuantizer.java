@@ -0,0 +1,178 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 把角度量化为N个扇区的大方向。
+ * <p>
+ * 扇区0以0度(右)为中心，按逆时针编号，每个扇区采用(a,b]开闭区间。360度预先分成 {@link #TABLE_SIZE} 格，
+ * 每格记录所属扇区以及格内的边界，查表加一次比较即可得到扇区，不需要逐个比较。
+ * <p>
+ * 可选滞回：已处于某个扇区时，角度越过边界 hysteresis 度以上才切换，避免在边界附近来回跳变。
+ * 扇区等宽且两侧边界的滞回相同，所以只需判断与当前扇区中心的距离是否超过半个扇区加滞回角度，
+ * 与分别比较两侧边界等价；可选死区：力度小于 deadZonePower 时方向无效。不可变对象，可以被多个引擎共享。
+ * <p>
+ * 四扇区时方向值为 {@link JoystickEngine#RIGHT} 等常量，其他扇区数时为 {@link JoystickEngine#SECTOR_DIRECTION_BASE}
+ * 加扇区序号，两者互不重叠，可用 {@link #sectorOf(int)} 从方向值取回扇区。
+ */
+public class DirectionQuantizer {
+    /**
+     * 无效扇区
+     */
+    public static final int INVALID = -1;
+    /**
+     * 查找表格数，不少于扇区数，每格内最多一个边界
+     */
+    static final int TABLE_SIZE = 1024;
+    private static final double BIN_WIDTH = 360.0 / TABLE_SIZE;
+    /**
+     * 四方向时扇区对应的方向常量，与 {@link JoystickEngine} 保持兼容
+     */
+    private static final int[] FOUR_WAY_DIRECTIONS = {
+            JoystickEngine.RIGHT, JoystickEngine.UP, JoystickEngine.LEFT, JoystickEngine.DOWN};
+
+    private final int mSectors;
+    private final double mSectorWidth;
+    private final double mHysteresis;
+    private final int mDeadZonePower;
+    /**
+     * 每格内的边界角度，没有边界时为正无穷
+     */
+    private final double[] mBoundary = new double[TABLE_SIZE];
+    /**
+     * 每格中不大于边界的角度所属扇区
+     */
+    private final int[] mSectorBelow = new int[TABLE_SIZE];
+    /**
+     * 每格中大于边界的角度所属扇区
+     */
+    private final int[] mSectorAbove = new int[TABLE_SIZE];
+
+    /**
+     * 不带滞回和死区的四方向量化，与原来的行为一致
+     */
+    public DirectionQuantizer() {
+        this(4, 0, 0);
+    }
+
+    /**
+     * @param sectors       扇区数，2 - 360
+     * @param hysteresis    滞回角度，0 到扇区宽度的一半
+     * @param deadZonePower 死区力度，0 - 100，力度小于该值时方向无效
+     */
+    public DirectionQuantizer(int sectors, double hysteresis, int deadZonePower) {
+        if (sectors < 2 || sectors > 360) {
+            throw new RuntimeException("sectors " + sectors + " is not accept");
+        }
+        double width = 360.0 / sectors;
+        if (!(hysteresis >= 0 && hysteresis < width / 2)) {
+            throw new RuntimeException("hysteresis " + hysteresis + " is not accept");
+        }
+        if (deadZonePower < 0 || deadZonePower > 100) {
+            throw new RuntimeException("deadZonePower " + deadZonePower + " is not accept");
+        }
+        mSectors = sectors;
+        mSectorWidth = width;
+        mHysteresis = hysteresis;
+        mDeadZonePower = deadZonePower;
+
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            double start = i * BIN_WIDTH;
+            double end = (i + 1) * BIN_WIDTH;
+            //第k个扇区为((k - 0.5) * width, (k + 0.5) * width]，格的起点落在第k个扇区
+            int k = (int) Math.ceil(start / width - 0.5);
+            double boundary = (k + 0.5) * width;
+            mSectorBelow[i] = k % sectors;
+            if (boundary < end) {
+                mBoundary[i] = boundary;
+                mSectorAbove[i] = (k + 1) % sectors;
+            } else {
+                mBoundary[i] = Double.POSITIVE_INFINITY;
+                mSectorAbove[i] = mSectorBelow[i];
+            }
+        }
+    }
+
+    /**
+     * 不考虑滞回和死区，查表得到角度所在扇区
+     *
+     * @param angle 角度，范围[0, 360)
+     */
+    public int sector(double angle) {
+        int bin = (int) (angle * (TABLE_SIZE / 360.0));
+        if (bin >= TABLE_SIZE) {
+            bin = TABLE_SIZE - 1;
+        } else if (bin < 0) {
+            bin = 0;
+        }
+        return angle <= mBoundary[bin] ? mSectorBelow[bin] : mSectorAbove[bin];
+    }
+
+    /**
+     * 量化为扇区
+     *
+     * @param angle    角度，范围[0, 360)
+     * @param power    力度
+     * @param previous 上一次的扇区，用于滞回，没有时为 {@link #INVALID}
+     * @return 扇区，死区内为 {@link #INVALID}
+     */
+    public int quantize(double angle, int power, int previous) {
+        if (power < mDeadZonePower)
+            return INVALID;
+
+        if (previous >= 0 && mHysteresis > 0) {
+            //距当前扇区中心不超过半个扇区加滞回角度时保持不变，即两侧边界各外扩滞回角度
+            double offset = angle - previous * mSectorWidth;
+            if (offset > 180) {
+                offset -= 360;
+            } else if (offset <= -180) {
+                offset += 360;
+            }
+            if (Math.abs(offset) <= mSectorWidth / 2 + mHysteresis)
+                return previous;
+        }
+        return sector(angle);
+    }
+
+    /**
+     * 扇区对应的方向值。四扇区时为 {@link JoystickEngine#RIGHT} {@link JoystickEngine#UP}
+     * {@link JoystickEngine#LEFT} {@link JoystickEngine#DOWN}，其他扇区数时为
+     * {@link JoystickEngine#SECTOR_DIRECTION_BASE} 加扇区序号，不会与四方向常量混淆
+     *
+     * @param sector 扇区
+     * @return 方向值，扇区无效时为 {@link JoystickEngine#INVALID}
+     */
+    public int toDirection(int sector) {
+        if (sector < 0)
+            return JoystickEngine.INVALID;
+
+        return mSectors == 4 ? FOUR_WAY_DIRECTIONS[sector] : JoystickEngine.SECTOR_DIRECTION_BASE + sector;
+    }
+
+    /**
+     * 方向值对应的扇区，{@link #toDirection(int)} 的逆运算
+     *
+     * @param direction 方向值
+     * @return 扇区，四方向常量依次为0 - 3，方向无效时为 {@link #INVALID}
+     */
+    public static int sectorOf(int direction) {
+        if (direction >= JoystickEngine.SECTOR_DIRECTION_BASE)
+            return direction - JoystickEngine.SECTOR_DIRECTION_BASE;
+
+        for (int i = 0; i < FOUR_WAY_DIRECTIONS.length; i++) {
+            if (FOUR_WAY_DIRECTIONS[i] == direction)
+                return i;
+        }
+        return INVALID;
+    }
+
+    public int getSectors() {
+        return mSectors;
+    }
+
+    public double getHysteresis() {
+        return mHysteresis;
+    }
+
+    public int getDeadZonePower() {
+        return mDeadZonePower;
+    }
+}
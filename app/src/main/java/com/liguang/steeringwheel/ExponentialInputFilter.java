@@ -0,0 +1,43 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 指数平滑。平滑系数按时间间隔计算，与触摸采样频率无关，匀速移动时滞后约等于时间常数
+ */
+public class ExponentialInputFilter extends InputFilter {
+    private final double mTimeConstantMillis;
+    private final double mTimeConstantSeconds;
+    private double mX;
+    private double mY;
+
+    /**
+     * @param timeConstantMillis 时间常数，单位毫秒，越大越平滑、滞后越多
+     */
+    public ExponentialInputFilter(double timeConstantMillis) {
+        if (!(timeConstantMillis > 0)) {
+            throw new RuntimeException("timeConstantMillis " + timeConstantMillis + " is not accept");
+        }
+        mTimeConstantMillis = timeConstantMillis;
+        mTimeConstantSeconds = timeConstantMillis / 1000;
+    }
+
+    @Override
+    protected void onStart(float x, float y) {
+        mX = x;
+        mY = y;
+    }
+
+    @Override
+    protected void onFilter(double elapsedSeconds, float x, float y) {
+        double alpha = 1 - Math.exp(-elapsedSeconds / mTimeConstantSeconds);
+        mX += alpha * (x - mX);
+        mY += alpha * (y - mY);
+        setOutput((float) mX, (float) mY);
+    }
+
+    /**
+     * @return 时间常数，单位毫秒
+     */
+    public double getTimeConstantMillis() {
+        return mTimeConstantMillis;
+    }
+}
@@ -0,0 +1,83 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 近似计算角度，用于浮点运算较慢的设备。
+ * <p>
+ * 先按 |y| 与 |x| 的大小缩小到[0, 1]的比值 t，用多项式计算 atan(t)，再按八分区和象限展开到[0, 360)。
+ * 只需一次除法和若干次乘加，不调用 {@link Math#atan2(double, double)} 和 {@link Math#toDegrees(double)}。
+ * 对角线(|x| == |y|)上直接返回45度的奇数倍，方向边界与精确计算一致。
+ */
+public final class FastAtan2 {
+    /**
+     * {@link #high(double, double)} 的最大误差，单位度。多项式保证的 2e-8 弧度约为 1.146e-6 度，
+     * 再留出换算和展开的舍入余量，实测最大约 7.8e-7 度
+     */
+    public static final double MAX_ERROR_HIGH = 0.0000012;
+    /**
+     * {@link #low(double, double)} 的最大误差，单位度
+     */
+    public static final double MAX_ERROR_LOW = 0.09;
+
+    private static final double DEGREES = 180 / Math.PI;
+
+    private FastAtan2() {
+    }
+
+    /**
+     * t² 的八次多项式(Abramowitz & Stegun 4.4.49)，atan(t) 在[0, 1]上误差不超过 2e-8 弧度
+     *
+     * @param y 数学坐标系Y，向上为正
+     * @param x 数学坐标系X，向右为正
+     * @return 角度，范围[0, 360)，x、y都为0时为0
+     */
+    public static double high(double y, double x) {
+        double ax = Math.abs(x);
+        double ay = Math.abs(y);
+        if (ax == ay) {
+            return unfold(ax == 0 ? 0 : 45, y, x);
+        }
+        boolean steep = ay > ax;
+        double t = steep ? ax / ay : ay / ax;
+        double t2 = t * t;
+        double atan = t * (1 + t2 * (-0.3333314528 + t2 * (0.1999355085 + t2 * (-0.1420889944
+                + t2 * (0.1065626393 + t2 * (-0.0752896400 + t2 * (0.0429096138
+                + t2 * (-0.0161657367 + t2 * 0.0028662257))))))));
+        double degrees = atan * DEGREES;
+        return unfold(steep ? 90 - degrees : degrees, y, x);
+    }
+
+    /**
+     * 三次多项式 t * pi / 4 - t * (t - 1) * (0.2447 + 0.0663 * t)，只有四次乘法
+     *
+     * @param y 数学坐标系Y，向上为正
+     * @param x 数学坐标系X，向右为正
+     * @return 角度，范围[0, 360)，x、y都为0时为0
+     */
+    public static double low(double y, double x) {
+        double ax = Math.abs(x);
+        double ay = Math.abs(y);
+        if (ax == ay) {
+            return unfold(ax == 0 ? 0 : 45, y, x);
+        }
+        boolean steep = ay > ax;
+        double t = steep ? ax / ay : ay / ax;
+        double degrees = t * (45 - (t - 1) * (0.2447 * DEGREES + 0.0663 * DEGREES * t));
+        return unfold(steep ? 90 - degrees : degrees, y, x);
+    }
+
+    /**
+     * 把第一象限的角度按x、y的符号展开
+     */
+    private static double unfold(double degrees, double y, double x) {
+        if (x < 0) {
+            degrees = 180 - degrees;
+        }
+        if (y < 0) {
+            degrees = 360 - degrees;
+            if (degrees >= 360) {
+                degrees -= 360;
+            }
+        }
+        return degrees;
+    }
+}
@@ -0,0 +1,27 @@
+package com.liguang.steeringwheel;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * 固定频率通知，按单调时钟计算与上次通知的间隔，最多向主线程消息队列投递一条消息
+ */
+public class FixedRateNotifyScheduler extends NotifyScheduler {
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            dispatch(System.nanoTime());
+        }
+    };
+
+    @Override
+    protected void onRequest() {
+        mHandler.postDelayed(mDispatchRunnable, remainingMillis(System.nanoTime()));
+    }
+
+    @Override
+    protected void onCancel() {
+        mHandler.removeCallbacks(mDispatchRunnable);
+    }
+}
@@ -0,0 +1,15 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 立即通知，在状态改变的调用栈中同步回调监听者，忽略通知间隔
+ */
+public class ImmediateNotifyScheduler extends NotifyScheduler {
+    @Override
+    protected void onRequest() {
+        dispatch(System.nanoTime());
+    }
+
+    @Override
+    protected void onCancel() {
+    }
+}
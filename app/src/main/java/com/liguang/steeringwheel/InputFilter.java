@@ -0,0 +1,82 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 触摸点滤波器，位于触摸输入和 {@link JoystickEngine} 之间。
+ * <p>
+ * 每输入一个触摸点，更新内部状态并给出滤波后的坐标。状态全部是基本类型字段，滤波过程中不分配对象。
+ * 非线程安全，应在同一线程中调用。
+ */
+public abstract class InputFilter {
+    /**
+     * 相邻两点的最小时间间隔，单位秒。触摸事件时间只有毫秒精度，同一毫秒内的点按1毫秒计算
+     */
+    private static final double MIN_ELAPSED_SECONDS = 0.001;
+
+    private long mLastTimeNanos;
+    private boolean mStarted;
+    private float mX;
+    private float mY;
+
+    /**
+     * 输入一个触摸点，结果通过 {@link #getX()} {@link #getY()} 获取
+     *
+     * @param timeNanos 触摸点时间
+     * @param x         X坐标
+     * @param y         Y坐标
+     */
+    public final void filter(long timeNanos, float x, float y) {
+        if (!mStarted) {
+            mStarted = true;
+            onStart(x, y);
+            mX = x;
+            mY = y;
+        } else {
+            double elapsed = Math.max((timeNanos - mLastTimeNanos) / 1e9, MIN_ELAPSED_SECONDS);
+            onFilter(elapsed, x, y);
+        }
+        mLastTimeNanos = timeNanos;
+    }
+
+    /**
+     * 清除状态，下一个点原样输出。新的触摸序列开始时调用
+     */
+    public void reset() {
+        mStarted = false;
+    }
+
+    /**
+     * 第一个点，原样输出，子类在这里初始化状态
+     */
+    protected abstract void onStart(float x, float y);
+
+    /**
+     * 之后的点，子类计算后调用 {@link #setOutput(float, float)}
+     *
+     * @param elapsedSeconds 距上一个点的时间，单位秒
+     */
+    protected abstract void onFilter(double elapsedSeconds, float x, float y);
+
+    protected final void setOutput(float x, float y) {
+        mX = x;
+        mY = y;
+    }
+
+    /**
+     * 一阶低通滤波的平滑系数
+     *
+     * @param elapsedSeconds 时间间隔，单位秒
+     * @param cutoffHz       截止频率
+     */
+    static double smoothingFactor(double elapsedSeconds, double cutoffHz) {
+        double tau = 1 / (2 * Math.PI * cutoffHz);
+        return 1 / (1 + tau / elapsedSeconds);
+    }
+
+    public float getX() {
+        return mX;
+    }
+
+    public float getY() {
+        return mY;
+    }
+}
@@ -0,0 +1,65 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 依次执行的滤波器链，前一个的输出是后一个的输入。例如先 One-Euro 去抖，再短时预测抵消滞后
+ */
+public class InputFilterChain {
+    private final InputFilter[] mFilters;
+    private float mX;
+    private float mY;
+
+    /**
+     * @param filters 按执行顺序排列的滤波器，数组会被复制
+     */
+    public InputFilterChain(InputFilter... filters) {
+        if (filters == null || filters.length == 0) {
+            throw new RuntimeException("empty filters is not accept");
+        }
+        for (InputFilter filter : filters) {
+            if (filter == null) {
+                throw new RuntimeException("null filter is not accept");
+            }
+        }
+        mFilters = filters.clone();
+    }
+
+    /**
+     * 输入一个触摸点，结果通过 {@link #getX()} {@link #getY()} 获取
+     */
+    public void filter(long timeNanos, float x, float y) {
+        InputFilter[] filters = mFilters;
+        for (int i = 0; i < filters.length; i++) {
+            InputFilter filter = filters[i];
+            filter.filter(timeNanos, x, y);
+            x = filter.getX();
+            y = filter.getY();
+        }
+        mX = x;
+        mY = y;
+    }
+
+    /**
+     * 清除所有滤波器的状态，新的触摸序列开始时调用
+     */
+    public void reset() {
+        for (InputFilter filter : mFilters) {
+            filter.reset();
+        }
+    }
+
+    public int getFilterCount() {
+        return mFilters.length;
+    }
+
+    public InputFilter getFilter(int index) {
+        return mFilters[index];
+    }
+
+    public float getX() {
+        return mX;
+    }
+
+    public float getY() {
+        return mY;
+    }
+}
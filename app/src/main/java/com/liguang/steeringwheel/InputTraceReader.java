@@ -0,0 +1,175 @@
+package com.liguang.steeringwheel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 顺序读取 {@link InputTraceWriter} 录制的轨迹文件。
+ * <p>
+ * 文件按64MB分段只读映射，可以读取超过2GB的文件。{@link #next()} 移到下一条记录后通过getter读取字段，
+ * 配置记录的参数通过 {@link #getParam(int)} 等读取，读取过程中不分配对象。非线程安全。
+ */
+public class InputTraceReader implements Closeable {
+    /**
+     * 每次映射的大小，是记录大小的整数倍
+     */
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    private final long mRecordCount;
+    private MappedByteBuffer mWindow;
+    private long mWindowStart;
+    /**
+     * 当前记录序号，-1表示还没有开始读取
+     */
+    private long mIndex = -1;
+    private int mOffset;
+
+    /**
+     * @param file 轨迹文件
+     * @throws IOException 打开文件失败或文件格式不符
+     */
+    public InputTraceReader(File file) throws IOException {
+        mFile = new RandomAccessFile(file, "r");
+        try {
+            mChannel = mFile.getChannel();
+            long size = mChannel.size();
+            if (size < InputTraceWriter.HEADER_SIZE) {
+                throw new IOException("trace file too short: " + size);
+            }
+            MappedByteBuffer header = mChannel.map(FileChannel.MapMode.READ_ONLY, 0, InputTraceWriter.HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != InputTraceWriter.MAGIC) {
+                throw new IOException("not a trace file");
+            }
+            if (header.getInt(4) != InputTraceWriter.VERSION || header.getInt(8) != InputTraceWriter.RECORD_SIZE) {
+                throw new IOException("unsupported trace version " + header.getInt(4));
+            }
+            //写入过程中异常退出时记录数未写入，以文件长度为准，读到未写入的记录为止
+            long available = (size - InputTraceWriter.HEADER_SIZE) / InputTraceWriter.RECORD_SIZE;
+            long count = header.getLong(InputTraceWriter.COUNT_OFFSET);
+            mRecordCount = count > 0 ? Math.min(count, available) : available;
+        } catch (IOException e) {
+            mFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return 文件中的记录数，文件未正常关闭时为上限
+     */
+    public long getRecordCount() {
+        return mRecordCount;
+    }
+
+    /**
+     * 移到下一条记录
+     *
+     * @return 没有更多记录时返回false
+     * @throws IOException 映射文件失败
+     */
+    public boolean next() throws IOException {
+        if (mIndex + 1 >= mRecordCount)
+            return false;
+
+        mIndex++;
+        long position = InputTraceWriter.HEADER_SIZE + mIndex * InputTraceWriter.RECORD_SIZE;
+        if (mWindow == null || position >= mWindowStart + mWindow.capacity()) {
+            long remaining = InputTraceWriter.HEADER_SIZE + mRecordCount * InputTraceWriter.RECORD_SIZE - position;
+            mWindow = mChannel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, remaining));
+            mWindow.order(ByteOrder.LITTLE_ENDIAN);
+            mWindowStart = position;
+        }
+        mOffset = (int) (position - mWindowStart);
+        return getKind() != 0;
+    }
+
+    /**
+     * 回到文件开头
+     */
+    public void rewind() {
+        mIndex = -1;
+        mWindow = null;
+    }
+
+    /**
+     * @return 事件时间，配置记录没有时间
+     */
+    public long getTimeNanos() {
+        return mWindow.getLong(mOffset);
+    }
+
+    public float getInputX() {
+        return mWindow.getFloat(mOffset + 8);
+    }
+
+    public float getInputY() {
+        return mWindow.getFloat(mOffset + 12);
+    }
+
+    public float getBallX() {
+        return mWindow.getFloat(mOffset + 16);
+    }
+
+    public float getBallY() {
+        return mWindow.getFloat(mOffset + 20);
+    }
+
+    public float getAngle() {
+        return mWindow.getFloat(mOffset + 24);
+    }
+
+    public int getPower() {
+        return mWindow.get(mOffset + 28);
+    }
+
+    public int getDirection() {
+        return mWindow.getShort(mOffset + 30);
+    }
+
+    public int getKind() {
+        return mWindow.get(mOffset + 29);
+    }
+
+    /**
+     * 配置记录的浮点参数
+     *
+     * @param index 参数序号，0 - 2
+     */
+    public double getParam(int index) {
+        return mWindow.getDouble(mOffset + index * 8);
+    }
+
+    /**
+     * @return 配置记录的整数参数
+     */
+    public int getIntParam() {
+        return mWindow.getInt(mOffset + 24);
+    }
+
+    /**
+     * @return 配置记录的字节参数
+     */
+    public int getByteParam() {
+        return mWindow.get(mOffset + 28);
+    }
+
+    /**
+     * @return 配置记录的短整数参数
+     */
+    public int getShortParam() {
+        return mWindow.getShort(mOffset + 30);
+    }
+
+    @Override
+    public void close() throws IOException {
+        mWindow = null;
+        mFile.close();
+    }
+}
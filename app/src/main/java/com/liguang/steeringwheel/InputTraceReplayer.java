@@ -0,0 +1,359 @@
+package com.liguang.steeringwheel;
+
+import java.io.IOException;
+
+/**
+ * 按 {@link InputTraceWriter} 录制的轨迹重新驱动 {@link JoystickEngine}。
+ * <p>
+ * 配置记录按录制时的精度、方向量化、响应曲线、预计算表重新配置引擎，并重建滤波器链；
+ * 原始触摸点先经过滤波再输入引擎。录制时使用了无法重建的自定义滤波器，回放时不滤波。
+ * 每条输入记录按类型调用引擎对应的方法，再把引擎输出的力度、方向和角度与录制时的结果比较，
+ * 不一致的记录计入 {@link #getMismatchCount()}，用于复现现场问题和验证计算内核的改动。
+ * 可以按录制时的节奏回放，也可以不等待尽快回放，作为吞吐量测试。
+ * <p>
+ * 默认每条输入记录回调一次；设置通知调度后与控件一样，每条输入记录请求一次通知，
+ * 由 {@link NotifyScheduler} 合并后回调，用于复现通知频率和合并行为。
+ */
+public class InputTraceReplayer {
+    /**
+     * 角度比较的容差，录制时角度保存为float
+     */
+    private static final double ANGLE_TOLERANCE = 1e-3;
+
+    private final JoystickEngine mEngine;
+    /**
+     * 按配置记录重建的滤波器链，为null时不滤波
+     */
+    private InputFilterChain mFilter;
+    /**
+     * 正在读取的滤波器，读满后组成滤波器链
+     */
+    private InputFilter[] mPendingFilters;
+    private int mPendingFilterCount;
+    /**
+     * 回放中构建的预计算表，范围和覆盖半径不变时复用
+     */
+    private PolarLookupTable mLookup;
+    private SampleRingBuffer.SampleHandler mHandler;
+    /**
+     * 通知调度，为null时每条输入记录直接回调
+     */
+    private NotifyScheduler mScheduler;
+    /**
+     * 按轨迹时间调度的通知，只在 {@link #notifyInterval(long)} 时使用
+     */
+    private TraceClockScheduler mTraceClock;
+    private final NotifyScheduler.Target mNotifyTarget = new NotifyScheduler.Target() {
+        @Override
+        public void deliver(long timeNanos) {
+            mDeliveredCount++;
+            if (mHandler != null) {
+                //与控件一样取当前数据
+                JoystickEngine engine = mEngine;
+                mHandler.onSample(timeNanos, engine.getBallX(), engine.getBallY(),
+                        (float) engine.getAngle(), engine.getPower(), engine.getDirection());
+            }
+        }
+    };
+    private long mReplayedCount;
+    private long mMismatchCount;
+    private long mDeliveredCount;
+
+    /**
+     * @param engine 被驱动的引擎
+     */
+    public InputTraceReplayer(JoystickEngine engine) {
+        mEngine = engine;
+    }
+
+    /**
+     * 设置回调，参数为引擎处理后的状态。没有通知调度时每条输入记录回调一次，时间为记录的时间；
+     * 有通知调度时在通知执行时回调，时间为通知执行的时间
+     *
+     * @param handler 回调，为null时不回调
+     */
+    public InputTraceReplayer handler(SampleRingBuffer.SampleHandler handler) {
+        mHandler = handler;
+        return this;
+    }
+
+    /**
+     * 按轨迹时间以固定间隔合并通知，不依赖主线程，尽快回放时也能得到与录制时相同的通知节奏。
+     * 到期的通知在下一条时间不早于到期时间的记录之前执行，回放结束时执行剩余的通知
+     *
+     * @param intervalMillis 两次通知的最小间隔，单位毫秒
+     */
+    public InputTraceReplayer notifyInterval(long intervalMillis) {
+        TraceClockScheduler clock = new TraceClockScheduler();
+        clock.setInterval(intervalMillis);
+        setScheduler(clock);
+        mTraceClock = clock;
+        return this;
+    }
+
+    /**
+     * 使用自定义或控件使用的通知调度，如 {@link FixedRateNotifyScheduler}。调度器按自己的时钟执行通知，
+     * 基于主线程的调度器需要在主线程中按原速回放
+     *
+     * @param scheduler 通知调度，为null时每条输入记录直接回调
+     */
+    public InputTraceReplayer notifyScheduler(NotifyScheduler scheduler) {
+        setScheduler(scheduler);
+        return this;
+    }
+
+    private void setScheduler(NotifyScheduler scheduler) {
+        if (mScheduler != null) {
+            mScheduler.cancel();
+        }
+        mScheduler = scheduler;
+        mTraceClock = null;
+        if (scheduler != null) {
+            scheduler.setTarget(mNotifyTarget);
+        }
+    }
+
+    /**
+     * 从reader当前位置回放到文件末尾
+     *
+     * @param reader   轨迹
+     * @param realTime true 按录制时相邻记录的时间间隔等待后回放，false 尽快回放
+     * @return 本次回放的记录数
+     * @throws IOException          读取轨迹失败
+     * @throws InterruptedException 按原速回放等待时被中断
+     */
+    public long replay(InputTraceReader reader, boolean realTime) throws IOException, InterruptedException {
+        long count = 0;
+        long firstTraceTime = 0;
+        long startNanos = 0;
+        boolean started = false;
+        while (reader.next()) {
+            //配置记录没有时间，不参与计时
+            boolean timed = reader.getKind() < InputTraceWriter.KIND_ENGINE;
+            if (timed && mTraceClock != null) {
+                mTraceClock.advanceTo(reader.getTimeNanos());
+            }
+            if (realTime && timed) {
+                long traceTime = reader.getTimeNanos();
+                if (!started) {
+                    started = true;
+                    firstTraceTime = traceTime;
+                    startNanos = System.nanoTime();
+                } else {
+                    long waitNanos = (traceTime - firstTraceTime) - (System.nanoTime() - startNanos);
+                    if (waitNanos > 0) {
+                        Thread.sleep(waitNanos / 1000000, (int) (waitNanos % 1000000));
+                    }
+                }
+            }
+            apply(reader);
+            count++;
+        }
+        if (mTraceClock != null) {
+            mTraceClock.finish();
+        }
+        mReplayedCount += count;
+        return count;
+    }
+
+    private void apply(InputTraceReader reader) {
+        JoystickEngine engine = mEngine;
+        switch (reader.getKind()) {
+            case InputTraceWriter.KIND_GEOMETRY:
+                engine.setGeometry(reader.getInputX(), reader.getInputY(), reader.getBallX());
+                return;
+            case InputTraceWriter.KIND_DOWN:
+                if (mFilter != null) {
+                    mFilter.reset();
+                }
+                //按下时状态不变，但与控件一样请求通知
+                if (mScheduler != null) {
+                    mScheduler.request();
+                }
+                return;
+            case InputTraceWriter.KIND_ENGINE:
+                applyEngine(reader);
+                return;
+            case InputTraceWriter.KIND_CURVE:
+                engine.setResponseCurve(reader.getByteParam() == 0 ? null : new ResponseCurve(
+                        (float) reader.getParam(0), (float) reader.getParam(1), (float) reader.getParam(2)));
+                return;
+            case InputTraceWriter.KIND_AXIAL_CURVE:
+                ResponseCurve curve = engine.getResponseCurve();
+                if (curve != null) {
+                    engine.setResponseCurve(curve.withAxial(
+                            (float) reader.getParam(0), (float) reader.getParam(1), (float) reader.getParam(2)));
+                }
+                return;
+            case InputTraceWriter.KIND_FILTERS:
+                applyFilters(reader.getByteParam());
+                return;
+            case InputTraceWriter.KIND_FILTER:
+                applyFilter(reader);
+                return;
+            case InputTraceWriter.KIND_TOUCH:
+                float x = reader.getInputX();
+                float y = reader.getInputY();
+                if (mFilter != null) {
+                    mFilter.filter(reader.getTimeNanos(), x, y);
+                    x = mFilter.getX();
+                    y = mFilter.getY();
+                }
+                engine.update(x, y);
+                break;
+            case InputTraceWriter.KIND_BALL:
+                engine.setBall(reader.getInputX(), reader.getInputY());
+                break;
+            case InputTraceWriter.KIND_RESET:
+                engine.reset();
+                break;
+            default:
+                mMismatchCount++;
+                return;
+        }
+        if (engine.getPower() != reader.getPower()
+                || engine.getDirection() != reader.getDirection()
+                || Math.abs(engine.getAngle() - reader.getAngle()) > ANGLE_TOLERANCE) {
+            mMismatchCount++;
+        }
+        if (mScheduler != null) {
+            mScheduler.request();
+        } else if (mHandler != null) {
+            mHandler.onSample(reader.getTimeNanos(), engine.getBallX(), engine.getBallY(),
+                    (float) engine.getAngle(), engine.getPower(), engine.getDirection());
+        }
+    }
+
+    /**
+     * 按引擎配置记录设置精度、方向量化和预计算表。量化参数不变时保留原对象，不打断滞回
+     */
+    private void applyEngine(InputTraceReader reader) {
+        JoystickEngine engine = mEngine;
+        engine.setPrecision(reader.getByteParam());
+
+        int sectors = reader.getShortParam();
+        double hysteresis = reader.getParam(0);
+        int deadZonePower = (int) reader.getParam(1);
+        DirectionQuantizer quantizer = engine.getDirectionQuantizer();
+        if (quantizer.getSectors() != sectors || quantizer.getHysteresis() != hysteresis
+                || quantizer.getDeadZonePower() != deadZonePower) {
+            engine.setDirectionQuantizer(new DirectionQuantizer(sectors, hysteresis, deadZonePower));
+        }
+
+        int extent = reader.getIntParam();
+        if (extent <= 0) {
+            engine.setPolarLookup(null);
+            return;
+        }
+        if (mLookup == null || mLookup.getRange() != engine.getRange() || mLookup.getExtent() != extent) {
+            mLookup = new PolarLookupTable(engine.getRange(), extent);
+        }
+        engine.setPolarLookup(mLookup);
+    }
+
+    /**
+     * 开始读取新的滤波器链
+     *
+     * @param count 滤波器个数，0表示不滤波
+     */
+    private void applyFilters(int count) {
+        mFilter = null;
+        mPendingFilters = count > 0 ? new InputFilter[count] : null;
+        mPendingFilterCount = 0;
+    }
+
+    /**
+     * 读取滤波器链中的一个滤波器，读满后组成滤波器链，其中有无法重建的滤波器时不滤波
+     */
+    private void applyFilter(InputTraceReader reader) {
+        InputFilter[] filters = mPendingFilters;
+        if (filters == null) {
+            mMismatchCount++;
+            return;
+        }
+        switch (reader.getByteParam()) {
+            case InputTraceWriter.FILTER_EXPONENTIAL:
+                filters[mPendingFilterCount] = new ExponentialInputFilter(reader.getParam(0));
+                break;
+            case InputTraceWriter.FILTER_ONE_EURO:
+                filters[mPendingFilterCount] = new OneEuroInputFilter(
+                        reader.getParam(0), reader.getParam(1), reader.getParam(2));
+                break;
+            case InputTraceWriter.FILTER_PREDICTIVE:
+                filters[mPendingFilterCount] = new PredictiveInputFilter(reader.getParam(0), reader.getParam(1));
+                break;
+            default:
+                break;
+        }
+        if (++mPendingFilterCount < filters.length)
+            return;
+
+        mPendingFilters = null;
+        for (InputFilter filter : filters) {
+            if (filter == null)
+                return;
+        }
+        mFilter = new InputFilterChain(filters);
+    }
+
+    /**
+     * @return 累计回放的记录数
+     */
+    public long getReplayedCount() {
+        return mReplayedCount;
+    }
+
+    /**
+     * @return 回放结果与录制结果不一致的记录数
+     */
+    public long getMismatchCount() {
+        return mMismatchCount;
+    }
+
+    /**
+     * @return 设置通知调度后累计执行的通知数
+     */
+    public long getDeliveredCount() {
+        return mDeliveredCount;
+    }
+
+    /**
+     * 以轨迹时间为时钟的通知调度，由回放过程推进时间
+     */
+    private static final class TraceClockScheduler extends NotifyScheduler {
+        private long mNow;
+        /**
+         * 待执行通知的到期时间
+         */
+        private long mDueAt;
+
+        /**
+         * 推进到指定时间，执行已到期的通知
+         */
+        void advanceTo(long nowNanos) {
+            mNow = nowNanos;
+            if (isPending() && mDueAt <= nowNanos) {
+                dispatch(mDueAt);
+            }
+        }
+
+        /**
+         * 回放结束，在到期时间执行剩余的通知
+         */
+        void finish() {
+            if (isPending()) {
+                mNow = mDueAt;
+                dispatch(mDueAt);
+            }
+        }
+
+        @Override
+        protected void onRequest() {
+            mDueAt = mNow + remainingNanos(mNow);
+        }
+
+        @Override
+        protected void onCancel() {
+        }
+    }
+}
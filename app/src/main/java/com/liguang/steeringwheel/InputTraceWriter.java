@@ -0,0 +1,344 @@
+package com.liguang.steeringwheel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 输入轨迹录制，把每个原始触摸点和由此得到的方向盘状态按定长记录追加到文件中。
+ * <p>
+ * 创建时按记录数上限一次映射整个文件，之后只有这一个映射，写一条记录只是几次内存写，不经过系统调用，
+ * 不分配对象，可以在UI线程的触摸事件处理中直接调用。映射只占用虚拟地址空间，物理内存和磁盘随写入逐页增长，
+ * 关闭时截掉未使用的部分。达到上限后的记录丢弃并计数。非线程安全，应在同一线程中写入。
+ * <p>
+ * 触摸点记录的是滤波前的原始坐标。引擎的精度、方向量化、响应曲线、预计算表以及滤波器链作为配置记录写入，
+ * 引擎配置在每次记录输入前检查，改变时先写配置，回放时按同样的配置重建计算过程。
+ * <p>
+ * 文件格式，小端：
+ * <pre>
+ * 文件头 32字节：
+ *   0  int   {@link #MAGIC}
+ *   4  int   {@link #VERSION}
+ *   8  int   {@link #RECORD_SIZE}
+ *   12 int   保留
+ *   16 long  记录数，关闭时写入
+ *   24 long  保留
+ * 记录 32字节：
+ *   0  long  事件时间，纳秒
+ *   8  float 输入X，几何记录为中心X
+ *   12 float 输入Y，几何记录为中心Y
+ *   16 float 球X，几何记录为范围
+ *   20 float 球Y
+ *   24 float 角度
+ *   28 byte  力度
+ *   29 byte  记录类型 KIND_*，0表示未写入
+ *   30 short 方向
+ * 配置记录 32字节，没有时间：
+ *   0  double 参数0
+ *   8  double 参数1
+ *   16 double 参数2
+ *   24 int    整数参数
+ *   28 byte   字节参数
+ *   29 byte   记录类型
+ *   30 short  短整数参数
+ * </pre>
+ * 各配置记录的参数含义见对应的KIND_*常量。
+ */
+public class InputTraceWriter implements Closeable {
+    /**
+     * "SWTR"
+     */
+    public static final int MAGIC = 0x53575452;
+    public static final int VERSION = 2;
+    public static final int HEADER_SIZE = 32;
+    public static final int RECORD_SIZE = 32;
+    static final int COUNT_OFFSET = 16;
+    /**
+     * 几何参数改变，对应 {@link JoystickEngine#setGeometry(float, float, float)}
+     */
+    public static final int KIND_GEOMETRY = 1;
+    /**
+     * 触摸点，对应 {@link JoystickEngine#update(float, float)}
+     */
+    public static final int KIND_TOUCH = 2;
+    /**
+     * 回弹动画中直接设置球的位置，对应 {@link JoystickEngine#setBall(float, float)}
+     */
+    public static final int KIND_BALL = 3;
+    /**
+     * 回弹结束，对应 {@link JoystickEngine#reset()}
+     */
+    public static final int KIND_RESET = 4;
+    /**
+     * 手指按下，滤波器状态清除，只有时间
+     */
+    public static final int KIND_DOWN = 5;
+    /**
+     * 引擎配置：参数0-1依次为滞回角度、死区力度，整数参数为预计算表覆盖半径(0表示不使用)，
+     * 字节参数为精度，短整数参数为扇区数
+     */
+    public static final int KIND_ENGINE = 6;
+    /**
+     * 响应曲线的径向部分：字节参数为0时线性，为1时参数0-2依次为死区、指数、饱和点
+     */
+    public static final int KIND_CURVE = 7;
+    /**
+     * 响应曲线的轴向部分，紧跟在 {@link #KIND_CURVE} 之后：参数0-2依次为死区、指数、饱和点
+     */
+    public static final int KIND_AXIAL_CURVE = 8;
+    /**
+     * 滤波器链：字节参数为滤波器个数，0表示不滤波，之后依次是每个滤波器的 {@link #KIND_FILTER}
+     */
+    public static final int KIND_FILTERS = 9;
+    /**
+     * 一个滤波器：字节参数为滤波器类型 FILTER_*，参数0-2为构造参数
+     */
+    public static final int KIND_FILTER = 10;
+    /**
+     * 未知的滤波器，无法重建
+     */
+    public static final int FILTER_UNKNOWN = 0;
+    /**
+     * {@link ExponentialInputFilter}：参数0为时间常数，单位毫秒
+     */
+    public static final int FILTER_EXPONENTIAL = 1;
+    /**
+     * {@link OneEuroInputFilter}：参数0-2依次为最小截止频率、速度系数、速度截止频率
+     */
+    public static final int FILTER_ONE_EURO = 2;
+    /**
+     * {@link PredictiveInputFilter}：参数0-1依次为外推时间(毫秒)、速度截止频率
+     */
+    public static final int FILTER_PREDICTIVE = 3;
+    /**
+     * 默认的记录数上限，映射64MB，每秒120个触摸点可以录制约4.8小时
+     */
+    public static final int DEFAULT_MAX_RECORDS = 1 << 21;
+
+    private final RandomAccessFile mFile;
+    private final FileChannel mChannel;
+    /**
+     * 文件头和所有记录的映射
+     */
+    private final MappedByteBuffer mBuffer;
+    private long mCount;
+    private long mDroppedCount;
+    private boolean mClosed;
+    /**
+     * 是否已写入引擎配置，以及写入时的配置，用于检查配置是否改变
+     */
+    private boolean mHasEngineConfig;
+    private int mPrecision;
+    private DirectionQuantizer mQuantizer;
+    private PolarLookupTable mLookup;
+    private ResponseCurve mCurve;
+
+    /**
+     * 记录数上限为 {@link #DEFAULT_MAX_RECORDS}
+     *
+     * @param file 轨迹文件，已存在时被覆盖
+     * @throws IOException 打开或映射文件失败
+     */
+    public InputTraceWriter(File file) throws IOException {
+        this(file, DEFAULT_MAX_RECORDS);
+    }
+
+    /**
+     * @param file       轨迹文件，已存在时被覆盖
+     * @param maxRecords 记录数上限，决定映射的大小，文件头加记录不超过2GB
+     * @throws IOException 打开或映射文件失败
+     */
+    public InputTraceWriter(File file, int maxRecords) throws IOException {
+        if (maxRecords <= 0 || maxRecords > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+            throw new RuntimeException("maxRecords " + maxRecords + " is not accept");
+        }
+        mFile = new RandomAccessFile(file, "rw");
+        try {
+            mFile.setLength(0);
+            mChannel = mFile.getChannel();
+            mBuffer = mChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) maxRecords * RECORD_SIZE);
+            mBuffer.order(ByteOrder.LITTLE_ENDIAN);
+            mBuffer.putInt(0, MAGIC);
+            mBuffer.putInt(4, VERSION);
+            mBuffer.putInt(8, RECORD_SIZE);
+            mBuffer.putLong(COUNT_OFFSET, 0);
+            mBuffer.position(HEADER_SIZE);
+        } catch (IOException e) {
+            mFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 记录几何参数
+     */
+    public void recordGeometry(long timeNanos, float centerX, float centerY, float range) {
+        write(timeNanos, KIND_GEOMETRY, centerX, centerY, range, 0, 0, 0, JoystickEngine.INVALID);
+    }
+
+    /**
+     * 记录手指按下，回放时在此清除滤波器状态
+     */
+    public void recordDown(long timeNanos) {
+        write(timeNanos, KIND_DOWN, 0, 0, 0, 0, 0, 0, JoystickEngine.INVALID);
+    }
+
+    /**
+     * 记录一次输入及引擎处理后的状态。引擎配置与上次写入的不同时，先写入配置
+     *
+     * @param timeNanos 事件时间
+     * @param kind      {@link #KIND_TOUCH} {@link #KIND_BALL} {@link #KIND_RESET}
+     * @param inputX    输入X，触摸点为滤波前的坐标，KIND_RESET时忽略
+     * @param inputY    输入Y，触摸点为滤波前的坐标，KIND_RESET时忽略
+     * @param engine    已处理该输入的引擎
+     */
+    public void record(long timeNanos, int kind, float inputX, float inputY, JoystickEngine engine) {
+        if (!mHasEngineConfig
+                || engine.getPrecision() != mPrecision
+                || engine.getDirectionQuantizer() != mQuantizer
+                || engine.getPolarLookup() != mLookup
+                || engine.getResponseCurve() != mCurve) {
+            recordEngine(engine);
+        }
+        write(timeNanos, kind, inputX, inputY, engine.getBallX(), engine.getBallY(),
+                (float) engine.getAngle(), engine.getPower(), engine.getDirection());
+    }
+
+    /**
+     * 记录引擎配置
+     */
+    private void recordEngine(JoystickEngine engine) {
+        mHasEngineConfig = true;
+        mPrecision = engine.getPrecision();
+        mQuantizer = engine.getDirectionQuantizer();
+        mLookup = engine.getPolarLookup();
+        mCurve = engine.getResponseCurve();
+
+        writeConfig(KIND_ENGINE, mQuantizer.getHysteresis(), mQuantizer.getDeadZonePower(), 0,
+                mLookup != null ? mLookup.getExtent() : 0, mPrecision, mQuantizer.getSectors());
+        ResponseCurve curve = mCurve;
+        if (curve == null) {
+            writeConfig(KIND_CURVE, 0, 0, 0, 0, 0, 0);
+            return;
+        }
+        writeConfig(KIND_CURVE, curve.getRadialDeadZone(), curve.getExpo(), curve.getSaturation(), 0, 1, 0);
+        if (curve.isAxial()) {
+            writeConfig(KIND_AXIAL_CURVE, curve.getAxialDeadZone(), curve.getAxialExpo(),
+                    curve.getAxialSaturation(), 0, 0, 0);
+        }
+    }
+
+    /**
+     * 记录滤波器链，滤波器链改变或开始录制时调用
+     *
+     * @param filters 滤波器链，为null时不滤波
+     */
+    public void recordFilters(InputFilterChain filters) {
+        int count = filters != null ? filters.getFilterCount() : 0;
+        writeConfig(KIND_FILTERS, 0, 0, 0, 0, count, 0);
+        for (int i = 0; i < count; i++) {
+            InputFilter filter = filters.getFilter(i);
+            if (filter instanceof ExponentialInputFilter) {
+                ExponentialInputFilter exponential = (ExponentialInputFilter) filter;
+                writeConfig(KIND_FILTER, exponential.getTimeConstantMillis(), 0, 0, 0, FILTER_EXPONENTIAL, 0);
+            } else if (filter instanceof OneEuroInputFilter) {
+                OneEuroInputFilter oneEuro = (OneEuroInputFilter) filter;
+                writeConfig(KIND_FILTER, oneEuro.getMinCutoffHz(), oneEuro.getBeta(),
+                        oneEuro.getDerivativeCutoffHz(), 0, FILTER_ONE_EURO, 0);
+            } else if (filter instanceof PredictiveInputFilter) {
+                PredictiveInputFilter predictive = (PredictiveInputFilter) filter;
+                writeConfig(KIND_FILTER, predictive.getHorizonMillis(), predictive.getVelocityCutoffHz(), 0,
+                        0, FILTER_PREDICTIVE, 0);
+            } else {
+                writeConfig(KIND_FILTER, 0, 0, 0, 0, FILTER_UNKNOWN, 0);
+            }
+        }
+    }
+
+    /**
+     * 检查是否还能写下一条记录
+     *
+     * @return 可以写入时返回true，已关闭或达到上限时计入丢弃数
+     */
+    private boolean ensureRecord() {
+        if (mClosed || mBuffer.remaining() < RECORD_SIZE) {
+            mDroppedCount++;
+            return false;
+        }
+        return true;
+    }
+
+    private void write(long timeNanos, int kind, float inputX, float inputY, float ballX, float ballY,
+                       float angle, int power, int direction) {
+        if (!ensureRecord())
+            return;
+
+        MappedByteBuffer buffer = mBuffer;
+        buffer.putLong(timeNanos);
+        buffer.putFloat(inputX);
+        buffer.putFloat(inputY);
+        buffer.putFloat(ballX);
+        buffer.putFloat(ballY);
+        buffer.putFloat(angle);
+        buffer.put((byte) power);
+        buffer.put((byte) kind);
+        buffer.putShort((short) direction);
+        mCount++;
+    }
+
+    /**
+     * 写入一条配置记录
+     */
+    private void writeConfig(int kind, double param0, double param1, double param2, int intParam,
+                            int byteParam, int shortParam) {
+        if (!ensureRecord())
+            return;
+
+        MappedByteBuffer buffer = mBuffer;
+        buffer.putDouble(param0);
+        buffer.putDouble(param1);
+        buffer.putDouble(param2);
+        buffer.putInt(intParam);
+        buffer.put((byte) byteParam);
+        buffer.put((byte) kind);
+        buffer.putShort((short) shortParam);
+        mCount++;
+    }
+
+    /**
+     * @return 已写入的记录数
+     */
+    public long getRecordCount() {
+        return mCount;
+    }
+
+    /**
+     * @return 因达到上限或已关闭而丢弃的记录数
+     */
+    public long getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * 写入记录数，截掉末尾未使用的映射区域并关闭文件
+     */
+    @Override
+    public void close() throws IOException {
+        if (mClosed)
+            return;
+
+        mClosed = true;
+        try {
+            mBuffer.putLong(COUNT_OFFSET, mCount);
+            mBuffer.force();
+            mChannel.truncate(HEADER_SIZE + mCount * RECORD_SIZE);
+        } finally {
+            mFile.close();
+        }
+    }
+}
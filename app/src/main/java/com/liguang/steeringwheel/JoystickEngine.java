@@ -0,0 +1,419 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 方向盘几何计算内核。
+ * <p>
+ * 不依赖Android，状态全部保存在基本类型字段中，计算过程中不分配任何对象，
+ * 可以直接在JVM上进行单元测试和基准测试。非线程安全，应在同一线程中调用。
+ */
+public class JoystickEngine {
+    /**
+     * 当前方向无效，球位于中心时处于该状态
+     */
+    public static final int INVALID = -1;
+    /**
+     * 向右
+     */
+    public static final int RIGHT = 0;
+    /**
+     * 向上
+     */
+    public static final int UP = 1;
+    /**
+     * 向左
+     */
+    public static final int LEFT = 2;
+    /**
+     * 向下
+     */
+    public static final int DOWN = 4;
+    /**
+     * 非四扇区量化时的方向值起点，方向值为该值加扇区序号，与 {@link #RIGHT} {@link #UP} {@link #LEFT} {@link #DOWN} 不重叠
+     */
+    public static final int SECTOR_DIRECTION_BASE = 0x100;
+    /**
+     * 精确计算，角度使用 {@link Math#atan2(double, double)}，力度使用开方
+     */
+    public static final int PRECISION_EXACT = 0;
+    /**
+     * 角度使用 {@link FastAtan2#high(double, double)}，误差不超过 {@link FastAtan2#MAX_ERROR_HIGH} 度(约1.2e-6)；
+     * 范围内的力度与各力度的距离平方比较得到，不开方，误差不超过 {@link #MAX_POWER_ERROR}
+     */
+    public static final int PRECISION_HIGH = 1;
+    /**
+     * 角度使用 {@link FastAtan2#low(double, double)}，误差不超过 {@link FastAtan2#MAX_ERROR_LOW} 度；
+     * 力度与 {@link #PRECISION_HIGH} 相同
+     */
+    public static final int PRECISION_LOW = 2;
+    /**
+     * 近似精度下力度的最大误差，只在距离恰好落在两个力度分界上时因舍入不同而相差1
+     */
+    public static final int MAX_POWER_ERROR = 1;
+    /**
+     * 默认的四方向量化，不可变，所有引擎共享
+     */
+    private static final DirectionQuantizer DEFAULT_QUANTIZER = new DirectionQuantizer();
+    /**
+     * 中心X
+     */
+    private float mCenterX;
+    /**
+     * 中心Y
+     */
+    private float mCenterY;
+    /**
+     * 球心可偏离中心的最大距离，即大圆半径减去球的半径
+     */
+    private float mRange;
+    /**
+     * 当前球中心X坐标
+     */
+    private float mBallX;
+    /**
+     * 当前球中心Y坐标
+     */
+    private float mBallY;
+    /**
+     * 当前角度，范围[0, 360)，其中右0，上90，左180，下270
+     */
+    private double mAngle;
+    /**
+     * 当前偏离中心的百分比，取值为 0 - 100
+     */
+    private int mPower;
+    /**
+     * 当前方向
+     */
+    private int mDirection = INVALID;
+    /**
+     * 方向量化
+     */
+    private DirectionQuantizer mQuantizer = DEFAULT_QUANTIZER;
+    /**
+     * 当前扇区，用于滞回
+     */
+    private int mSector = DirectionQuantizer.INVALID;
+    /**
+     * 整数偏移的预计算表，为null或与当前范围不一致时使用精确计算
+     */
+    private PolarLookupTable mLookup;
+    /**
+     * 计算精度
+     */
+    private int mPrecision = PRECISION_EXACT;
+    /**
+     * 力度 0 - 100 对应的最小距离平方，用于近似精度下不开方计算力度
+     */
+    private final double[] mPowerThresholds = new double[101];
+    /**
+     * 响应曲线，为null时线性。可能在其他线程中替换，每次计算只读取一次
+     */
+    private volatile ResponseCurve mResponseCurve;
+    /**
+     * 范围的倒数，范围为0时为0
+     */
+    private float mInverseRange;
+    /**
+     * 经过响应曲线的X轴输出，[-1, 1]，向右为正
+     */
+    private float mAxisX;
+    /**
+     * 经过响应曲线的Y轴输出，[-1, 1]，向上为正
+     */
+    private float mAxisY;
+
+    /**
+     * 设置几何参数，球回到中心，状态清零。范围改变时预计算表失效
+     *
+     * @param centerX 中心X
+     * @param centerY 中心Y
+     * @param range   球心可偏离中心的最大距离
+     */
+    public void setGeometry(float centerX, float centerY, float range) {
+        mCenterX = centerX;
+        mCenterY = centerY;
+        mRange = range;
+        mInverseRange = range > 0 ? 1 / range : 0;
+        if (mLookup != null && mLookup.getRange() != range) {
+            mLookup = null;
+        }
+        for (int power = 0; power <= 100; power++) {
+            double distance = power * (double) range / 100;
+            mPowerThresholds[power] = distance * distance;
+        }
+        mBallX = centerX;
+        mBallY = centerY;
+        reset();
+    }
+
+    /**
+     * 输入一个触摸点。超出范围时球被限制在边界上，同时更新角度、力度和方向
+     *
+     * @param x 触摸点X坐标
+     * @param y 触摸点Y坐标
+     */
+    public void update(float x, float y) {
+        float dx = x - mCenterX;
+        float dy = y - mCenterY;
+        PolarLookupTable lookup = mLookup;
+        if (lookup != null) {
+            int ix = (int) dx;
+            int iy = (int) dy;
+            if (ix == dx && iy == dy && lookup.contains(ix, iy)) {
+                if (ix != 0 || iy != 0) {
+                    mAngle = lookup.angle(ix, iy);
+                }
+                //范围内缩放比例为1，球位置即触摸点
+                int cell = lookup.cell(ix, iy);
+                float scale = lookup.scale(cell);
+                mBallX = mCenterX + dx * scale;
+                mBallY = mCenterY + dy * scale;
+                mPower = lookup.power(cell);
+                applyResponseCurve();
+                updateDirection();
+                return;
+            }
+        }
+        //屏幕坐标系Y轴向下，数学坐标系Y轴向上
+        if (dx != 0 || dy != 0) {
+            mAngle = angle(-dy, dx);
+        }
+
+        float d2 = dx * dx + dy * dy;
+        float range = mRange;
+        if (d2 > range * range) {
+            //超出范围，沿原方向缩放到边界上
+            float scale = (float) (range / Math.sqrt(d2));
+            mBallX = mCenterX + dx * scale;
+            mBallY = mCenterY + dy * scale;
+            mPower = range > 0 ? 100 : 0;
+        } else {
+            mBallX = x;
+            mBallY = y;
+            mPower = power(d2);
+        }
+        applyResponseCurve();
+        updateDirection();
+    }
+
+    /**
+     * 直接设置球的位置，只更新力度和方向，角度保持不变。用于回弹动画
+     *
+     * @param x 球中心X坐标
+     * @param y 球中心Y坐标
+     */
+    public void setBall(float x, float y) {
+        mBallX = x;
+        mBallY = y;
+        float dx = x - mCenterX;
+        float dy = y - mCenterY;
+        mPower = power(dx * dx + dy * dy);
+        applyResponseCurve();
+        updateDirection();
+    }
+
+    /**
+     * 按响应曲线调整力度，并计算两个轴的输出。方向仍按调整后的力度量化
+     */
+    private void applyResponseCurve() {
+        ResponseCurve curve = mResponseCurve;
+        float axisX = (mBallX - mCenterX) * mInverseRange;
+        float axisY = (mCenterY - mBallY) * mInverseRange;
+        if (curve == null) {
+            mAxisX = axisX;
+            mAxisY = axisY;
+        } else {
+            mPower = curve.power(mPower);
+            mAxisX = curve.axis(axisX);
+            mAxisY = curve.axis(axisY);
+        }
+    }
+
+    /**
+     * 按当前精度计算角度
+     *
+     * @param y 数学坐标系Y，向上为正
+     * @param x 数学坐标系X，向右为正
+     * @return 角度，范围[0, 360)
+     */
+    private double angle(float y, float x) {
+        switch (mPrecision) {
+            case PRECISION_HIGH:
+                return FastAtan2.high(y, x);
+            case PRECISION_LOW:
+                return FastAtan2.low(y, x);
+            default:
+                double angle = Math.toDegrees(Math.atan2(y, x));
+                return angle < 0 ? angle + 360 : angle;
+        }
+    }
+
+    /**
+     * 按当前精度计算力度。近似精度下在范围内二分查找距离平方，超出范围时(如回弹过冲)仍精确计算
+     *
+     * @param d2 球心偏离中心的距离平方
+     */
+    private int power(float d2) {
+        float range = mRange;
+        if (!(range > 0))
+            return 0;
+
+        double[] thresholds = mPowerThresholds;
+        if (mPrecision == PRECISION_EXACT || d2 > thresholds[100]) {
+            return (int) (100 * Math.sqrt(d2) / range);
+        }
+        int low = 0;
+        int high = 100;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (thresholds[mid] <= d2) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 角度、力度清零，方向置为无效，球的位置保持不变
+     */
+    public void reset() {
+        mAngle = 0;
+        mPower = 0;
+        mAxisX = 0;
+        mAxisY = 0;
+        mDirection = INVALID;
+        mSector = DirectionQuantizer.INVALID;
+    }
+
+    /**
+     * 设置方向量化方式，并按当前状态重新计算方向
+     *
+     * @param quantizer 量化方式，为null时恢复默认的四方向
+     */
+    public void setDirectionQuantizer(DirectionQuantizer quantizer) {
+        mQuantizer = quantizer != null ? quantizer : DEFAULT_QUANTIZER;
+        mSector = DirectionQuantizer.INVALID;
+        if (mPower > 0 || mDirection != INVALID) {
+            updateDirection();
+        }
+    }
+
+    /**
+     * 设置角度和力度的计算精度，从下一次输入开始生效。预计算表命中时不受影响
+     *
+     * @param precision {@link #PRECISION_EXACT} {@link #PRECISION_HIGH} {@link #PRECISION_LOW}
+     */
+    public void setPrecision(int precision) {
+        if (precision != PRECISION_EXACT && precision != PRECISION_HIGH && precision != PRECISION_LOW) {
+            throw new RuntimeException("precision " + precision + " is not accept");
+        }
+        mPrecision = precision;
+    }
+
+    /**
+     * 设置响应曲线，从下一次输入开始生效。可以在任意线程中调用，替换是原子的
+     *
+     * @param curve 响应曲线，为null时线性
+     */
+    public void setResponseCurve(ResponseCurve curve) {
+        mResponseCurve = curve;
+    }
+
+    /**
+     * 设置整数偏移的预计算表。触摸点相对中心的偏移为整数且在表的覆盖范围内时查表，
+     * 角度按 {@link PolarLookupTable#ANGLE_STEP} 量化，力度和球位置与精确计算一致
+     *
+     * @param lookup 预计算表，范围与当前范围不一致时不使用，为null时总是精确计算
+     */
+    public void setPolarLookup(PolarLookupTable lookup) {
+        mLookup = lookup != null && lookup.getRange() == mRange ? lookup : null;
+    }
+
+    /**
+     * 球在中心时方向无效，否则按量化方式查表，扇区采用(a,b]开闭区间
+     */
+    private void updateDirection() {
+        if (Math.abs(mCenterX - mBallX) < 0.00000001
+                && Math.abs(mCenterY - mBallY) < 0.00000001) {
+            mSector = DirectionQuantizer.INVALID;
+        } else {
+            mSector = mQuantizer.quantize(mAngle, mPower, mSector);
+        }
+        mDirection = mQuantizer.toDirection(mSector);
+    }
+
+    public float getCenterX() {
+        return mCenterX;
+    }
+
+    public float getCenterY() {
+        return mCenterY;
+    }
+
+    public float getRange() {
+        return mRange;
+    }
+
+    public float getBallX() {
+        return mBallX;
+    }
+
+    public float getBallY() {
+        return mBallY;
+    }
+
+    public double getAngle() {
+        return mAngle;
+    }
+
+    public int getPower() {
+        return mPower;
+    }
+
+    /**
+     * @return 大方向。默认四方向时为 {@link #RIGHT} {@link #UP} {@link #LEFT} {@link #DOWN}，
+     * 其他扇区数时为 {@link #SECTOR_DIRECTION_BASE} 加扇区序号，无效时为 {@link #INVALID}
+     */
+    public int getDirection() {
+        return mDirection;
+    }
+
+    /**
+     * @return 当前扇区序号，无效时为 {@link DirectionQuantizer#INVALID}
+     */
+    public int getSector() {
+        return mSector;
+    }
+
+    /**
+     * @return 经过响应曲线的X轴输出，[-1, 1]，向右为正
+     */
+    public float getAxisX() {
+        return mAxisX;
+    }
+
+    /**
+     * @return 经过响应曲线的Y轴输出，[-1, 1]，向上为正
+     */
+    public float getAxisY() {
+        return mAxisY;
+    }
+
+    public ResponseCurve getResponseCurve() {
+        return mResponseCurve;
+    }
+
+    public int getPrecision() {
+        return mPrecision;
+    }
+
+    public PolarLookupTable getPolarLookup() {
+        return mLookup;
+    }
+
+    public DirectionQuantizer getDirectionQuantizer() {
+        return mQuantizer;
+    }
+}
@@ -0,0 +1,154 @@
+package com.liguang.steeringwheel;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 固定分桶的耗时直方图。
+ * <p>
+ * 以微秒为单位，8微秒以内每微秒一个桶，之后每个2的幂区间等分为8个桶，相对误差不超过12.5%，
+ * 超过 {@link #MAX_MICROS} 的记录计入最后一个桶。另外精确记录最大值。
+ * 记录和读取可以在任意线程中进行，不加锁，不分配内存。
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * 最大的2的幂指数
+     */
+    private static final int MAX_EXPONENT = 26;
+    /**
+     * 可以区分的最大值，单位微秒，约67秒
+     */
+    public static final long MAX_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+    public static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray mBuckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mTotalNanos = new AtomicLong();
+    private final AtomicLong mMaxNanos = new AtomicLong();
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时，单位纳秒，负数按0计
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        mBuckets.incrementAndGet(bucketIndex(nanos / 1000));
+        mCount.incrementAndGet();
+        mTotalNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = mMaxNanos.get())) {
+            if (mMaxNanos.compareAndSet(max, nanos))
+                break;
+        }
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS)
+            return (int) micros;
+        if (micros > MAX_MICROS)
+            return BUCKET_COUNT - 1;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) ((micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @param index 桶序号
+     * @return 该桶的上界(不含)，单位微秒
+     */
+    public static long bucketUpperBoundMicros(int index) {
+        if (index < SUB_BUCKETS)
+            return index + 1;
+
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((long) (SUB_BUCKETS + sub + 1)) << shift;
+    }
+
+    public long getCount() {
+        return mCount.get();
+    }
+
+    /**
+     * @return 平均耗时，单位纳秒
+     */
+    public long getMeanNanos() {
+        long count = mCount.get();
+        return count > 0 ? mTotalNanos.get() / count : 0;
+    }
+
+    /**
+     * @return 最大耗时，单位纳秒
+     */
+    public long getMaxNanos() {
+        return mMaxNanos.get();
+    }
+
+    /**
+     * 百分位耗时，取所在桶的上界，不超过最大值
+     *
+     * @param fraction 百分位，取值(0, 1]，如0.5、0.99
+     * @return 耗时，单位纳秒，没有记录时为0
+     */
+    public long getPercentileNanos(double fraction) {
+        if (fraction <= 0 || fraction > 1) {
+            throw new RuntimeException("fraction " + fraction + " is not accept");
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += mBuckets.get(i);
+        }
+        if (total == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        long max = mMaxNanos.get();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += mBuckets.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBoundMicros(i) * 1000, max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @param index 桶序号，0 到 {@link #BUCKET_COUNT} - 1
+     * @return 该桶的记录数
+     */
+    public long getBucketCount(int index) {
+        return mBuckets.get(index);
+    }
+
+    /**
+     * 复制另一个直方图的数据
+     *
+     * @param other 源直方图
+     * @param reset 复制后是否清空源直方图
+     */
+    public void copyFrom(LatencyHistogram other, boolean reset) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mBuckets.set(i, reset ? other.mBuckets.getAndSet(i, 0) : other.mBuckets.get(i));
+        }
+        mCount.set(reset ? other.mCount.getAndSet(0) : other.mCount.get());
+        mTotalNanos.set(reset ? other.mTotalNanos.getAndSet(0) : other.mTotalNanos.get());
+        mMaxNanos.set(reset ? other.mMaxNanos.getAndSet(0) : other.mMaxNanos.get());
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mBuckets.set(i, 0);
+        }
+        mCount.set(0);
+        mTotalNanos.set(0);
+        mMaxNanos.set(0);
+    }
+}
@@ -0,0 +1,539 @@
+package com.liguang.steeringwheel;
+
+import android.animation.TimeInterpolator;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.animation.OvershootInterpolator;
+
+/**
+ * 多摇杆方向盘控件。
+ * <p>
+ * 一个控件内横向等分放置N个互不影响的摇杆，每个摇杆按手指的pointer id独立跟踪，
+ * 在哪一列按下就由哪个摇杆跟踪该手指。所有摇杆在同一次onDraw中绘制，
+ * 各个摇杆的状态改变经通知调度合并为一次回调，回调中通过 {@link #getAngle(int)} 等方法读取各个摇杆的状态。
+ * 每个摇杆的状态同时通过顺序锁发布，其他线程可以用 {@link #readState(int, SteeringWheelState)} 读取，
+ * 或通过 {@link #getStateSource(int)} 注册到 {@link SteeringWheelHub}。
+ */
+public class MultiSteeringWheelView extends View {
+    private static final int DEFAULT_STICK_COUNT = 2;
+    private static final int MAX_STICK_COUNT = 8;
+    /**
+     * 每个摇杆的默认宽高
+     */
+    private static final int mDefaultStickSizeDp = 200;
+
+    /**
+     * 一个摇杆，在主线程中修改，状态通过顺序锁发布给其他线程
+     */
+    private static class Stick implements SteeringWheelStateSource {
+        final JoystickEngine engine = new JoystickEngine();
+        final StateSeqLock stateLock = new StateSeqLock();
+        /**
+         * 上次刷新时球和箭头所占的区域
+         */
+        final Rect movingBounds = new Rect();
+        ReturnToCenterAnimator animator;
+        int pointerId = MotionEvent.INVALID_POINTER_ID;
+        float centerX;
+        float centerY;
+        float radius;
+
+        boolean isPressed() {
+            return pointerId != MotionEvent.INVALID_POINTER_ID;
+        }
+
+        @Override
+        public SteeringWheelState readState(SteeringWheelState out) {
+            return stateLock.read(out);
+        }
+    }
+
+    private Stick[] mSticks;
+    private MultiSteeringWheelListener mListener;
+    private final NotifyScheduler.Target mNotifyTarget = new NotifyScheduler.Target() {
+        @Override
+        public void deliver(long timeNanos) {
+            if (mListener == null)
+                return;
+
+            long latencyNanos = System.nanoTime() - mLastEventTimeNanos;
+            mListener.onStatusChanged(MultiSteeringWheelView.this);
+            if (mMetrics != null) {
+                mMetrics.increment(SteeringWheelMetrics.DELIVERIES);
+                mMetrics.recordDeliveryLatency(latencyNanos);
+            }
+        }
+    };
+    /**
+     * 通知调度，默认与屏幕刷新同步
+     */
+    private final NotifyControl mNotifyControl = new NotifyControl(mNotifyTarget);
+    private WheelPainter mPainter;
+    private int mBallRadius;
+    private int mDefaultStickSize;
+    /**
+     * 任意摇杆最近一次发布的状态对应的事件时间
+     */
+    private long mLastEventTimeNanos;
+    /**
+     * 统计数据，为null时不统计
+     */
+    private SteeringWheelMetrics mMetrics;
+    /**
+     * 是否缓存静态图层并只刷新球和箭头所在区域
+     */
+    private boolean mStaticLayerCache;
+    /**
+     * 静态图层，包括所有摇杆的横线、竖线和大圆，尺寸改变时重新绘制
+     */
+    private Bitmap mStaticLayer;
+    /**
+     * 本次需要刷新的区域
+     */
+    private final Rect mDirtyRect = new Rect();
+
+    public MultiSteeringWheelView(Context context) {
+        super(context);
+        init(null, 0);
+    }
+
+    public MultiSteeringWheelView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init(attrs, 0);
+    }
+
+    public MultiSteeringWheelView(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        init(attrs, defStyle);
+    }
+
+    private void init(AttributeSet attrs, int defStyle) {
+        TypedArray a = getContext().obtainStyledAttributes(attrs, R.styleable.MultiSteeringWheelView);
+        //读取XML配置
+        int color = a.getColor(R.styleable.MultiSteeringWheelView_ballColor, Color.RED);
+        Drawable arrowRight = a.getDrawable(R.styleable.MultiSteeringWheelView_arrowRight);
+        Drawable ball = a.getDrawable(R.styleable.MultiSteeringWheelView_ballSrc);
+        Drawable ballPressed = a.getDrawable(R.styleable.MultiSteeringWheelView_ballPressedSrc);
+        int stickCount = a.getInt(R.styleable.MultiSteeringWheelView_stickCount, DEFAULT_STICK_COUNT);
+        a.recycle();
+        if (stickCount < 1 || stickCount > MAX_STICK_COUNT) {
+            throw new RuntimeException("stickCount " + stickCount + " is not accept");
+        }
+        mPainter = new WheelPainter(color, arrowRight, ball, ballPressed);
+        mBallRadius = mPainter.getBallRadius();
+        mDefaultStickSize = LGViewUtils.dp2px(getContext(), mDefaultStickSizeDp);
+
+        mSticks = new Stick[stickCount];
+        for (int i = 0; i < stickCount; i++) {
+            final Stick stick = new Stick();
+            stick.animator = new ReturnToCenterAnimator(new ReturnToCenterAnimator.Callback() {
+                @Override
+                public void onAnimationFrame(float x, float y, long frameTimeNanos) {
+                    stick.engine.setBall(x, y);
+                    publishState(stick, frameTimeNanos);
+                    invalidateStick(stick);
+                    notifyStatusChanged();
+                }
+
+                @Override
+                public void onAnimationEnd(long frameTimeNanos) {
+                    stick.engine.reset();
+                    publishState(stick, frameTimeNanos);
+                    invalidateStick(stick);
+                    notifyStatusChanged();
+                }
+            });
+            mSticks[i] = stick;
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        //handle wrap_content，默认每个摇杆一个正方形
+        setMeasuredDimension(WheelPainter.measure(widthMeasureSpec, mDefaultStickSize * mSticks.length,
+                getMeasuredWidth()), WheelPainter.measure(heightMeasureSpec, mDefaultStickSize, getMeasuredHeight()));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        final int paddingLeft = getPaddingLeft();
+        final int paddingTop = getPaddingTop();
+        int width = getWidth() - paddingLeft - getPaddingRight();
+        int height = getHeight() - paddingTop - getPaddingBottom();
+        float columnWidth = (float) width / mSticks.length;
+        long now = System.nanoTime();
+
+        for (int i = 0; i < mSticks.length; i++) {
+            Stick stick = mSticks[i];
+            stick.animator.cancel(now);
+            stick.radius = mPainter.radius((int) columnWidth, height);
+            stick.centerX = paddingLeft + columnWidth * (i + 0.5f);
+            stick.centerY = paddingTop + (height >> 1);
+            stick.engine.setGeometry(stick.centerX, stick.centerY, stick.radius - mBallRadius);
+            publishState(stick, now);
+        }
+        updateStaticLayer();
+    }
+
+    /**
+     * 按当前尺寸重建或释放静态图层
+     */
+    private void updateStaticLayer() {
+        if (mStaticLayer != null) {
+            mStaticLayer.recycle();
+            mStaticLayer = null;
+        }
+        for (Stick stick : mSticks) {
+            stick.movingBounds.setEmpty();
+        }
+        if (!mStaticLayerCache || getWidth() <= 0 || getHeight() <= 0)
+            return;
+
+        mStaticLayer = Bitmap.createBitmap(getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(mStaticLayer);
+        for (Stick stick : mSticks) {
+            mPainter.drawStatic(canvas, stick.centerX, stick.centerY, stick.radius);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        long start = mMetrics != null ? System.nanoTime() : 0;
+        if (mStaticLayer != null) {
+            canvas.drawBitmap(mStaticLayer, 0, 0, null);
+        }
+        for (Stick stick : mSticks) {
+            if (mStaticLayer == null) {
+                mPainter.drawStatic(canvas, stick.centerX, stick.centerY, stick.radius);
+            }
+            boolean pressed = stick.isPressed();
+            mPainter.drawBall(canvas, stick.engine.getBallX(), stick.engine.getBallY(), pressed);
+            if (pressed) {
+                mPainter.drawArrow(canvas, stick.centerX, stick.centerY, stick.radius, stick.engine.getAngle());
+            }
+        }
+        if (mMetrics != null) {
+            mMetrics.increment(SteeringWheelMetrics.DRAWS);
+            mMetrics.recordDrawTime(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mMetrics != null) {
+            mMetrics.increment(SteeringWheelMetrics.TOUCH_EVENTS);
+        }
+        long eventTimeNanos = event.getEventTime() * 1000000L;
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+            case MotionEvent.ACTION_POINTER_DOWN: {
+                final int index = event.getActionIndex();
+                Stick stick = mSticks[columnOf(event.getX(index))];
+                if (!stick.isPressed()) {
+                    stick.pointerId = event.getPointerId(index);
+                    //按下时状态不变，但本次通知由该事件引起
+                    mLastEventTimeNanos = eventTimeNanos;
+                    if (stick.animator.isRunning()) {
+                        //上一次的回弹动画还没结束，取消动画，及时响应用户输入
+                        stick.animator.cancel(eventTimeNanos);
+                        if (mMetrics != null) {
+                            mMetrics.increment(SteeringWheelMetrics.RESETS_CANCELLED);
+                        }
+                    }
+                    invalidateStick(stick);
+                }
+                break;
+            }
+            case MotionEvent.ACTION_MOVE: {
+                for (Stick stick : mSticks) {
+                    if (!stick.isPressed())
+                        continue;
+
+                    final int index = event.findPointerIndex(stick.pointerId);
+                    if (index >= 0) {
+                        stick.engine.update(event.getX(index), event.getY(index));
+                        publishState(stick, eventTimeNanos);
+                        invalidateStick(stick);
+                    }
+                }
+                break;
+            }
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_POINTER_UP: {
+                final int pointerId = event.getPointerId(event.getActionIndex());
+                for (Stick stick : mSticks) {
+                    if (stick.pointerId == pointerId) {
+                        mLastEventTimeNanos = eventTimeNanos;
+                        release(stick);
+                    }
+                }
+                break;
+            }
+            case MotionEvent.ACTION_CANCEL: {
+                for (Stick stick : mSticks) {
+                    if (stick.isPressed()) {
+                        mLastEventTimeNanos = eventTimeNanos;
+                        release(stick);
+                    }
+                }
+                break;
+            }
+            default:
+                break;
+        }
+
+        notifyStatusChanged();
+        return true;
+    }
+
+    /**
+     * 触摸点所在的列
+     */
+    private int columnOf(float x) {
+        int width = getWidth() - getPaddingLeft() - getPaddingRight();
+        int column = width > 0 ? (int) ((x - getPaddingLeft()) * mSticks.length / width) : 0;
+        return Math.max(0, Math.min(mSticks.length - 1, column));
+    }
+
+    /**
+     * 手指抬起，球回到中心
+     */
+    private void release(Stick stick) {
+        stick.pointerId = MotionEvent.INVALID_POINTER_ID;
+        if (mMetrics != null) {
+            mMetrics.increment(SteeringWheelMetrics.RESETS_STARTED);
+        }
+        stick.animator.start(stick.engine.getBallX(), stick.engine.getBallY(), stick.centerX, stick.centerY);
+        invalidateStick(stick);
+    }
+
+    /**
+     * 发布摇杆的当前状态，供其他线程读取
+     *
+     * @param eventTimeNanos 产生该状态的事件时间
+     */
+    private void publishState(Stick stick, long eventTimeNanos) {
+        JoystickEngine engine = stick.engine;
+        mLastEventTimeNanos = eventTimeNanos;
+        stick.stateLock.write(engine.getAngle(), engine.getPower(), engine.getDirection(),
+                engine.getBallX() - engine.getCenterX(), engine.getBallY() - engine.getCenterY(),
+                engine.getAxisX(), engine.getAxisY(), eventTimeNanos);
+    }
+
+    /**
+     * 刷新一个摇杆的球和箭头。开启静态图层缓存时只刷新新旧位置的并集，否则刷新整个控件
+     */
+    private void invalidateStick(Stick stick) {
+        if (!mStaticLayerCache) {
+            invalidate();
+            return;
+        }
+
+        mDirtyRect.set(stick.movingBounds);
+        mPainter.movingBounds(stick.movingBounds, stick.engine.getBallX(), stick.engine.getBallY(),
+                stick.centerX, stick.centerY, stick.radius, stick.engine.getAngle(), stick.isPressed());
+        mDirtyRect.union(stick.movingBounds);
+        invalidate(mDirtyRect);
+    }
+
+    private void notifyStatusChanged() {
+        if (mListener == null)
+            return;
+
+        if (mMetrics != null) {
+            mMetrics.increment(SteeringWheelMetrics.NOTIFY_REQUESTS);
+        }
+        mNotifyControl.request();
+    }
+
+    private Stick stick(int index) {
+        if (index < 0 || index >= mSticks.length) {
+            throw new RuntimeException("stick " + index + " is not accept");
+        }
+        return mSticks[index];
+    }
+
+    /**
+     * @return 摇杆个数
+     */
+    public int getStickCount() {
+        return mSticks.length;
+    }
+
+    /**
+     * @param stick 摇杆序号，从左到右为 0 到 {@link #getStickCount()} - 1
+     * @return 当前角度。范围0-360，其中右0，上90，左180，下270
+     */
+    public double getAngle(int stick) {
+        return stick(stick).engine.getAngle();
+    }
+
+    /**
+     * @param stick 摇杆序号
+     * @return 方向上的力度。范围0-100
+     */
+    public int getPower(int stick) {
+        return stick(stick).engine.getPower();
+    }
+
+    /**
+     * @param stick 摇杆序号
+     * @return 大致方向，取值见 {@link JoystickEngine#getDirection()}
+     */
+    public int getDirection(int stick) {
+        return stick(stick).engine.getDirection();
+    }
+
+    /**
+     * @param stick 摇杆序号
+     * @return 是否有手指按住
+     */
+    public boolean isPressed(int stick) {
+        return stick(stick).isPressed();
+    }
+
+    /**
+     * 读取一个摇杆当前状态的一致快照。可以在任意线程中调用，不阻塞主线程，也不分配内存
+     *
+     * @param stick 摇杆序号
+     * @param out   由调用方持有的快照对象
+     * @return out
+     */
+    public SteeringWheelState readState(int stick, SteeringWheelState out) {
+        return stick(stick).readState(out);
+    }
+
+    /**
+     * 获取一个摇杆的状态数据源，可以注册到 {@link SteeringWheelHub}，与其他方向盘在同一个控制循环中采样
+     *
+     * @param stick 摇杆序号
+     * @return 状态数据源，同一个摇杆总是返回同一个对象
+     */
+    public SteeringWheelStateSource getStateSource(int stick) {
+        return stick(stick);
+    }
+
+    /**
+     * 设置监听器，所有摇杆的状态改变合并为一次回调
+     *
+     * @param listener 监听器对象
+     */
+    public MultiSteeringWheelView listener(MultiSteeringWheelListener listener) {
+        mListener = listener;
+        return this;
+    }
+
+    /**
+     * 设置回调时间间隔
+     *
+     * @param interval 回调时间间隔
+     */
+    public MultiSteeringWheelView notifyInterval(long interval) {
+        mNotifyControl.setInterval(interval);
+        return this;
+    }
+
+    /**
+     * 设置通知模式，默认 {@link SteeringWheelView#NOTIFY_MODE_FIXED_RATE}
+     *
+     * @param mode {@link SteeringWheelView#NOTIFY_MODE_FIXED_RATE} {@link SteeringWheelView#NOTIFY_MODE_VSYNC}
+     *             {@link SteeringWheelView#NOTIFY_MODE_IMMEDIATE}
+     */
+    public MultiSteeringWheelView notifyMode(int mode) {
+        mNotifyControl.setMode(mode);
+        return this;
+    }
+
+    /**
+     * 设置自定义通知调度器，替换 {@link #notifyMode(int)} 的设置
+     *
+     * @param scheduler 通知调度器
+     */
+    public MultiSteeringWheelView notifyScheduler(NotifyScheduler scheduler) {
+        mNotifyControl.setScheduler(scheduler);
+        return this;
+    }
+
+    /**
+     * 设置统计数据，统计项与 {@link SteeringWheelView#metrics(SteeringWheelMetrics)} 相同，所有摇杆计入同一份统计
+     *
+     * @param metrics 统计数据，可以由多个控件共享，为null时不统计
+     */
+    public MultiSteeringWheelView metrics(SteeringWheelMetrics metrics) {
+        mMetrics = metrics;
+        return this;
+    }
+
+    /**
+     * 是否缓存静态图层，与 {@link SteeringWheelView#staticLayerCache(boolean)} 相同。
+     * 开启后所有摇杆的横线、竖线和大圆绘制到同一张位图中，球移动时只刷新该摇杆球和箭头新旧位置的并集
+     *
+     * @param enabled 是否开启，默认关闭
+     */
+    public MultiSteeringWheelView staticLayerCache(boolean enabled) {
+        if (mStaticLayerCache != enabled) {
+            mStaticLayerCache = enabled;
+            updateStaticLayer();
+            invalidate();
+        }
+        return this;
+    }
+
+    /**
+     * 指定所有摇杆回弹动画的时间插值器
+     *
+     * @param interpolator 时间插值器，为null时使用默认的 {@link OvershootInterpolator}
+     */
+    public MultiSteeringWheelView interpolator(TimeInterpolator interpolator) {
+        for (Stick stick : mSticks) {
+            stick.animator.setInterpolator(interpolator != null ? interpolator : new OvershootInterpolator());
+        }
+        return this;
+    }
+
+    /**
+     * 所有摇杆的回弹动画改为弹簧方式
+     *
+     * @param stiffness    刚度
+     * @param dampingRatio 阻尼比
+     */
+    public MultiSteeringWheelView springReturn(float stiffness, float dampingRatio) {
+        for (Stick stick : mSticks) {
+            stick.animator.setSpring(stiffness, dampingRatio);
+        }
+        return this;
+    }
+
+    /**
+     * 设置所有摇杆大方向的量化方式
+     *
+     * @param quantizer 量化方式，为null时恢复默认的四方向
+     */
+    public MultiSteeringWheelView directionQuantizer(DirectionQuantizer quantizer) {
+        for (Stick stick : mSticks) {
+            stick.engine.setDirectionQuantizer(quantizer);
+        }
+        return this;
+    }
+
+    interface MultiSteeringWheelListener {
+        /**
+         * 任意摇杆状态改变的回调，多个摇杆的改变合并为一次，频率由通知模式和间隔决定
+         *
+         * @param view 控件实例对象，通过 {@link #getAngle(int)} {@link #getPower(int)}
+         *             {@link #getDirection(int)} 读取各个摇杆的状态
+         */
+        void onStatusChanged(MultiSteeringWheelView view);
+    }
+}
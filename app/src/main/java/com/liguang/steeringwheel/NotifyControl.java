@@ -0,0 +1,91 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 方向盘控件共用的通知调度设置。
+ * <p>
+ * 保存回调间隔和通知的接收者，第一次请求通知时才创建调度器，默认为 {@link SteeringWheelView#NOTIFY_MODE_FIXED_RATE}，
+ * 所有方向盘控件相同。替换调度器时取消旧调度器上待执行的通知。
+ * 只能在主线程中调用。
+ */
+final class NotifyControl {
+    private final NotifyScheduler.Target mTarget;
+    private NotifyScheduler mScheduler;
+    /**
+     * 通知的时间最小间隔
+     */
+    private long mInterval;
+
+    /**
+     * @param target 通知的接收者
+     */
+    NotifyControl(NotifyScheduler.Target target) {
+        mTarget = target;
+    }
+
+    /**
+     * 请求一次通知
+     */
+    void request() {
+        if (mScheduler == null) {
+            setScheduler(create(SteeringWheelView.NOTIFY_MODE_FIXED_RATE));
+        }
+        mScheduler.request();
+    }
+
+    /**
+     * 设置回调时间间隔
+     *
+     * @param interval 回调时间间隔，单位毫秒
+     */
+    void setInterval(long interval) {
+        if (interval < 0) {
+            throw new RuntimeException("notifyInterval interval < 0 is not accept");
+        }
+
+        mInterval = interval;
+        if (mScheduler != null) {
+            mScheduler.setInterval(interval);
+        }
+    }
+
+    /**
+     * 设置通知模式
+     *
+     * @param mode {@link SteeringWheelView#NOTIFY_MODE_FIXED_RATE} {@link SteeringWheelView#NOTIFY_MODE_VSYNC}
+     *             {@link SteeringWheelView#NOTIFY_MODE_IMMEDIATE}
+     */
+    void setMode(int mode) {
+        setScheduler(create(mode));
+    }
+
+    /**
+     * 设置自定义通知调度器
+     *
+     * @param scheduler 通知调度器
+     */
+    void setScheduler(NotifyScheduler scheduler) {
+        if (scheduler == null) {
+            throw new RuntimeException("notifyScheduler scheduler == null is not accept");
+        }
+
+        if (mScheduler != null) {
+            mScheduler.cancel();
+        }
+        mScheduler = scheduler;
+        mScheduler.setInterval(mInterval);
+        mScheduler.setTarget(mTarget);
+    }
+
+    private static NotifyScheduler create(int mode) {
+        switch (mode) {
+            case SteeringWheelView.NOTIFY_MODE_FIXED_RATE:
+                return new FixedRateNotifyScheduler();
+            case SteeringWheelView.NOTIFY_MODE_VSYNC:
+                return new VsyncNotifyScheduler();
+            case SteeringWheelView.NOTIFY_MODE_IMMEDIATE:
+                return new ImmediateNotifyScheduler();
+            default:
+                throw new RuntimeException("notifyMode mode = " + mode + " is not accept");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 通知调度器，决定状态改变后何时回调监听者。
+ * <p>
+ * 同一时刻最多只有一次待执行的通知，尚未执行前的多次 {@link #request()} 会被合并，
+ * 执行时取当前数据。时间统一使用单调递增的纳秒时钟。只能在主线程中调用。
+ */
+public abstract class NotifyScheduler {
+    /**
+     * 通知的接收者
+     */
+    public interface Target {
+        /**
+         * 执行通知
+         *
+         * @param timeNanos 执行通知的时间，与 {@link System#nanoTime()} 同一时钟
+         */
+        void deliver(long timeNanos);
+    }
+
+    private Target mTarget;
+    /**
+     * 是否有待执行的通知
+     */
+    private boolean mPending;
+    /**
+     * 两次通知的最小间隔
+     */
+    private long mIntervalNanos;
+    /**
+     * 上次通知的时间
+     */
+    private long mLastDeliverNanos;
+    private boolean mHasDelivered;
+
+    void setTarget(Target target) {
+        mTarget = target;
+    }
+
+    /**
+     * 设置两次通知的最小间隔
+     *
+     * @param intervalMillis 间隔，单位毫秒
+     */
+    public void setInterval(long intervalMillis) {
+        mIntervalNanos = intervalMillis * 1000000L;
+    }
+
+    public long getIntervalNanos() {
+        return mIntervalNanos;
+    }
+
+    /**
+     * 请求一次通知。已有待执行的通知时直接合并
+     */
+    public final void request() {
+        if (mPending || mTarget == null)
+            return;
+
+        mPending = true;
+        onRequest();
+    }
+
+    /**
+     * 取消待执行的通知
+     */
+    public final void cancel() {
+        if (!mPending)
+            return;
+
+        mPending = false;
+        onCancel();
+    }
+
+    public final boolean isPending() {
+        return mPending;
+    }
+
+    /**
+     * 距离下次允许通知还需等待的时间
+     *
+     * @param nowNanos 当前时间
+     * @return 等待时间，单位纳秒，不需要等待时为0
+     */
+    protected final long remainingNanos(long nowNanos) {
+        if (!mHasDelivered)
+            return 0;
+
+        long remaining = mLastDeliverNanos + mIntervalNanos - nowNanos;
+        return remaining > 0 ? remaining : 0;
+    }
+
+    /**
+     * 距离下次允许通知还需等待的毫秒数，向上取整，按此延迟执行不会早于间隔
+     *
+     * @param nowNanos 当前时间
+     * @return 等待时间，单位毫秒，不需要等待时为0
+     */
+    protected final long remainingMillis(long nowNanos) {
+        return (remainingNanos(nowNanos) + 999999) / 1000000;
+    }
+
+    /**
+     * 执行待执行的通知，由子类在调度时机到来时调用
+     *
+     * @param nowNanos 当前时间
+     */
+    protected final void dispatch(long nowNanos) {
+        if (!mPending)
+            return;
+
+        mPending = false;
+        mHasDelivered = true;
+        mLastDeliverNanos = nowNanos;
+        mTarget.deliver(nowNanos);
+    }
+
+    /**
+     * 有新的待执行通知，子类在此安排调度
+     */
+    protected abstract void onRequest();
+
+    /**
+     * 待执行通知被取消，子类在此撤销调度
+     */
+    protected abstract void onCancel();
+}
@@ -0,0 +1,74 @@
+package com.liguang.steeringwheel;
+
+/**
+ * One-Euro 滤波。截止频率随移动速度升高：静止或慢速时强平滑去抖，快速移动时接近原始输入，减少滞后。
+ * 两个轴共用按合速度计算的截止频率，斜向移动时两轴平滑程度一致
+ */
+public class OneEuroInputFilter extends InputFilter {
+    private final double mMinCutoffHz;
+    private final double mBeta;
+    private final double mDerivativeCutoffHz;
+    private double mX;
+    private double mY;
+    private double mDx;
+    private double mDy;
+    private float mRawX;
+    private float mRawY;
+
+    /**
+     * @param minCutoffHz        静止时的截止频率，越小去抖越强
+     * @param beta               速度系数，单位 1/像素，越大快速移动时滞后越小
+     * @param derivativeCutoffHz 速度估计的截止频率，通常取1
+     */
+    public OneEuroInputFilter(double minCutoffHz, double beta, double derivativeCutoffHz) {
+        if (!(minCutoffHz > 0)) {
+            throw new RuntimeException("minCutoffHz " + minCutoffHz + " is not accept");
+        }
+        if (!(beta >= 0)) {
+            throw new RuntimeException("beta " + beta + " is not accept");
+        }
+        if (!(derivativeCutoffHz > 0)) {
+            throw new RuntimeException("derivativeCutoffHz " + derivativeCutoffHz + " is not accept");
+        }
+        mMinCutoffHz = minCutoffHz;
+        mBeta = beta;
+        mDerivativeCutoffHz = derivativeCutoffHz;
+    }
+
+    @Override
+    protected void onStart(float x, float y) {
+        mX = x;
+        mY = y;
+        mDx = 0;
+        mDy = 0;
+        mRawX = x;
+        mRawY = y;
+    }
+
+    @Override
+    protected void onFilter(double elapsedSeconds, float x, float y) {
+        double alphaD = smoothingFactor(elapsedSeconds, mDerivativeCutoffHz);
+        mDx += alphaD * ((x - mRawX) / elapsedSeconds - mDx);
+        mDy += alphaD * ((y - mRawY) / elapsedSeconds - mDy);
+        mRawX = x;
+        mRawY = y;
+
+        double speed = Math.sqrt(mDx * mDx + mDy * mDy);
+        double alpha = smoothingFactor(elapsedSeconds, mMinCutoffHz + mBeta * speed);
+        mX += alpha * (x - mX);
+        mY += alpha * (y - mY);
+        setOutput((float) mX, (float) mY);
+    }
+
+    public double getMinCutoffHz() {
+        return mMinCutoffHz;
+    }
+
+    public double getBeta() {
+        return mBeta;
+    }
+
+    public double getDerivativeCutoffHz() {
+        return mDerivativeCutoffHz;
+    }
+}
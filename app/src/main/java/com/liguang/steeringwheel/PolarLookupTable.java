@@ -0,0 +1,143 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 整数像素偏移到角度、力度、限制后球位置的预计算表。
+ * <p>
+ * 触摸坐标在进入 {@link JoystickEngine#update(float, float)} 之前已截断为整数，中心和范围在一次布局内也是整数，
+ * 所以范围内可能的偏移是有限的。利用四个象限的对称性，只保存第一象限(含坐标轴) (extent + 1)² 个格子：
+ * <ul>
+ * <li>角度：char，以 {@link #ANGLE_STEP} 度为单位量化，与精确计算相差不超过半个单位，约0.0014度</li>
+ * <li>力度：byte，与精确计算完全一致</li>
+ * <li>缩放：float，超出范围时球心沿原方向缩放到边界的比例，范围内为1，球位置与精确计算完全一致</li>
+ * </ul>
+ * 每格7字节，查表不需要三角函数和开方。构造时计算量较大，应在后台线程中创建，创建后不可变，可以跨线程发布。
+ */
+public class PolarLookupTable {
+    /**
+     * 90度对应的角度单位数
+     */
+    static final int QUARTER = 32768;
+    /**
+     * 角度量化单位，90 / 32768 度，可以用double精确表示
+     */
+    public static final double ANGLE_STEP = 90.0 / QUARTER;
+    /**
+     * 每格占用的字节数
+     */
+    static final int BYTES_PER_CELL = 2 + 1 + 4;
+    /**
+     * 覆盖半径上限，单位像素。远大于实际控件的触摸半径，最大的表约7.4MB，避免误用时分配过大的表
+     */
+    static final int MAX_EXTENT = 1024;
+
+    private final float mRange;
+    private final int mExtent;
+    private final int mStride;
+    /**
+     * 第一象限的角度，单位 {@link #ANGLE_STEP}，范围 0 - {@link #QUARTER}
+     */
+    private final char[] mAngle;
+    /**
+     * 力度 0 - 100
+     */
+    private final byte[] mPower;
+    /**
+     * 球心偏移的缩放比例，范围内为1
+     */
+    private final float[] mScale;
+
+    /**
+     * @param range  球心可偏离中心的最大距离，与 {@link JoystickEngine#getRange()} 一致
+     * @param extent 表覆盖的最大偏移，横纵方向偏移都不超过该值的触摸点才能查表，不小于range
+     */
+    public PolarLookupTable(float range, int extent) {
+        if (!(range > 0) || extent < range || extent > MAX_EXTENT) {
+            throw new RuntimeException("range " + range + " extent " + extent + " is not accept");
+        }
+        mRange = range;
+        mExtent = extent;
+        mStride = extent + 1;
+        int cells = mStride * mStride;
+        mAngle = new char[cells];
+        mPower = new byte[cells];
+        mScale = new float[cells];
+
+        //与 JoystickEngine#update 完全相同的表达式，保证力度和球位置逐位一致
+        float range2 = range * range;
+        for (int y = 0; y <= extent; y++) {
+            for (int x = 0; x <= extent; x++) {
+                int cell = y * mStride + x;
+                float dx = x;
+                float dy = y;
+                double angle = Math.toDegrees(Math.atan2(dy, dx));
+                mAngle[cell] = (char) Math.min(QUARTER, Math.round(angle / ANGLE_STEP));
+                float d2 = dx * dx + dy * dy;
+                if (d2 > range2) {
+                    mScale[cell] = (float) (range / Math.sqrt(d2));
+                    mPower[cell] = 100;
+                } else {
+                    mScale[cell] = 1;
+                    mPower[cell] = (byte) (int) (100 * Math.sqrt(d2) / range);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 偏移是否在表的覆盖范围内
+     */
+    public boolean contains(int dx, int dy) {
+        return dx >= -mExtent && dx <= mExtent && dy >= -mExtent && dy <= mExtent;
+    }
+
+    /**
+     * @return 偏移所在的第一象限格子
+     */
+    int cell(int dx, int dy) {
+        return (dy < 0 ? -dy : dy) * mStride + (dx < 0 ? -dx : dx);
+    }
+
+    /**
+     * 按象限对称展开为[0, 360)的角度
+     *
+     * @param dx 屏幕坐标X偏移
+     * @param dy 屏幕坐标Y偏移，向下为正
+     */
+    double angle(int dx, int dy) {
+        int q = mAngle[cell(dx, dy)];
+        int code;
+        //屏幕坐标系Y轴向下
+        if (dy <= 0) {
+            code = dx >= 0 ? q : 2 * QUARTER - q;
+        } else {
+            code = dx < 0 ? 2 * QUARTER + q : 4 * QUARTER - q;
+        }
+        if (code >= 4 * QUARTER) {
+            code -= 4 * QUARTER;
+        }
+        return code * ANGLE_STEP;
+    }
+
+    int power(int cell) {
+        return mPower[cell];
+    }
+
+    float scale(int cell) {
+        return mScale[cell];
+    }
+
+    public float getRange() {
+        return mRange;
+    }
+
+    public int getExtent() {
+        return mExtent;
+    }
+
+    /**
+     * @return 表占用的字节数，不含数组头
+     */
+    public long getMemoryBytes() {
+        return (long) mStride * mStride * BYTES_PER_CELL;
+    }
+}
@@ -0,0 +1,60 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 短时预测。用平滑后的速度把输入外推一小段时间，抵消前面平滑和后续传输带来的滞后，
+ * 代价是速度突变时会短暂冲过头，外推时间不宜超过几十毫秒
+ */
+public class PredictiveInputFilter extends InputFilter {
+    private final double mHorizonMillis;
+    private final double mHorizonSeconds;
+    private final double mVelocityCutoffHz;
+    private double mVx;
+    private double mVy;
+    private float mLastX;
+    private float mLastY;
+
+    /**
+     * @param horizonMillis    外推时间，单位毫秒
+     * @param velocityCutoffHz 速度估计的截止频率，越小速度越平稳、反应越慢
+     */
+    public PredictiveInputFilter(double horizonMillis, double velocityCutoffHz) {
+        if (!(horizonMillis >= 0)) {
+            throw new RuntimeException("horizonMillis " + horizonMillis + " is not accept");
+        }
+        if (!(velocityCutoffHz > 0)) {
+            throw new RuntimeException("velocityCutoffHz " + velocityCutoffHz + " is not accept");
+        }
+        mHorizonMillis = horizonMillis;
+        mHorizonSeconds = horizonMillis / 1000;
+        mVelocityCutoffHz = velocityCutoffHz;
+    }
+
+    @Override
+    protected void onStart(float x, float y) {
+        mVx = 0;
+        mVy = 0;
+        mLastX = x;
+        mLastY = y;
+    }
+
+    @Override
+    protected void onFilter(double elapsedSeconds, float x, float y) {
+        double alpha = smoothingFactor(elapsedSeconds, mVelocityCutoffHz);
+        mVx += alpha * ((x - mLastX) / elapsedSeconds - mVx);
+        mVy += alpha * ((y - mLastY) / elapsedSeconds - mVy);
+        mLastX = x;
+        mLastY = y;
+        setOutput((float) (x + mVx * mHorizonSeconds), (float) (y + mVy * mHorizonSeconds));
+    }
+
+    /**
+     * @return 外推时间，单位毫秒
+     */
+    public double getHorizonMillis() {
+        return mHorizonMillis;
+    }
+
+    public double getVelocityCutoffHz() {
+        return mVelocityCutoffHz;
+    }
+}
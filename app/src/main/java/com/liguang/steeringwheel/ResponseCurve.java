@@ -0,0 +1,185 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 力度和单轴输出的响应曲线：死区、指数曲线、饱和。
+ * <p>
+ * 输入为偏离中心的比例 t，范围[0, 1]，依次经过：
+ * <ol>
+ * <li>死区：t 不大于死区时输出0，之后重新映射到[0, 1]，输出从0连续增长</li>
+ * <li>饱和：t 不小于饱和点时输出1</li>
+ * <li>指数：(1 - expo) * t + expo * t³，expo越大中心附近越细腻</li>
+ * </ol>
+ * 径向曲线作用于力度，总是存在；轴向曲线分别作用于X、Y轴，是可选的，由 {@link #withAxial(float, float, float)}
+ * 指定自己的死区、指数和饱和点，没有轴向曲线时单轴输出保持线性。
+ * 构造时把曲线按 {@link #SEGMENTS} 段采样编译为查找表，使用时线性插值，不再计算幂函数；
+ * 力度额外编译为0 - 100的整数表，直接查表。不可变对象，可以在任意线程中替换。
+ */
+public class ResponseCurve {
+    /**
+     * 查找表的分段数
+     */
+    static final int SEGMENTS = 256;
+
+    private final float mRadialDeadZone;
+    private final float mExpo;
+    private final float mSaturation;
+    private final float mAxialDeadZone;
+    private final float mAxialExpo;
+    private final float mAxialSaturation;
+    /**
+     * 单轴曲线，SEGMENTS + 1 个采样点，没有轴向曲线时为null
+     */
+    private final float[] mAxis;
+    /**
+     * 力度 0 - 100 对应的输出力度
+     */
+    private final byte[] mPower;
+
+    /**
+     * 只有径向曲线，单轴输出保持线性
+     *
+     * @param radialDeadZone 径向死区，作用于力度，[0, 1)
+     * @param expo           指数系数，[0, 1]，0为线性
+     * @param saturation     饱和点，大于死区，不超过1
+     */
+    public ResponseCurve(float radialDeadZone, float expo, float saturation) {
+        checkStage("radial", radialDeadZone, expo, saturation);
+        mRadialDeadZone = radialDeadZone;
+        mExpo = expo;
+        mSaturation = saturation;
+        mAxialDeadZone = 0;
+        mAxialExpo = 0;
+        mAxialSaturation = 1;
+        mAxis = null;
+
+        float[] radial = new float[SEGMENTS + 1];
+        for (int i = 0; i <= SEGMENTS; i++) {
+            radial[i] = evaluate((float) i / SEGMENTS, radialDeadZone, expo, saturation);
+        }
+        mPower = new byte[101];
+        for (int power = 0; power <= 100; power++) {
+            mPower[power] = (byte) Math.round(100 * interpolate(radial, power / 100f));
+        }
+    }
+
+    /**
+     * 复用径向曲线的力度表，编译轴向曲线
+     */
+    private ResponseCurve(ResponseCurve radial, float axialDeadZone, float axialExpo, float axialSaturation) {
+        checkStage("axial", axialDeadZone, axialExpo, axialSaturation);
+        mRadialDeadZone = radial.mRadialDeadZone;
+        mExpo = radial.mExpo;
+        mSaturation = radial.mSaturation;
+        mPower = radial.mPower;
+        mAxialDeadZone = axialDeadZone;
+        mAxialExpo = axialExpo;
+        mAxialSaturation = axialSaturation;
+        mAxis = new float[SEGMENTS + 1];
+        for (int i = 0; i <= SEGMENTS; i++) {
+            mAxis[i] = evaluate((float) i / SEGMENTS, axialDeadZone, axialExpo, axialSaturation);
+        }
+    }
+
+    /**
+     * 返回增加了轴向曲线的新对象，径向曲线不变
+     *
+     * @param deadZone   轴向死区，分别作用于X、Y轴，[0, 1)
+     * @param expo       轴向指数系数，[0, 1]，0为线性
+     * @param saturation 轴向饱和点，大于轴向死区，不超过1
+     */
+    public ResponseCurve withAxial(float deadZone, float expo, float saturation) {
+        return new ResponseCurve(this, deadZone, expo, saturation);
+    }
+
+    private static void checkStage(String stage, float deadZone, float expo, float saturation) {
+        if (!(deadZone >= 0 && deadZone < 1)) {
+            throw new RuntimeException(stage + " deadZone " + deadZone + " is not accept");
+        }
+        if (!(expo >= 0 && expo <= 1)) {
+            throw new RuntimeException(stage + " expo " + expo + " is not accept");
+        }
+        if (!(saturation > deadZone && saturation <= 1)) {
+            throw new RuntimeException(stage + " saturation " + saturation + " is not accept");
+        }
+    }
+
+    /**
+     * 按定义直接计算，只在编译查找表时使用
+     */
+    private static float evaluate(float t, float deadZone, float expo, float saturation) {
+        if (t <= deadZone)
+            return 0;
+        if (t >= saturation)
+            return 1;
+
+        double x = (t - deadZone) / (saturation - deadZone);
+        return (float) ((1 - expo) * x + expo * x * x * x);
+    }
+
+    private static float interpolate(float[] table, float t) {
+        float position = t * SEGMENTS;
+        int index = (int) position;
+        if (index >= SEGMENTS)
+            return table[SEGMENTS];
+
+        return table[index] + (table[index + 1] - table[index]) * (position - index);
+    }
+
+    /**
+     * 力度经过径向曲线，查表
+     *
+     * @param power 原始力度，超出 0 - 100 时按边界处理
+     * @return 输出力度，0 - 100
+     */
+    public int power(int power) {
+        return mPower[power < 0 ? 0 : power > 100 ? 100 : power];
+    }
+
+    /**
+     * 单轴经过轴向曲线，按绝对值插值后保留符号。没有轴向曲线时只按边界截断
+     *
+     * @param value 原始单轴输出，[-1, 1]，超出时按边界处理
+     * @return 输出，[-1, 1]
+     */
+    public float axis(float value) {
+        float[] table = mAxis;
+        if (table == null) {
+            return value < -1 ? -1 : value > 1 ? 1 : value;
+        }
+        if (value < 0) {
+            return -interpolate(table, value < -1 ? 1 : -value);
+        }
+        return interpolate(table, value > 1 ? 1 : value);
+    }
+
+    /**
+     * @return 是否有轴向曲线
+     */
+    public boolean isAxial() {
+        return mAxis != null;
+    }
+
+    public float getRadialDeadZone() {
+        return mRadialDeadZone;
+    }
+
+    public float getExpo() {
+        return mExpo;
+    }
+
+    public float getSaturation() {
+        return mSaturation;
+    }
+
+    public float getAxialDeadZone() {
+        return mAxialDeadZone;
+    }
+
+    public float getAxialExpo() {
+        return mAxialExpo;
+    }
+
+    public float getAxialSaturation() {
+        return mAxialSaturation;
+    }
+}
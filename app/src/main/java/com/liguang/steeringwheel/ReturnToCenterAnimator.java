@@ -0,0 +1,146 @@
+package com.liguang.steeringwheel;
+
+import android.animation.TimeInterpolator;
+import android.view.Choreographer;
+import android.view.animation.OvershootInterpolator;
+
+/**
+ * 球回弹动画。
+ * <p>
+ * 由Choreographer每帧驱动一次，同时更新X、Y两个坐标。对象预先分配并重复使用，
+ * 启动和每帧执行都不分配内存。支持时间插值器和弹簧两种方式。只能在主线程中调用。
+ */
+class ReturnToCenterAnimator implements Choreographer.FrameCallback {
+    /**
+     * 插值器方式的默认时长
+     */
+    private static final long DEFAULT_DURATION_NANOS = 150 * 1000000L;
+
+    interface Callback {
+        /**
+         * 每帧回调一次
+         *
+         * @param x              球中心X坐标
+         * @param y              球中心Y坐标
+         * @param frameTimeNanos 帧时间
+         */
+        void onAnimationFrame(float x, float y, long frameTimeNanos);
+
+        /**
+         * 动画结束，被 {@link #cancel(long)} 取消时也回调，与 ValueAnimator 相同，球应回到中心
+         *
+         * @param frameTimeNanos 帧时间，取消时为取消的时间
+         */
+        void onAnimationEnd(long frameTimeNanos);
+    }
+
+    private final Callback mCallback;
+    private Choreographer mChoreographer;
+    private TimeInterpolator mInterpolator = new OvershootInterpolator();
+    private long mDurationNanos = DEFAULT_DURATION_NANOS;
+    private final SpringIntegrator mSpring = new SpringIntegrator();
+    private boolean mUseSpring;
+    private float mStartX;
+    private float mStartY;
+    private float mTargetX;
+    private float mTargetY;
+    /**
+     * 第一帧的时间，-1表示还未开始
+     */
+    private long mStartTime;
+    private long mLastFrameTime;
+    private boolean mRunning;
+
+    ReturnToCenterAnimator(Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * 使用时间插值器，切换到插值器方式
+     */
+    void setInterpolator(TimeInterpolator interpolator) {
+        mInterpolator = interpolator;
+        mUseSpring = false;
+    }
+
+    /**
+     * 使用弹簧，切换到弹簧方式
+     */
+    void setSpring(float stiffness, float dampingRatio) {
+        mSpring.setSpring(stiffness, dampingRatio);
+        mUseSpring = true;
+    }
+
+    void start(float fromX, float fromY, float toX, float toY) {
+        if (mChoreographer == null) {
+            mChoreographer = Choreographer.getInstance();
+        }
+        if (mRunning) {
+            //重新开始时不回调结束，由新的动画继续回到中心
+            mChoreographer.removeFrameCallback(this);
+        }
+        mStartX = fromX;
+        mStartY = fromY;
+        mTargetX = toX;
+        mTargetY = toY;
+        mSpring.setPosition(fromX - toX, fromY - toY);
+        mStartTime = -1;
+        mRunning = true;
+        mChoreographer.postFrameCallback(this);
+    }
+
+    /**
+     * 取消动画并回调 {@link Callback#onAnimationEnd(long)}，没有运行时不做任何事
+     *
+     * @param timeNanos 取消的时间，通常为引起取消的触摸事件时间
+     */
+    void cancel(long timeNanos) {
+        if (!mRunning)
+            return;
+
+        mRunning = false;
+        mChoreographer.removeFrameCallback(this);
+        mCallback.onAnimationEnd(timeNanos);
+    }
+
+    boolean isRunning() {
+        return mRunning;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning)
+            return;
+
+        if (mStartTime < 0) {
+            mStartTime = frameTimeNanos;
+            mLastFrameTime = frameTimeNanos;
+        }
+
+        float x;
+        float y;
+        boolean finished;
+        if (mUseSpring) {
+            //掉帧后的长间隔由弹簧按子步长积分，不会发散，按实际时间前进保证回弹时长不随帧率变化
+            mSpring.step((frameTimeNanos - mLastFrameTime) / 1e9f);
+            finished = mSpring.isAtRest();
+            x = finished ? mTargetX : mTargetX + mSpring.getX();
+            y = finished ? mTargetY : mTargetY + mSpring.getY();
+        } else {
+            float fraction = mDurationNanos > 0 ? (float) (frameTimeNanos - mStartTime) / mDurationNanos : 1;
+            finished = fraction >= 1;
+            float value = mInterpolator.getInterpolation(finished ? 1 : fraction);
+            x = mStartX + (mTargetX - mStartX) * value;
+            y = mStartY + (mTargetY - mStartY) * value;
+        }
+        mLastFrameTime = frameTimeNanos;
+
+        mCallback.onAnimationFrame(x, y, frameTimeNanos);
+        if (finished) {
+            mRunning = false;
+            mCallback.onAnimationEnd(frameTimeNanos);
+        } else {
+            mChoreographer.postFrameCallback(this);
+        }
+    }
+}
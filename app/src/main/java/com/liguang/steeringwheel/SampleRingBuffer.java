@@ -0,0 +1,185 @@
+package com.liguang.steeringwheel;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 单生产者单消费者的无锁环形缓冲区，按顺序保存方向盘的每一个采样。
+ * <p>
+ * 采样以基本类型打包存放在预分配的数组中，写入和批量读取都不分配内存，也不装箱。
+ * 缓冲区满时可以选择覆盖最旧的采样或丢弃最新的采样，被覆盖或丢弃的数量会被统计。
+ * 生产者和消费者各自只能有一个线程。
+ */
+public class SampleRingBuffer {
+    /**
+     * 缓冲区满时覆盖最旧的采样，消费者总能拿到最近的数据
+     */
+    public static final int OVERWRITE_OLDEST = 0;
+    /**
+     * 缓冲区满时丢弃新的采样，已缓存的数据不受影响
+     */
+    public static final int DROP_NEWEST = 1;
+    /**
+     * 每个采样占用的long个数：时间、x/y、角度/力度/方向
+     */
+    private static final int SLOT_SIZE = 3;
+
+    /**
+     * 采样的接收者
+     */
+    public interface SampleHandler {
+        /**
+         * @param timeNanos 采样时间，与 {@link System#nanoTime()} 同一时钟
+         * @param x         球中心相对方向盘中心的X偏移，向右为正
+         * @param y         球中心相对方向盘中心的Y偏移，向下为正
+         * @param angle     角度。范围0-360，其中右0，上90，左180，下270
+         * @param power     力度。范围0-100
+         * @param direction 大致方向
+         */
+        void onSample(long timeNanos, float x, float y, float angle, int power, int direction);
+    }
+
+    private final int mPolicy;
+    private final int mCapacity;
+    private final int mMask;
+    private final AtomicLongArray mData;
+    /**
+     * 下一个写入位置，只由生产者修改
+     */
+    private final AtomicLong mHead = new AtomicLong();
+    /**
+     * 正在写入的位置加1，写入数据前更新，覆盖模式下消费者据此判断读到的数据是否已被改写
+     */
+    private final AtomicLong mClaim = new AtomicLong();
+    /**
+     * 下一个读取位置，只由消费者修改
+     */
+    private final AtomicLong mTail = new AtomicLong();
+    /**
+     * 生产者缓存的读取位置，减少对 {@link #mTail} 的读取
+     */
+    private long mTailCache;
+    /**
+     * 生产者丢弃的采样数
+     */
+    private volatile long mDroppedNewest;
+    /**
+     * 消费者发现已被覆盖的采样数
+     */
+    private volatile long mOverwritten;
+
+    /**
+     * @param capacity 容量，向上取整为2的幂
+     * @param policy   缓冲区满时的策略，{@link #OVERWRITE_OLDEST} 或 {@link #DROP_NEWEST}
+     */
+    public SampleRingBuffer(int capacity, int policy) {
+        if (capacity <= 0 || capacity > (1 << 28)) {
+            throw new RuntimeException("capacity = " + capacity + " is not accept");
+        }
+        if (policy != OVERWRITE_OLDEST && policy != DROP_NEWEST) {
+            throw new RuntimeException("policy = " + policy + " is not accept");
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mCapacity = size;
+        mMask = size - 1;
+        mPolicy = policy;
+        mData = new AtomicLongArray(size * SLOT_SIZE);
+    }
+
+    /**
+     * 写入一个采样，只能在生产者线程中调用
+     *
+     * @return 是否写入，{@link #DROP_NEWEST} 策略下缓冲区满时返回false
+     */
+    public boolean offer(long timeNanos, float x, float y, float angle, int power, int direction) {
+        long head = mHead.get();
+        if (mPolicy == DROP_NEWEST && head - mTailCache >= mCapacity) {
+            mTailCache = mTail.get();
+            if (head - mTailCache >= mCapacity) {
+                mDroppedNewest = mDroppedNewest + 1;
+                return false;
+            }
+        }
+
+        if (mPolicy == OVERWRITE_OLDEST) {
+            mClaim.lazySet(head + 1);
+        }
+        int base = (int) (head & mMask) * SLOT_SIZE;
+        mData.lazySet(base, timeNanos);
+        mData.lazySet(base + 1, ((long) Float.floatToRawIntBits(x) << 32)
+                | (Float.floatToRawIntBits(y) & 0xFFFFFFFFL));
+        mData.lazySet(base + 2, ((long) Float.floatToRawIntBits(angle) << 32)
+                | ((power & 0xFFFFL) << 16) | (direction & 0xFFFFL));
+        mHead.lazySet(head + 1);
+        return true;
+    }
+
+    /**
+     * 按顺序批量取出采样，只能在消费者线程中调用
+     *
+     * @param handler    采样的接收者
+     * @param maxSamples 最多取出的个数
+     * @return 实际取出的个数
+     */
+    public int drain(SampleHandler handler, int maxSamples) {
+        long tail = mTail.get();
+        long head = mHead.get();
+        boolean overwrite = mPolicy == OVERWRITE_OLDEST;
+        if (overwrite && head - tail > mCapacity) {
+            mOverwritten = mOverwritten + (head - mCapacity - tail);
+            tail = head - mCapacity;
+        }
+
+        int count = 0;
+        while (count < maxSamples && tail < head) {
+            int base = (int) (tail & mMask) * SLOT_SIZE;
+            long time = mData.get(base);
+            long xy = mData.get(base + 1);
+            long other = mData.get(base + 2);
+            if (overwrite) {
+                //读取期间生产者可能已经开始改写该位置，此时数据作废，跳到仍然有效的最旧位置
+                long claim = mClaim.get();
+                if (claim - tail > mCapacity) {
+                    long validTail = claim - mCapacity;
+                    mOverwritten = mOverwritten + (validTail - tail);
+                    tail = validTail;
+                    head = mHead.get();
+                    continue;
+                }
+            }
+
+            handler.onSample(time,
+                    Float.intBitsToFloat((int) (xy >>> 32)),
+                    Float.intBitsToFloat((int) xy),
+                    Float.intBitsToFloat((int) (other >>> 32)),
+                    (int) ((other >>> 16) & 0xFFFF),
+                    (short) other);
+            tail++;
+            count++;
+        }
+        mTail.lazySet(tail);
+        return count;
+    }
+
+    /**
+     * @return 当前缓存的采样数，覆盖模式下可能大于容量，表示有采样即将被判定为覆盖
+     */
+    public long size() {
+        return mHead.get() - mTail.get();
+    }
+
+    public int capacity() {
+        return mCapacity;
+    }
+
+    /**
+     * @return 因缓冲区满而丢弃或被覆盖的采样总数
+     */
+    public long getDroppedCount() {
+        return mDroppedNewest + mOverwritten;
+    }
+}
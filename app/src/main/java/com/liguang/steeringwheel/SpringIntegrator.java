@@ -0,0 +1,90 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 二维阻尼弹簧积分器，质量为1，平衡位置为原点。
+ * <p>
+ * 采用半隐式欧拉法，按固定子步长积分以保证稳定。不依赖Android，计算过程中不分配对象。
+ */
+public class SpringIntegrator {
+    /**
+     * 积分子步长，单位秒
+     */
+    private static final float MAX_STEP = 0.004f;
+    /**
+     * 位移小于该值(像素)且速度小于 {@link #REST_VELOCITY} 时视为静止
+     */
+    private static final float REST_DISPLACEMENT = 0.5f;
+    /**
+     * 静止判定的速度阈值，单位像素/秒
+     */
+    private static final float REST_VELOCITY = 5f;
+    private float mStiffness = 400;
+    private float mDamping = 2 * 0.5f * 20;
+    private float mX;
+    private float mY;
+    private float mVelocityX;
+    private float mVelocityY;
+
+    /**
+     * 设置弹簧参数
+     *
+     * @param stiffness    刚度，必须大于0，越大回弹越快
+     * @param dampingRatio 阻尼比，1为临界阻尼，小于1时会越过平衡位置来回摆动
+     */
+    public void setSpring(float stiffness, float dampingRatio) {
+        if (stiffness <= 0) {
+            throw new RuntimeException("stiffness <= 0 is not accept");
+        }
+        if (dampingRatio < 0) {
+            throw new RuntimeException("dampingRatio < 0 is not accept");
+        }
+
+        mStiffness = stiffness;
+        mDamping = (float) (2 * dampingRatio * Math.sqrt(stiffness));
+    }
+
+    /**
+     * 设置初始状态，速度清零
+     *
+     * @param x 相对平衡位置的X位移
+     * @param y 相对平衡位置的Y位移
+     */
+    public void setPosition(float x, float y) {
+        mX = x;
+        mY = y;
+        mVelocityX = 0;
+        mVelocityY = 0;
+    }
+
+    /**
+     * 前进一段时间
+     *
+     * @param seconds 时长，单位秒
+     */
+    public void step(float seconds) {
+        while (seconds > 0) {
+            float dt = seconds < MAX_STEP ? seconds : MAX_STEP;
+            mVelocityX += (-mStiffness * mX - mDamping * mVelocityX) * dt;
+            mVelocityY += (-mStiffness * mY - mDamping * mVelocityY) * dt;
+            mX += mVelocityX * dt;
+            mY += mVelocityY * dt;
+            seconds -= dt;
+        }
+    }
+
+    /**
+     * @return 是否已静止在平衡位置附近
+     */
+    public boolean isAtRest() {
+        return Math.abs(mX) < REST_DISPLACEMENT && Math.abs(mY) < REST_DISPLACEMENT
+                && Math.abs(mVelocityX) < REST_VELOCITY && Math.abs(mVelocityY) < REST_VELOCITY;
+    }
+
+    public float getX() {
+        return mX;
+    }
+
+    public float getY() {
+        return mY;
+    }
+}
@@ -0,0 +1,169 @@
+package com.liguang.steeringwheel;
+
+/**
+ * {@link SteeringWheelPublisher} 订阅上的状态算子，由工厂方法创建，按顺序串联。
+ * <p>
+ * 算子在发布线程中对每一个状态同步执行，可以原地修改状态或决定是否继续向下游传递，
+ * 状态全部保存在基本类型字段中，不分配内存。算子有内部状态，一个算子对象只能用于一个订阅。
+ */
+public abstract class StateOperator {
+
+    /**
+     * 按事件时间采样，距上一次通过不少于指定间隔才通过。力度为0的状态(松开回中)总是通过，
+     * 保证订阅者最终能看到停止
+     *
+     * @param intervalMillis 采样间隔，单位毫秒，大于0
+     */
+    public static StateOperator sample(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new RuntimeException("intervalMillis " + intervalMillis + " is not accept");
+        }
+        return new Sample(intervalMillis * 1000000L);
+    }
+
+    /**
+     * 整数角度、力度、方向与上一次通过的状态都相同时丢弃
+     */
+    public static StateOperator distinct() {
+        return new Distinct();
+    }
+
+    /**
+     * 按事件时间分窗口聚合，每个窗口输出一次：力度为窗口内最大值，角度为窗口内的平均方向，
+     * 方向、位置、单轴输出和时间取窗口内最后一个状态。窗口在其后的第一个状态到达时结束并输出。
+     * 力度为0的状态(松开回中)不进入窗口：未结束的窗口直接关闭丢弃，松开状态立即原样通过，
+     * 保证订阅者最终能看到停止
+     *
+     * @param windowMillis 窗口长度，单位毫秒，大于0
+     */
+    public static StateOperator window(long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new RuntimeException("windowMillis " + windowMillis + " is not accept");
+        }
+        return new Window(windowMillis * 1000000L);
+    }
+
+    /**
+     * 处理一个状态
+     *
+     * @param state 状态，可以原地修改
+     * @return 是否继续向下游传递
+     */
+    abstract boolean apply(SteeringWheelState state);
+
+    private static class Sample extends StateOperator {
+        private final long mIntervalNanos;
+        private long mLastTimeNanos;
+        private boolean mPassed;
+
+        Sample(long intervalNanos) {
+            mIntervalNanos = intervalNanos;
+        }
+
+        @Override
+        boolean apply(SteeringWheelState state) {
+            long time = state.getEventTimeNanos();
+            if (mPassed && state.getPower() != 0 && time - mLastTimeNanos < mIntervalNanos)
+                return false;
+
+            mPassed = true;
+            mLastTimeNanos = time;
+            return true;
+        }
+    }
+
+    private static class Distinct extends StateOperator {
+        private int mLastAngle = -1;
+        private int mLastPower = -1;
+        private int mLastDirection = Integer.MIN_VALUE;
+
+        @Override
+        boolean apply(SteeringWheelState state) {
+            int angle = (int) state.getAngle();
+            int power = state.getPower();
+            int direction = state.getDirection();
+            if (angle == mLastAngle && power == mLastPower && direction == mLastDirection)
+                return false;
+
+            mLastAngle = angle;
+            mLastPower = power;
+            mLastDirection = direction;
+            return true;
+        }
+    }
+
+    private static class Window extends StateOperator {
+        private final long mWindowNanos;
+        private boolean mOpen;
+        private long mStartNanos;
+        private int mMaxPower;
+        private double mSumCos;
+        private double mSumSin;
+        private int mLastDirection;
+        private float mLastX;
+        private float mLastY;
+        private float mLastAxisX;
+        private float mLastAxisY;
+        private long mLastTimeNanos;
+
+        Window(long windowNanos) {
+            mWindowNanos = windowNanos;
+        }
+
+        @Override
+        boolean apply(SteeringWheelState state) {
+            if (state.getPower() == 0) {
+                mOpen = false;
+                return true;
+            }
+
+            long time = state.getEventTimeNanos();
+            boolean emit = mOpen && time - mStartNanos >= mWindowNanos;
+            double angle = 0;
+            int maxPower = mMaxPower;
+            int direction = mLastDirection;
+            float x = mLastX;
+            float y = mLastY;
+            float axisX = mLastAxisX;
+            float axisY = mLastAxisY;
+            long lastTime = mLastTimeNanos;
+            if (emit) {
+                //相反方向相互抵消时平均方向取0
+                if (mSumCos != 0 || mSumSin != 0) {
+                    angle = Math.toDegrees(Math.atan2(mSumSin, mSumCos));
+                    if (angle < 0) {
+                        angle += 360;
+                    }
+                }
+            }
+            if (!mOpen || emit) {
+                mOpen = true;
+                mStartNanos = time;
+                mMaxPower = 0;
+                mSumCos = 0;
+                mSumSin = 0;
+            }
+            accumulate(state);
+            if (emit) {
+                state.set(angle, maxPower, direction, x, y, axisX, axisY, lastTime, state.getSequence());
+            }
+            return emit;
+        }
+
+        private void accumulate(SteeringWheelState state) {
+            int power = state.getPower();
+            if (power > mMaxPower) {
+                mMaxPower = power;
+            }
+            double radians = Math.toRadians(state.getAngle());
+            mSumCos += Math.cos(radians);
+            mSumSin += Math.sin(radians);
+            mLastDirection = state.getDirection();
+            mLastX = state.getX();
+            mLastY = state.getY();
+            mLastAxisX = state.getAxisX();
+            mLastAxisY = state.getAxisY();
+            mLastTimeNanos = state.getEventTimeNanos();
+        }
+    }
+}
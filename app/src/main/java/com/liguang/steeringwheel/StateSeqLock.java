@@ -0,0 +1,74 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 单写者多读者的顺序锁，用于跨线程读取方向盘状态。
+ * <p>
+ * 写者从不等待；读者不加锁，遇到写者正在更新时重试，通常一次读取即可完成。
+ * 双方都不分配内存。数据字段同样声明为volatile，保证读者看到的字段不会被重排到版本号检查之后。
+ */
+public class StateSeqLock {
+    /**
+     * 版本号，奇数表示写者正在更新
+     */
+    private volatile long mVersion;
+    private volatile double mAngle;
+    private volatile int mPower;
+    private volatile int mDirection = JoystickEngine.INVALID;
+    private volatile float mX;
+    private volatile float mY;
+    private volatile float mAxisX;
+    private volatile float mAxisY;
+    private volatile long mEventTimeNanos;
+
+    /**
+     * 发布新状态，只能在同一个写者线程中调用
+     */
+    public void write(double angle, int power, int direction, float x, float y, float axisX, float axisY,
+                      long eventTimeNanos) {
+        long version = mVersion;
+        mVersion = version + 1;
+        mAngle = angle;
+        mPower = power;
+        mDirection = direction;
+        mX = x;
+        mY = y;
+        mAxisX = axisX;
+        mAxisY = axisY;
+        mEventTimeNanos = eventTimeNanos;
+        mVersion = version + 2;
+    }
+
+    /**
+     * 读取一份一致的快照，可以在任意线程中调用
+     *
+     * @param out 输出快照
+     * @return out
+     */
+    public SteeringWheelState read(SteeringWheelState out) {
+        for (; ; ) {
+            long version = mVersion;
+            if ((version & 1) != 0)
+                continue;
+
+            double angle = mAngle;
+            int power = mPower;
+            int direction = mDirection;
+            float x = mX;
+            float y = mY;
+            float axisX = mAxisX;
+            float axisY = mAxisY;
+            long eventTimeNanos = mEventTimeNanos;
+            if (mVersion == version) {
+                out.set(angle, power, direction, x, y, axisX, axisY, eventTimeNanos, version >>> 1);
+                return out;
+            }
+        }
+    }
+
+    /**
+     * @return 已发布的状态数
+     */
+    public long getSequence() {
+        return mVersion >>> 1;
+    }
+}
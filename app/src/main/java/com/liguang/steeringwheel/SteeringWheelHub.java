@@ -0,0 +1,390 @@
+package com.liguang.steeringwheel;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在一个控制循环中统一采样多个方向盘。
+ * <p>
+ * 每个方向盘注册后占用一个固定槽位。每次tick在同一时刻通过 {@link SteeringWheelStateSource#readState(SteeringWheelState)}
+ * 无锁读取所有方向盘的状态，写入按槽位排列的基本类型数组，合成一帧回调一次。
+ * 主线程不参与，宿主的CPU占用和唤醒次数只与tick频率有关，与方向盘个数和触摸事件数无关。
+ * 注册到中心的方向盘不需要再设置监听器，没有监听器时方向盘不会调度自己的通知。
+ * <p>
+ * 可以用 {@link #start(long)} 在内置的调度线程中按固定频率tick，也可以在宿主自己的控制循环中调用 {@link #tick(long)}。
+ * tick过程不分配内存。
+ */
+public class SteeringWheelHub {
+    /**
+     * 按槽位排列，写时复制，tick线程只读取
+     */
+    private volatile SteeringWheelStateSource[] mSources;
+    /**
+     * 上一次tick时各槽位的方向盘，只在tick线程中使用，用于发现槽位被另一个方向盘复用
+     */
+    private final SteeringWheelStateSource[] mTickSources;
+    private final SteeringWheelState mState = new SteeringWheelState();
+    private final Frame mFrame;
+    private final Runnable mTickRunnable = new Runnable() {
+        @Override
+        public void run() {
+            tick(System.nanoTime());
+        }
+    };
+    private volatile HubListener mListener;
+    private volatile boolean mDeliverUnchanged;
+    private ScheduledExecutorService mExecutor;
+    private volatile long mTickCount;
+    private volatile long mFrameCount;
+
+    /**
+     * @param capacity 最多注册的方向盘个数，1 - 256
+     */
+    public SteeringWheelHub(int capacity) {
+        if (capacity < 1 || capacity > 256) {
+            throw new RuntimeException("capacity " + capacity + " is not accept");
+        }
+        mSources = new SteeringWheelStateSource[capacity];
+        mTickSources = new SteeringWheelStateSource[capacity];
+        mFrame = new Frame(capacity);
+    }
+
+    /**
+     * 注册一个方向盘，可以在任意线程中调用
+     *
+     * @param source 方向盘，通常为 {@link SteeringWheelView} {@link SteeringWheelTextureView}
+     *               或 {@link MultiSteeringWheelView#getStateSource(int)}
+     * @return 槽位，即该方向盘状态在帧数组中的下标
+     */
+    public synchronized int register(SteeringWheelStateSource source) {
+        if (source == null) {
+            throw new RuntimeException("null source is not accept");
+        }
+        SteeringWheelStateSource[] sources = mSources.clone();
+        int free = -1;
+        for (int i = 0; i < sources.length; i++) {
+            if (sources[i] == source) {
+                throw new RuntimeException("source is already registered");
+            }
+            if (free < 0 && sources[i] == null) {
+                free = i;
+            }
+        }
+        if (free < 0) {
+            throw new RuntimeException("SteeringWheelHub is full");
+        }
+        sources[free] = source;
+        mSources = sources;
+        return free;
+    }
+
+    /**
+     * 注销一个方向盘，槽位空出，其他方向盘的槽位不变。可以在任意线程中调用
+     *
+     * @param source 方向盘
+     */
+    public synchronized void unregister(SteeringWheelStateSource source) {
+        SteeringWheelStateSource[] sources = mSources.clone();
+        for (int i = 0; i < sources.length; i++) {
+            if (sources[i] == source) {
+                sources[i] = null;
+                mSources = sources;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 设置每帧的监听器
+     *
+     * @param listener 监听器，在tick线程中回调
+     */
+    public SteeringWheelHub listener(HubListener listener) {
+        mListener = listener;
+        return this;
+    }
+
+    /**
+     * 所有方向盘的状态都没有改变时是否仍然回调
+     *
+     * @param enabled 是否回调，默认不回调
+     */
+    public SteeringWheelHub deliverUnchanged(boolean enabled) {
+        mDeliverUnchanged = enabled;
+        return this;
+    }
+
+    /**
+     * 在内置调度线程中按固定频率tick
+     *
+     * @param intervalMillis tick间隔，单位毫秒
+     */
+    public synchronized void start(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new RuntimeException("start intervalMillis <= 0 is not accept");
+        }
+        if (mExecutor != null) {
+            throw new RuntimeException("SteeringWheelHub is already started");
+        }
+
+        mExecutor = Executors.newSingleThreadScheduledExecutor();
+        mExecutor.scheduleAtFixedRate(mTickRunnable, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止内置调度线程
+     */
+    public synchronized void stop() {
+        if (mExecutor != null) {
+            mExecutor.shutdownNow();
+            mExecutor = null;
+        }
+    }
+
+    /**
+     * 采样所有方向盘并合成一帧。同一时刻只能在一个线程中调用，使用 {@link #start(long)} 时由调度线程调用
+     *
+     * @param timeNanos 本帧时间，与 {@link System#nanoTime()} 同一时钟
+     */
+    public void tick(long timeNanos) {
+        Frame frame = mFrame;
+        SteeringWheelState state = mState;
+        SteeringWheelStateSource[] sources = mSources;
+        int changed = 0;
+        for (int i = 0; i < sources.length; i++) {
+            SteeringWheelStateSource source = sources[i];
+            boolean replaced = source != mTickSources[i];
+            mTickSources[i] = source;
+            if (source == null) {
+                changed += frame.clear(i, replaced);
+            } else {
+                source.readState(state);
+                changed += frame.set(i, state, replaced);
+            }
+        }
+        mTickCount = mTickCount + 1;
+        frame.mTimeNanos = timeNanos;
+        frame.mTickIndex = mTickCount;
+        frame.mChangedCount = changed;
+
+        HubListener listener = mListener;
+        if (listener != null && (changed > 0 || mDeliverUnchanged)) {
+            mFrameCount = mFrameCount + 1;
+            listener.onFrame(this, frame);
+        }
+    }
+
+    /**
+     * @return 最多注册的方向盘个数，即帧数组的长度
+     */
+    public int getCapacity() {
+        return mSources.length;
+    }
+
+    /**
+     * @return tick次数
+     */
+    public long getTickCount() {
+        return mTickCount;
+    }
+
+    /**
+     * @return 回调监听器的帧数
+     */
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * 一次tick时所有方向盘的状态，按槽位排列。由中心持有并重复使用，只在回调期间有效，需要保留时复制数组。
+     * 空槽位的力度为0，方向无效，序号为0
+     */
+    public static final class Frame {
+        private long mTimeNanos;
+        private long mTickIndex;
+        private int mChangedCount;
+        private final double[] mAngles;
+        private final int[] mPowers;
+        private final int[] mDirections;
+        private final float[] mXs;
+        private final float[] mYs;
+        private final float[] mAxisXs;
+        private final float[] mAxisYs;
+        private final long[] mEventTimeNanos;
+        private final long[] mSequences;
+        private final boolean[] mChanged;
+
+        Frame(int capacity) {
+            mAngles = new double[capacity];
+            mPowers = new int[capacity];
+            mDirections = new int[capacity];
+            mXs = new float[capacity];
+            mYs = new float[capacity];
+            mAxisXs = new float[capacity];
+            mAxisYs = new float[capacity];
+            mEventTimeNanos = new long[capacity];
+            mSequences = new long[capacity];
+            mChanged = new boolean[capacity];
+            for (int i = 0; i < capacity; i++) {
+                mDirections[i] = JoystickEngine.INVALID;
+            }
+        }
+
+        /**
+         * @param replaced 槽位换了方向盘
+         * @return 1表示与上一帧相比有新状态
+         */
+        int set(int slot, SteeringWheelState state, boolean replaced) {
+            long sequence = state.getSequence();
+            boolean changed = replaced || sequence != mSequences[slot];
+            mChanged[slot] = changed;
+            if (!changed)
+                return 0;
+
+            mAngles[slot] = state.getAngle();
+            mPowers[slot] = state.getPower();
+            mDirections[slot] = state.getDirection();
+            mXs[slot] = state.getX();
+            mYs[slot] = state.getY();
+            mAxisXs[slot] = state.getAxisX();
+            mAxisYs[slot] = state.getAxisY();
+            mEventTimeNanos[slot] = state.getEventTimeNanos();
+            mSequences[slot] = sequence;
+            return 1;
+        }
+
+        /**
+         * @param replaced 方向盘刚被注销
+         * @return 1表示槽位刚被清空
+         */
+        int clear(int slot, boolean replaced) {
+            boolean changed = replaced;
+            mChanged[slot] = changed;
+            if (!changed)
+                return 0;
+
+            mAngles[slot] = 0;
+            mPowers[slot] = 0;
+            mDirections[slot] = JoystickEngine.INVALID;
+            mXs[slot] = 0;
+            mYs[slot] = 0;
+            mAxisXs[slot] = 0;
+            mAxisYs[slot] = 0;
+            mEventTimeNanos[slot] = 0;
+            mSequences[slot] = 0;
+            return 1;
+        }
+
+        /**
+         * @return 本帧的采样时间，所有方向盘在同一时刻采样，与 {@link System#nanoTime()} 同一时钟
+         */
+        public long getTimeNanos() {
+            return mTimeNanos;
+        }
+
+        /**
+         * @return tick序号，从1开始
+         */
+        public long getTickIndex() {
+            return mTickIndex;
+        }
+
+        /**
+         * @return 与上一帧相比状态有改变的方向盘个数
+         */
+        public int getChangedCount() {
+            return mChangedCount;
+        }
+
+        /**
+         * @return 槽位个数
+         */
+        public int getCount() {
+            return mAngles.length;
+        }
+
+        /**
+         * @return 各槽位角度，范围0-360，只读
+         */
+        public double[] getAngles() {
+            return mAngles;
+        }
+
+        /**
+         * @return 各槽位力度，范围0-100，只读
+         */
+        public int[] getPowers() {
+            return mPowers;
+        }
+
+        /**
+         * @return 各槽位大方向，只读
+         */
+        public int[] getDirections() {
+            return mDirections;
+        }
+
+        /**
+         * @return 各槽位球中心相对方向盘中心的X偏移，单位像素，只读
+         */
+        public float[] getXs() {
+            return mXs;
+        }
+
+        /**
+         * @return 各槽位球中心相对方向盘中心的Y偏移，单位像素，向下为正，只读
+         */
+        public float[] getYs() {
+            return mYs;
+        }
+
+        /**
+         * @return 各槽位经过响应曲线的X轴输出，[-1, 1]，只读
+         */
+        public float[] getAxisXs() {
+            return mAxisXs;
+        }
+
+        /**
+         * @return 各槽位经过响应曲线的Y轴输出，[-1, 1]，向上为正，只读
+         */
+        public float[] getAxisYs() {
+            return mAxisYs;
+        }
+
+        /**
+         * @return 各槽位产生当前状态的事件时间，只读
+         */
+        public long[] getEventTimeNanos() {
+            return mEventTimeNanos;
+        }
+
+        /**
+         * @return 各槽位的状态序号，只读
+         */
+        public long[] getSequences() {
+            return mSequences;
+        }
+
+        /**
+         * @return 各槽位与上一帧相比是否有新状态，只读
+         */
+        public boolean[] getChanged() {
+            return mChanged;
+        }
+    }
+
+    /**
+     * 每帧的监听器
+     */
+    interface HubListener {
+        /**
+         * 一帧已合成，在tick线程中回调
+         *
+         * @param hub   中心
+         * @param frame 本帧，只在回调期间有效
+         */
+        void onFrame(SteeringWheelHub hub, Frame frame);
+    }
+}
@@ -0,0 +1,107 @@
+package com.liguang.steeringwheel;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 方向盘控件热路径的统计数据。
+ * <p>
+ * 计数和直方图都预先分配，记录时不加锁，不分配内存。通过 {@link #snapshot(SteeringWheelMetrics, boolean)}
+ * 复制到调用方持有的对象中读取，可以选择同时清零，便于在调试界面展示或定期导出到日志。
+ * 同一个实例可以由多个方向盘共享。
+ */
+public class SteeringWheelMetrics {
+    /**
+     * 处理的触摸事件数
+     */
+    public static final int TOUCH_EVENTS = 0;
+    /**
+     * 请求通知的次数
+     */
+    public static final int NOTIFY_REQUESTS = 1;
+    /**
+     * 实际回调监听者的次数
+     */
+    public static final int DELIVERIES = 2;
+    /**
+     * 启动回弹动画的次数
+     */
+    public static final int RESETS_STARTED = 3;
+    /**
+     * 回弹动画被新的触摸取消的次数
+     */
+    public static final int RESETS_CANCELLED = 4;
+    /**
+     * onDraw 调用次数
+     */
+    public static final int DRAWS = 5;
+    private static final int COUNTER_COUNT = 6;
+
+    private final AtomicLongArray mCounters = new AtomicLongArray(COUNTER_COUNT);
+    /**
+     * onDraw 耗时
+     */
+    private final LatencyHistogram mDrawTime = new LatencyHistogram();
+    /**
+     * 从触摸事件产生到回调监听者的耗时
+     */
+    private final LatencyHistogram mDeliveryLatency = new LatencyHistogram();
+
+    void increment(int counter) {
+        mCounters.incrementAndGet(counter);
+    }
+
+    void recordDrawTime(long nanos) {
+        mDrawTime.record(nanos);
+    }
+
+    void recordDeliveryLatency(long nanos) {
+        mDeliveryLatency.record(nanos);
+    }
+
+    /**
+     * @param counter 计数项，例如 {@link #TOUCH_EVENTS}
+     * @return 计数值
+     */
+    public long get(int counter) {
+        return mCounters.get(counter);
+    }
+
+    /**
+     * @return 被合并而没有单独回调的通知请求数
+     */
+    public long getCoalescedCount() {
+        return Math.max(0, get(NOTIFY_REQUESTS) - get(DELIVERIES));
+    }
+
+    public LatencyHistogram getDrawTime() {
+        return mDrawTime;
+    }
+
+    public LatencyHistogram getDeliveryLatency() {
+        return mDeliveryLatency;
+    }
+
+    /**
+     * 把当前数据复制到 out
+     *
+     * @param out   由调用方持有的对象
+     * @param reset 复制后是否清零
+     * @return out
+     */
+    public SteeringWheelMetrics snapshot(SteeringWheelMetrics out, boolean reset) {
+        for (int i = 0; i < COUNTER_COUNT; i++) {
+            out.mCounters.set(i, reset ? mCounters.getAndSet(i, 0) : mCounters.get(i));
+        }
+        out.mDrawTime.copyFrom(mDrawTime, reset);
+        out.mDeliveryLatency.copyFrom(mDeliveryLatency, reset);
+        return out;
+    }
+
+    public void reset() {
+        for (int i = 0; i < COUNTER_COUNT; i++) {
+            mCounters.set(i, 0);
+        }
+        mDrawTime.reset();
+        mDeliveryLatency.reset();
+    }
+}
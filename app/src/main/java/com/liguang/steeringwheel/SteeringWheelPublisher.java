@@ -0,0 +1,283 @@
+package com.liguang.steeringwheel;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按需求投递的状态发布者，通过 {@link SteeringWheelView#publisher()} 获取。
+ * <p>
+ * 每个订阅者用 {@link Subscription#request(long)} 声明还能接收多少个状态，在自己的线程中按自己的节奏消费。
+ * 需求为0时不排队，只保留经过算子后的最新状态，需求恢复后立即投递这一个最新状态，
+ * 快的界面消费者和慢的网络、磁盘消费者互不影响，也不需要各自实现缓冲。
+ * <p>
+ * {@link #publish()} 在状态的写者线程中调用，依次执行各订阅的算子，写入订阅自己的顺序锁，
+ * 整个过程不分配内存。订阅和取消可以在任意线程中进行。
+ * <p>
+ * 每个订阅同一时刻只有一个线程在投递：安排投递时递增工作计数，计数从0变为1的线程负责投递，
+ * 其他线程只留下标记，由正在投递的线程在退出前重新检查，即使执行器是多线程的也不会并发回调 onNext。
+ */
+public class SteeringWheelPublisher {
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    private final SteeringWheelStateSource mSource;
+    /**
+     * 只在写者线程中使用
+     */
+    private final SteeringWheelState mState = new SteeringWheelState();
+    /**
+     * 写时复制，写者线程只读取
+     */
+    private volatile Subscription[] mSubscriptions = NO_SUBSCRIPTIONS;
+
+    /**
+     * @param source 状态数据源，{@link #publish()} 时从中读取最新状态
+     */
+    public SteeringWheelPublisher(SteeringWheelStateSource source) {
+        if (source == null) {
+            throw new RuntimeException("null source is not accept");
+        }
+        mSource = source;
+    }
+
+    /**
+     * 订阅。先同步回调 {@link StateSubscriber#onSubscribe(Subscription)}，之后从下一次状态改变开始，
+     * 在需求范围内投递
+     *
+     * @param subscriber 订阅者
+     * @param executor   投递的线程，为null时在发布线程或调用 {@link Subscription#request(long)} 的线程中直接投递，
+     *                   此时只应在发布线程中调用request
+     * @param operators  按顺序执行的算子，由 {@link StateOperator} 的工厂方法创建
+     * @return 订阅
+     */
+    public Subscription subscribe(StateSubscriber subscriber, Executor executor, StateOperator... operators) {
+        if (subscriber == null) {
+            throw new RuntimeException("null subscriber is not accept");
+        }
+        for (StateOperator operator : operators) {
+            if (operator == null) {
+                throw new RuntimeException("null operator is not accept");
+            }
+        }
+        Subscription subscription = new Subscription(this, subscriber, executor, operators.clone());
+        subscriber.onSubscribe(subscription);
+        synchronized (this) {
+            if (!subscription.mCancelled) {
+                Subscription[] old = mSubscriptions;
+                Subscription[] subscriptions = new Subscription[old.length + 1];
+                System.arraycopy(old, 0, subscriptions, 0, old.length);
+                subscriptions[old.length] = subscription;
+                mSubscriptions = subscriptions;
+            }
+        }
+        return subscription;
+    }
+
+    private synchronized void remove(Subscription subscription) {
+        Subscription[] old = mSubscriptions;
+        for (int i = 0; i < old.length; i++) {
+            if (old[i] == subscription) {
+                Subscription[] subscriptions = old.length == 1 ? NO_SUBSCRIPTIONS : new Subscription[old.length - 1];
+                System.arraycopy(old, 0, subscriptions, 0, i);
+                System.arraycopy(old, i + 1, subscriptions, i, old.length - i - 1);
+                mSubscriptions = subscriptions;
+                return;
+            }
+        }
+    }
+
+    /**
+     * 新状态已写入数据源，分发给各订阅。只能在数据源的写者线程中调用
+     */
+    public void publish() {
+        Subscription[] subscriptions = mSubscriptions;
+        if (subscriptions.length == 0)
+            return;
+
+        mSource.readState(mState);
+        for (int i = 0; i < subscriptions.length; i++) {
+            subscriptions[i].offer(mState);
+        }
+    }
+
+    /**
+     * @return 当前订阅数
+     */
+    public int getSubscriptionCount() {
+        return mSubscriptions.length;
+    }
+
+    /**
+     * 一个订阅者与发布者之间的订阅关系
+     */
+    public static final class Subscription {
+        private final SteeringWheelPublisher mPublisher;
+        private final StateSubscriber mSubscriber;
+        private final Executor mExecutor;
+        private final StateOperator[] mOperators;
+        /**
+         * 经过算子后的最新状态，写者为发布线程
+         */
+        private final StateSeqLock mLatest = new StateSeqLock();
+        /**
+         * 只在发布线程中使用
+         */
+        private final SteeringWheelState mWork = new SteeringWheelState();
+        /**
+         * 只在投递循环中使用，投递循环不会并发执行
+         */
+        private final SteeringWheelState mDelivered = new SteeringWheelState();
+        private final AtomicLong mDemand = new AtomicLong();
+        /**
+         * 工作计数，不为0时有一个线程正在投递，其他线程的安排只累加计数
+         */
+        private final AtomicInteger mWip = new AtomicInteger();
+        private volatile boolean mCancelled;
+        private long mDeliveredSequence;
+        private volatile long mDeliveredCount;
+        private final Runnable mDeliverRunnable = new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+
+        Subscription(SteeringWheelPublisher publisher, StateSubscriber subscriber, Executor executor,
+                     StateOperator[] operators) {
+            mPublisher = publisher;
+            mSubscriber = subscriber;
+            mExecutor = executor;
+            mOperators = operators;
+        }
+
+        /**
+         * 增加需求，可以在任意线程中调用
+         *
+         * @param n 增加的个数，大于0，{@link Long#MAX_VALUE} 表示不限
+         */
+        public void request(long n) {
+            if (n <= 0) {
+                throw new RuntimeException("n " + n + " is not accept");
+            }
+            for (; ; ) {
+                long demand = mDemand.get();
+                long next = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                if (mDemand.compareAndSet(demand, next))
+                    break;
+            }
+            schedule();
+        }
+
+        /**
+         * 取消订阅，之后不再投递。可以在任意线程中调用
+         */
+        public void cancel() {
+            mCancelled = true;
+            mPublisher.remove(this);
+        }
+
+        /**
+         * @return 尚未满足的需求
+         */
+        public long getDemand() {
+            return mDemand.get();
+        }
+
+        /**
+         * @return 经过算子、等待投递的状态数，包括被更新状态覆盖的
+         */
+        public long getOfferedCount() {
+            return mLatest.getSequence();
+        }
+
+        /**
+         * @return 实际投递给订阅者的次数
+         */
+        public long getDeliveredCount() {
+            return mDeliveredCount;
+        }
+
+        /**
+         * 在发布线程中执行算子，通过的状态覆盖之前未投递的状态
+         */
+        void offer(SteeringWheelState state) {
+            SteeringWheelState work = mWork;
+            work.set(state);
+            StateOperator[] operators = mOperators;
+            for (int i = 0; i < operators.length; i++) {
+                if (!operators[i].apply(work))
+                    return;
+            }
+            mLatest.write(work.getAngle(), work.getPower(), work.getDirection(), work.getX(), work.getY(),
+                    work.getAxisX(), work.getAxisY(), work.getEventTimeNanos());
+            if (mDemand.get() > 0) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (mWip.getAndIncrement() != 0)
+                return;
+
+            if (mExecutor != null) {
+                mExecutor.execute(mDeliverRunnable);
+            } else {
+                drain();
+            }
+        }
+
+        /**
+         * 投递循环，同一时刻只有一个线程执行。在需求范围内投递最新状态，
+         * 退出前扣除已处理的工作计数，期间又有安排时继续循环
+         */
+        private void drain() {
+            int missed = 1;
+            for (; ; ) {
+                while (!mCancelled && mLatest.getSequence() != mDeliveredSequence && consumeDemand()) {
+                    mLatest.read(mDelivered);
+                    mDeliveredSequence = mDelivered.getSequence();
+                    mDeliveredCount = mDeliveredCount + 1;
+                    mSubscriber.onNext(mDelivered);
+                }
+                missed = mWip.addAndGet(-missed);
+                if (missed == 0)
+                    break;
+            }
+        }
+
+        /**
+         * 用CAS扣除一个需求，{@link Long#MAX_VALUE} 表示不限，不扣除
+         *
+         * @return 需求为0时返回false
+         */
+        private boolean consumeDemand() {
+            for (; ; ) {
+                long demand = mDemand.get();
+                if (demand == 0)
+                    return false;
+                if (demand == Long.MAX_VALUE || mDemand.compareAndSet(demand, demand - 1))
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * 订阅者
+     */
+    interface StateSubscriber {
+        /**
+         * 订阅建立，在 {@link #subscribe(StateSubscriber, Executor, StateOperator...)} 中同步回调，
+         * 通常在这里调用 {@link Subscription#request(long)}
+         *
+         * @param subscription 订阅
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * 投递一个状态
+         *
+         * @param state 状态，只在回调期间有效，需要保留时复制。序号为该订阅中通过算子的状态序号
+         */
+        void onNext(SteeringWheelState state);
+    }
+}
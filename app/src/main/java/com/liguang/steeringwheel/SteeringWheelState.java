@@ -0,0 +1,103 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 方向盘状态快照，由调用方持有并重复使用
+ */
+public class SteeringWheelState {
+    private double mAngle;
+    private int mPower;
+    private int mDirection = JoystickEngine.INVALID;
+    private float mX;
+    private float mY;
+    private float mAxisX;
+    private float mAxisY;
+    private long mEventTimeNanos;
+    private long mSequence;
+
+    void set(double angle, int power, int direction, float x, float y, float axisX, float axisY,
+             long eventTimeNanos, long sequence) {
+        mAngle = angle;
+        mPower = power;
+        mDirection = direction;
+        mX = x;
+        mY = y;
+        mAxisX = axisX;
+        mAxisY = axisY;
+        mEventTimeNanos = eventTimeNanos;
+        mSequence = sequence;
+    }
+
+    /**
+     * 复制另一个快照
+     *
+     * @param other 源快照
+     */
+    public void set(SteeringWheelState other) {
+        set(other.mAngle, other.mPower, other.mDirection, other.mX, other.mY, other.mAxisX, other.mAxisY,
+                other.mEventTimeNanos, other.mSequence);
+    }
+
+    /**
+     * @return 角度。范围0-360，其中右0，上90，左180，下270
+     */
+    public double getAngle() {
+        return mAngle;
+    }
+
+    /**
+     * @return 方向上的力度。范围0-100
+     */
+    public int getPower() {
+        return mPower;
+    }
+
+    /**
+     * @return 大致方向。取值为 {@link JoystickEngine#INVALID} {@link JoystickEngine#RIGHT}
+     * {@link JoystickEngine#UP} {@link JoystickEngine#LEFT} {@link JoystickEngine#DOWN}
+     */
+    public int getDirection() {
+        return mDirection;
+    }
+
+    /**
+     * @return 球中心相对方向盘中心的X偏移，单位像素，向右为正
+     */
+    public float getX() {
+        return mX;
+    }
+
+    /**
+     * @return 球中心相对方向盘中心的Y偏移，单位像素，向下为正
+     */
+    public float getY() {
+        return mY;
+    }
+
+    /**
+     * @return 经过响应曲线的X轴输出，[-1, 1]，向右为正
+     */
+    public float getAxisX() {
+        return mAxisX;
+    }
+
+    /**
+     * @return 经过响应曲线的Y轴输出，[-1, 1]，向上为正
+     */
+    public float getAxisY() {
+        return mAxisY;
+    }
+
+    /**
+     * @return 产生该状态的事件时间，与 {@link System#nanoTime()} 同一时钟
+     */
+    public long getEventTimeNanos() {
+        return mEventTimeNanos;
+    }
+
+    /**
+     * @return 状态序号，每发布一次新状态加1，0表示还没有发布过
+     */
+    public long getSequence() {
+        return mSequence;
+    }
+}
@@ -0,0 +1,14 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 可在任意线程中读取方向盘状态快照的数据源
+ */
+public interface SteeringWheelStateSource {
+    /**
+     * 读取当前状态的一致快照，不分配内存
+     *
+     * @param out 由调用方持有的快照对象
+     * @return out
+     */
+    SteeringWheelState readState(SteeringWheelState out);
+}
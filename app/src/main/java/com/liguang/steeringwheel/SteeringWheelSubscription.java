@@ -0,0 +1,167 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 按条件过滤的订阅，通过 {@link SteeringWheelView#subscribe(SteeringWheelSubscription)} 注册。
+ * <p>
+ * 每次状态改变时在主线程中同步判断，只有订阅者关心的变化才回调，不经过通知调度，也不分配内存。
+ * 一个订阅对象只能注册到一个方向盘上。
+ */
+public abstract class SteeringWheelSubscription {
+
+    /**
+     * 大方向改变时回调，方向按 {@link SteeringWheelView#directionQuantizer(DirectionQuantizer)} 设置的量化方式计算，
+     * 取值见 {@link JoystickEngine#getDirection()}
+     *
+     * @param listener 回调
+     */
+    public static SteeringWheelSubscription directionChanged(SteeringWheelView.SteeringWheelListener listener) {
+        return new DirectionChanged(checkListener(listener));
+    }
+
+    /**
+     * 力度越过任意一个阈值时回调，向上向下都算
+     *
+     * @param listener   回调
+     * @param thresholds 力度阈值，1 - 100，力度不小于阈值即视为越过
+     */
+    public static SteeringWheelSubscription powerThresholds(SteeringWheelView.SteeringWheelListener listener,
+                                                            int... thresholds) {
+        return new PowerThresholds(checkListener(listener), thresholds);
+    }
+
+    /**
+     * 角度与上一次回调时相差不小于指定度数时回调
+     *
+     * @param listener 回调
+     * @param degrees  角度差，大于0
+     */
+    public static SteeringWheelSubscription angleDelta(SteeringWheelView.SteeringWheelListener listener,
+                                                       double degrees) {
+        return new AngleDelta(checkListener(listener), degrees);
+    }
+
+    /**
+     * 按下和松开时回调
+     *
+     * @param listener 回调
+     */
+    public static SteeringWheelSubscription pressed(SteeringWheelView.SteeringWheelPressListener listener) {
+        if (listener == null) {
+            throw new RuntimeException("null listener is not accept");
+        }
+        return new Pressed(listener);
+    }
+
+    private static SteeringWheelView.SteeringWheelListener checkListener(
+            SteeringWheelView.SteeringWheelListener listener) {
+        if (listener == null) {
+            throw new RuntimeException("null listener is not accept");
+        }
+        return listener;
+    }
+
+    /**
+     * 状态改变，判断后决定是否回调
+     */
+    abstract void onState(SteeringWheelView view, double angle, int power, int direction);
+
+    /**
+     * 按下或松开
+     */
+    void onPressed(SteeringWheelView view, boolean pressed) {
+    }
+
+    private static class DirectionChanged extends SteeringWheelSubscription {
+        private final SteeringWheelView.SteeringWheelListener mListener;
+        private int mLastDirection = JoystickEngine.INVALID;
+
+        DirectionChanged(SteeringWheelView.SteeringWheelListener listener) {
+            mListener = listener;
+        }
+
+        @Override
+        void onState(SteeringWheelView view, double angle, int power, int direction) {
+            if (direction != mLastDirection) {
+                mLastDirection = direction;
+                mListener.onStatusChanged(view, (int) angle, power, direction);
+            }
+        }
+    }
+
+    private static class PowerThresholds extends SteeringWheelSubscription {
+        private final SteeringWheelView.SteeringWheelListener mListener;
+        /**
+         * 力度 0 - 100 对应的区段，即不大于该力度的阈值个数
+         */
+        private final byte[] mBands = new byte[101];
+        private int mLastBand;
+
+        PowerThresholds(SteeringWheelView.SteeringWheelListener listener, int[] thresholds) {
+            if (thresholds == null || thresholds.length == 0 || thresholds.length > 100) {
+                throw new RuntimeException("thresholds is not accept");
+            }
+            for (int threshold : thresholds) {
+                if (threshold < 1 || threshold > 100) {
+                    throw new RuntimeException("threshold " + threshold + " is not accept");
+                }
+                for (int power = threshold; power <= 100; power++) {
+                    mBands[power]++;
+                }
+            }
+            mListener = listener;
+        }
+
+        @Override
+        void onState(SteeringWheelView view, double angle, int power, int direction) {
+            int band = mBands[power < 0 ? 0 : power > 100 ? 100 : power];
+            if (band != mLastBand) {
+                mLastBand = band;
+                mListener.onStatusChanged(view, (int) angle, power, direction);
+            }
+        }
+    }
+
+    private static class AngleDelta extends SteeringWheelSubscription {
+        private final SteeringWheelView.SteeringWheelListener mListener;
+        private final double mDegrees;
+        private double mLastAngle = Double.NaN;
+
+        AngleDelta(SteeringWheelView.SteeringWheelListener listener, double degrees) {
+            if (!(degrees > 0 && degrees <= 180)) {
+                throw new RuntimeException("degrees " + degrees + " is not accept");
+            }
+            mListener = listener;
+            mDegrees = degrees;
+        }
+
+        @Override
+        void onState(SteeringWheelView view, double angle, int power, int direction) {
+            double delta = Math.abs(angle - mLastAngle);
+            if (delta > 180) {
+                delta = 360 - delta;
+            }
+            //NaN比较为false，第一次总是回调
+            if (!(delta < mDegrees)) {
+                mLastAngle = angle;
+                mListener.onStatusChanged(view, (int) angle, power, direction);
+            }
+        }
+    }
+
+    private static class Pressed extends SteeringWheelSubscription {
+        private final SteeringWheelView.SteeringWheelPressListener mListener;
+
+        Pressed(SteeringWheelView.SteeringWheelPressListener listener) {
+            mListener = listener;
+        }
+
+        @Override
+        void onState(SteeringWheelView view, double angle, int power, int direction) {
+        }
+
+        @Override
+        void onPressed(SteeringWheelView view, boolean pressed) {
+            mListener.onPressedChanged(view, pressed);
+        }
+    }
+}
@@ -0,0 +1,540 @@
+package com.liguang.steeringwheel;
+
+import android.animation.TimeInterpolator;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.TextureView;
+import android.view.animation.OvershootInterpolator;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 在独立渲染线程中绘制的方向盘控件。
+ * <p>
+ * 触摸事件仍在主线程中处理，计算结果通过 {@link StateSeqLock} 发布，球的位置为相对中心的偏移；
+ * 几何参数作为不可变对象整体替换，按下状态单独发布。大圆、球和箭头由渲染线程按自己的Choreographer每帧检查一次，
+ * 状态序号、几何参数或按下状态变化时才锁定画布重绘。球按偏移画在同一帧读到的中心上，重新布局时不会画出
+ * 中心和半径不一致的帧，主线程布局繁忙时球仍能及时跟随手指。
+ * XML属性、几何计算、触摸点处理和通知模式与 {@link SteeringWheelView} 相同，监听器回调的是本控件。
+ * 需要开启硬件加速。
+ */
+public class SteeringWheelTextureView extends TextureView
+        implements TextureView.SurfaceTextureListener, SteeringWheelStateSource {
+    private static final int mDefaultWidthDp = 200;
+    private static final int mDefaultHeightDp = 200;
+    /**
+     * 等待渲染线程停止的最长时间。超时后由渲染线程停止时释放SurfaceTexture，主线程不再等待
+     */
+    private static final long RENDER_STOP_TIMEOUT_MILLIS = 100;
+
+    private final JoystickEngine mEngine = new JoystickEngine();
+    private final StateSeqLock mStateLock = new StateSeqLock();
+    private final ReturnToCenterAnimator mReturnAnimator = new ReturnToCenterAnimator(
+            new ReturnToCenterAnimator.Callback() {
+                @Override
+                public void onAnimationFrame(float x, float y, long frameTimeNanos) {
+                    mEngine.setBall(x, y);
+                    publishState(frameTimeNanos);
+                    notifyStatusChanged();
+                }
+
+                @Override
+                public void onAnimationEnd(long frameTimeNanos) {
+                    mEngine.reset();
+                    publishState(frameTimeNanos);
+                    notifyStatusChanged();
+                }
+            });
+    private SteeringWheelTextureListener mListener;
+    private SteeringWheelTextureTimedListener mTimedListener;
+    private final NotifyScheduler.Target mNotifyTarget = new NotifyScheduler.Target() {
+        @Override
+        public void deliver(long timeNanos) {
+            if (mListener == null && mTimedListener == null)
+                return;
+
+            //取当前数据，而非过去数据的snapshot
+            long eventTimeNanos = mLastEventTimeNanos;
+            if (mListener != null) {
+                mListener.onStatusChanged(SteeringWheelTextureView.this, (int) mEngine.getAngle(),
+                        mEngine.getPower(), mEngine.getDirection());
+            }
+            if (mTimedListener != null) {
+                mTimedListener.onStatusChanged(SteeringWheelTextureView.this, (int) mEngine.getAngle(),
+                        mEngine.getPower(), mEngine.getDirection(), eventTimeNanos,
+                        System.nanoTime() - eventTimeNanos);
+            }
+        }
+    };
+    private final NotifyControl mNotifyControl = new NotifyControl(mNotifyTarget);
+    private int mActivePointerId = MotionEvent.INVALID_POINTER_ID;
+    /**
+     * 在渲染线程中绘制，主线程只读取图片尺寸
+     */
+    private WheelPainter mPainter;
+    private int mBallRadius;
+    private int mDefaultWidth;
+    private int mDefaultHeight;
+    /**
+     * 是否逐个处理历史触摸点
+     */
+    private boolean mHistoricalSamples;
+
+    /**
+     * 以下字段只在主线程中使用
+     */
+    private float mCenterX;
+    private float mCenterY;
+    private long mLastEventTimeNanos;
+
+    /**
+     * 以下字段主线程写入，渲染线程读取
+     */
+    private volatile Geometry mGeometry;
+    private volatile boolean mPressed;
+
+    /**
+     * 以下字段只在渲染线程中使用
+     */
+    private final SteeringWheelState mRenderState = new SteeringWheelState();
+    private SurfaceTexture mSurface;
+    private Choreographer mRenderChoreographer;
+    private boolean mFramePosted;
+    /**
+     * 上次绘制的几何参数、状态序号和按下状态，为null时下一帧强制重绘
+     */
+    private Geometry mDrawnGeometry;
+    private long mDrawnSequence;
+    private boolean mDrawnPressed;
+    private volatile long mFrameCount;
+
+    private HandlerThread mRenderThread;
+    private Handler mRenderHandler;
+    /**
+     * 主线程已请求重绘、渲染线程还未处理，避免重复投递
+     */
+    private final AtomicBoolean mRenderRequested = new AtomicBoolean();
+    private final Runnable mScheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            mRenderRequested.set(false);
+            if (!mFramePosted && mSurface != null) {
+                mFramePosted = true;
+                mRenderChoreographer.postFrameCallback(mFrameCallback);
+            }
+        }
+    };
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mFramePosted = false;
+            Geometry geometry = mGeometry;
+            if (mSurface == null || geometry == null)
+                return;
+
+            boolean pressed = mPressed;
+            SteeringWheelState state = mStateLock.read(mRenderState);
+            if (geometry == mDrawnGeometry && state.getSequence() == mDrawnSequence && pressed == mDrawnPressed)
+                return;
+
+            Canvas canvas = lockCanvas();
+            if (canvas == null)
+                return;
+
+            try {
+                drawFrame(canvas, geometry, state, pressed);
+            } finally {
+                unlockCanvasAndPost(canvas);
+            }
+            mDrawnGeometry = geometry;
+            mDrawnSequence = state.getSequence();
+            mDrawnPressed = pressed;
+            mFrameCount = mFrameCount + 1;
+        }
+    };
+
+    public SteeringWheelTextureView(Context context) {
+        super(context);
+        init(null, 0);
+    }
+
+    public SteeringWheelTextureView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init(attrs, 0);
+    }
+
+    public SteeringWheelTextureView(Context context, AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        init(attrs, defStyle);
+    }
+
+    private void init(AttributeSet attrs, int defStyle) {
+        TypedArray a = getContext().obtainStyledAttributes(attrs, R.styleable.SteeringWheelView);
+        //读取XML配置，与SteeringWheelView共用
+        int color = a.getColor(R.styleable.SteeringWheelView_ballColor, Color.RED);
+        Drawable arrowRight = a.getDrawable(R.styleable.SteeringWheelView_arrowRight);
+        Drawable ball = a.getDrawable(R.styleable.SteeringWheelView_ballSrc);
+        Drawable ballPressed = a.getDrawable(R.styleable.SteeringWheelView_ballPressedSrc);
+        a.recycle();
+        mPainter = new WheelPainter(color, arrowRight, ball, ballPressed);
+        mBallRadius = mPainter.getBallRadius();
+        mDefaultWidth = LGViewUtils.dp2px(getContext(), mDefaultWidthDp);
+        mDefaultHeight = LGViewUtils.dp2px(getContext(), mDefaultHeightDp);
+        setOpaque(false);
+        setSurfaceTextureListener(this);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        //handle wrap_content
+        setMeasuredDimension(WheelPainter.measure(widthMeasureSpec, mDefaultWidth, getMeasuredWidth()),
+                WheelPainter.measure(heightMeasureSpec, mDefaultHeight, getMeasuredHeight()));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        final int paddingLeft = getPaddingLeft();
+        final int paddingTop = getPaddingTop();
+        int width = getWidth() - paddingLeft - getPaddingRight();
+        int height = getHeight() - paddingTop - getPaddingBottom();
+
+        float radius = mPainter.radius(width, height);
+        float centerX = paddingLeft + (width >> 1);
+        float centerY = paddingTop + (height >> 1);
+        mCenterX = centerX;
+        mCenterY = centerY;
+        //中心和半径整体替换，球回到中心的状态随后发布
+        mGeometry = new Geometry(centerX, centerY, radius);
+        mEngine.setGeometry(centerX, centerY, radius - mBallRadius);
+        publishState(System.nanoTime());
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN: {
+                mActivePointerId = event.getPointerId(0);
+                mPressed = true;
+                if (mReturnAnimator.isRunning()) {
+                    mReturnAnimator.cancel(event.getEventTime() * 1000000L);
+                }
+                requestRender();
+                break;
+            }
+            case MotionEvent.ACTION_MOVE: {
+                final int index = event.findPointerIndex(mActivePointerId);
+                if (index < 0)
+                    break;
+
+                if (mHistoricalSamples) {
+                    //渲染线程每帧只画最新状态，历史触摸点逐个计算，保留亚像素精度
+                    final int historySize = event.getHistorySize();
+                    for (int i = 0; i < historySize; i++) {
+                        mEngine.update(event.getHistoricalX(index, i), event.getHistoricalY(index, i));
+                    }
+                    mEngine.update(event.getX(index), event.getY(index));
+                } else {
+                    mEngine.update((int) event.getX(index), (int) event.getY(index));
+                }
+                publishState(event.getEventTime() * 1000000L);
+                break;
+            }
+            case MotionEvent.ACTION_POINTER_UP:
+                if (event.getPointerId(event.getActionIndex()) != mActivePointerId)
+                    break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL: {
+                if (!mPressed)
+                    break;
+
+                mActivePointerId = MotionEvent.INVALID_POINTER_ID;
+                mPressed = false;
+                mReturnAnimator.start(mEngine.getBallX(), mEngine.getBallY(), mCenterX, mCenterY);
+                requestRender();
+                break;
+            }
+            default:
+                break;
+        }
+
+        notifyStatusChanged();
+        return true;
+    }
+
+    /**
+     * 发布当前状态并请求渲染线程重绘，在主线程中调用
+     */
+    private void publishState(long eventTimeNanos) {
+        mLastEventTimeNanos = eventTimeNanos;
+        mStateLock.write(mEngine.getAngle(), mEngine.getPower(), mEngine.getDirection(),
+                mEngine.getBallX() - mEngine.getCenterX(), mEngine.getBallY() - mEngine.getCenterY(),
+                mEngine.getAxisX(), mEngine.getAxisY(), eventTimeNanos);
+        requestRender();
+    }
+
+    private void requestRender() {
+        Handler handler = mRenderHandler;
+        if (handler != null && mRenderRequested.compareAndSet(false, true)) {
+            handler.post(mScheduleFrame);
+        }
+    }
+
+    /**
+     * 在渲染线程中绘制一帧，球按相对中心的偏移绘制
+     */
+    private void drawFrame(Canvas canvas, Geometry geometry, SteeringWheelState state, boolean pressed) {
+        float cx = geometry.mCenterX;
+        float cy = geometry.mCenterY;
+        float r = geometry.mRadius;
+        canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        mPainter.drawStatic(canvas, cx, cy, r);
+        mPainter.drawBall(canvas, cx + state.getX(), cy + state.getY(), pressed);
+        if (pressed) {
+            mPainter.drawArrow(canvas, cx, cy, r, state.getAngle());
+        }
+    }
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height) {
+        mRenderThread = new HandlerThread("SteeringWheelRender");
+        mRenderThread.start();
+        mRenderHandler = new Handler(mRenderThread.getLooper());
+        final SurfaceTexture texture = surface;
+        mRenderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                //渲染线程自己的Choreographer，与主线程互不影响
+                mRenderChoreographer = Choreographer.getInstance();
+                mSurface = texture;
+                mDrawnGeometry = null;
+                mFramePosted = true;
+                mRenderChoreographer.postFrameCallback(mFrameCallback);
+            }
+        });
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height) {
+        Handler handler = mRenderHandler;
+        if (handler != null) {
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    //画布尺寸已改变，强制重绘
+                    mDrawnGeometry = null;
+                }
+            });
+            requestRender();
+        }
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(final SurfaceTexture surface) {
+        final HandlerThread thread = mRenderThread;
+        if (thread == null)
+            return true;
+
+        //渲染线程停止和主线程放弃等待，先发生的一方决定由谁释放SurfaceTexture
+        final AtomicBoolean settled = new AtomicBoolean();
+        mRenderHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mSurface = null;
+                if (mFramePosted) {
+                    mRenderChoreographer.removeFrameCallback(mFrameCallback);
+                    mFramePosted = false;
+                }
+                thread.quit();
+                if (!settled.compareAndSet(false, true)) {
+                    //主线程已超时返回，由这里释放
+                    surface.release();
+                }
+            }
+        });
+        mRenderHandler = null;
+        mRenderThread = null;
+        //等待渲染线程退出，之后不会再锁定画布；正在绘制的帧很慢时不无限阻塞主线程
+        try {
+            thread.join(RENDER_STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !settled.compareAndSet(false, true);
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surface) {
+    }
+
+    /**
+     * 读取当前状态的一致快照，可以在任意线程中调用
+     *
+     * @param out 输出快照，由调用者持有并重复使用
+     * @return out
+     */
+    @Override
+    public SteeringWheelState readState(SteeringWheelState out) {
+        return mStateLock.read(out);
+    }
+
+    /**
+     * @return 渲染线程实际绘制的帧数，用于确认状态不变时没有重绘
+     */
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    private void notifyStatusChanged() {
+        if (mListener == null && mTimedListener == null)
+            return;
+
+        mNotifyControl.request();
+    }
+
+    /**
+     * 设置监听器
+     *
+     * @param listener 监听器对象
+     */
+    public SteeringWheelTextureView listener(SteeringWheelTextureListener listener) {
+        mListener = listener;
+        return this;
+    }
+
+    /**
+     * 设置带输入时间的监听器，可与 {@link #listener(SteeringWheelTextureListener)} 同时使用
+     *
+     * @param listener 监听器对象
+     */
+    public SteeringWheelTextureView timedListener(SteeringWheelTextureTimedListener listener) {
+        mTimedListener = listener;
+        return this;
+    }
+
+    /**
+     * 是否处理触摸事件中批量缓存的历史触摸点，与 {@link SteeringWheelView#historicalSamples(boolean)} 相同
+     *
+     * @param enabled 是否开启，默认关闭，只处理最新的触摸点并截断为整数像素
+     */
+    public SteeringWheelTextureView historicalSamples(boolean enabled) {
+        mHistoricalSamples = enabled;
+        return this;
+    }
+
+    /**
+     * 设置回调时间间隔
+     *
+     * @param interval 回调时间间隔
+     */
+    public SteeringWheelTextureView notifyInterval(long interval) {
+        mNotifyControl.setInterval(interval);
+        return this;
+    }
+
+    /**
+     * 设置通知模式
+     *
+     * @param mode {@link SteeringWheelView#NOTIFY_MODE_FIXED_RATE} {@link SteeringWheelView#NOTIFY_MODE_VSYNC}
+     *             {@link SteeringWheelView#NOTIFY_MODE_IMMEDIATE}
+     */
+    public SteeringWheelTextureView notifyMode(int mode) {
+        mNotifyControl.setMode(mode);
+        return this;
+    }
+
+    /**
+     * 设置自定义通知调度器，替换 {@link #notifyMode(int)} 的设置
+     *
+     * @param scheduler 通知调度器
+     */
+    public SteeringWheelTextureView notifyScheduler(NotifyScheduler scheduler) {
+        mNotifyControl.setScheduler(scheduler);
+        return this;
+    }
+
+    /**
+     * 指定球回弹动画时间插值器
+     *
+     * @param interpolator 时间插值器，为null时使用默认的 {@link OvershootInterpolator}
+     */
+    public SteeringWheelTextureView interpolator(TimeInterpolator interpolator) {
+        mReturnAnimator.setInterpolator(interpolator != null ? interpolator : new OvershootInterpolator());
+        return this;
+    }
+
+    /**
+     * 回弹动画改为弹簧方式
+     *
+     * @param stiffness    刚度
+     * @param dampingRatio 阻尼比
+     */
+    public SteeringWheelTextureView springReturn(float stiffness, float dampingRatio) {
+        mReturnAnimator.setSpring(stiffness, dampingRatio);
+        return this;
+    }
+
+    /**
+     * 设置大方向的量化方式
+     *
+     * @param quantizer 量化方式，为null时恢复默认的四方向
+     */
+    public SteeringWheelTextureView directionQuantizer(DirectionQuantizer quantizer) {
+        mEngine.setDirectionQuantizer(quantizer);
+        publishState(System.nanoTime());
+        return this;
+    }
+
+    /**
+     * 中心和大圆半径，不可变，重新布局时整体替换
+     */
+    private static final class Geometry {
+        final float mCenterX;
+        final float mCenterY;
+        final float mRadius;
+
+        Geometry(float centerX, float centerY, float radius) {
+            mCenterX = centerX;
+            mCenterY = centerY;
+            mRadius = radius;
+        }
+    }
+
+    interface SteeringWheelTextureListener {
+        /**
+         * 方向盘状态改变的回调，参数含义与 {@link SteeringWheelView.SteeringWheelListener} 相同
+         *
+         * @param view      方向盘实例对象
+         * @param angle     当前角度。范围0-360，其中右0，上90，左180，下270
+         * @param power     方向上的力度。范围0-100
+         * @param direction 大致方向，取值见 {@link JoystickEngine#getDirection()}
+         */
+        void onStatusChanged(SteeringWheelTextureView view, int angle, int power, int direction);
+    }
+
+    interface SteeringWheelTextureTimedListener {
+        /**
+         * 方向盘状态改变的回调，参数含义与 {@link SteeringWheelView.SteeringWheelTimedListener} 相同
+         *
+         * @param view           方向盘实例对象
+         * @param angle          当前角度。范围0-360，其中右0，上90，左180，下270
+         * @param power          方向上的力度。范围0-100
+         * @param direction      大致方向，取值见 {@link JoystickEngine#getDirection()}
+         * @param eventTimeNanos 产生该状态的触摸事件或回弹动画帧的时间，与 {@link System#nanoTime()} 同一时钟
+         * @param latencyNanos   从该事件到开始回调经过的时间，单位纳秒
+         */
+        void onStatusChanged(SteeringWheelTextureView view, int angle, int power, int direction,
+                             long eventTimeNanos, long latencyNanos);
+    }
+}
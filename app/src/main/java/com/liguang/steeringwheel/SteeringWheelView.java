@@ -1,50 +1,85 @@
 package com.liguang.steeringwheel;
 
-import android.animation.Animator;
-import android.animation.ObjectAnimator;
-import android.animation.PropertyValuesHolder;
 import android.animation.TimeInterpolator;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.animation.OvershootInterpolator;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
 /**
  * 方向盘控件。
  */
-public class SteeringWheelView extends View {
-    private static final String TAG = "SteeringWheelView";
+public class SteeringWheelView extends View implements SteeringWheelStateSource {
+    /**
+     * 是否记录追踪事件，编译期常量，关闭时追踪代码不会编译进来
+     */
+    private static final boolean TRACE = BuildConfig.TRACE_ENABLED;
+    /**
+     * 追踪记录保留的事件数
+     */
+    private static final int TRACE_CAPACITY = 512;
     /**
      * 当前方向无效，方向盘没有触摸时处于该状态
      */
-    public static final int INVALID = -1;
+    public static final int INVALID = JoystickEngine.INVALID;
     /**
      * 向右
      */
-    public static final int RIGHT = 0;
+    public static final int RIGHT = JoystickEngine.RIGHT;
     /**
      * 向上
      */
-    public static final int UP = 1;
+    public static final int UP = JoystickEngine.UP;
     /**
      * 向左
      */
-    public static final int LEFT = 2;
+    public static final int LEFT = JoystickEngine.LEFT;
     /**
      * 向下
      */
-    public static final int DOWN = 4;
+    public static final int DOWN = JoystickEngine.DOWN;
+    /**
+     * 固定频率通知，按通知间隔合并，默认模式
+     */
+    public static final int NOTIFY_MODE_FIXED_RATE = 0;
+    /**
+     * 与屏幕刷新同步通知，每帧最多一次
+     */
+    public static final int NOTIFY_MODE_VSYNC = 1;
+    /**
+     * 状态改变时立即同步通知
+     */
+    public static final int NOTIFY_MODE_IMMEDIATE = 2;
     /**
      * 外部监听器
      */
     private SteeringWheelListener mListener;
+    /**
+     * 带输入时间和延迟的监听器
+     */
+    private SteeringWheelTimedListener mTimedListener;
+    /**
+     * 逐个触摸采样的监听器
+     */
+    private SteeringWheelSampleListener mSampleListener;
+    private static final SteeringWheelSubscription[] NO_SUBSCRIPTIONS = new SteeringWheelSubscription[0];
+    /**
+     * 按条件过滤的订阅，注册和取消时整体替换数组，遍历时不分配内存
+     */
+    private SteeringWheelSubscription[] mSubscriptions = NO_SUBSCRIPTIONS;
     private static final int mDefaultWidthDp = 200;
     private static final int mDefaultHeightDp = 200;
     /**
@@ -56,13 +91,9 @@ public class SteeringWheelView extends View {
      */
     private static int mDefaultHeight;
     /**
-     * 画笔对象
-     */
-    private Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-    /**
-     * 画笔的颜色
+     * 横线、竖线、大圆、球和箭头的绘制
      */
-    private int mColor;
+    private WheelPainter mPainter;
     /**
      * 当前中心X
      */
@@ -72,67 +103,149 @@ public class SteeringWheelView extends View {
      */
     private float mCenterY;
     /**
-     * 球
+     * 球的半径
      */
-    private Drawable mBallDrawable;
+    private float mBallRadius;
     /**
-     * 被按下后，球的图片
+     * 当前半径
      */
-    private Drawable mBallPressedDrawable;
+    private float mRadius;
     /**
-     * 当前球中心X坐标
+     * 几何计算内核，保存球的位置、角度、力度和方向
      */
-    private float mBallCenterX;
+    private final JoystickEngine mEngine = new JoystickEngine();
     /**
-     * 当前球中心Y坐标
+     * 通知者，取当前数据回调监听者
      */
-    private float mBallCenterY;
+    private final NotifyScheduler.Target mNotifyTarget = new NotifyScheduler.Target() {
+        @Override
+        public void deliver(long timeNanos) {
+            if (mListener == null && mTimedListener == null)
+                return;
+
+            if (mListenerDispatcher != null) {
+                mListenerDispatcher.publish();
+                return;
+            }
+
+            if (TRACE) {
+                mTrace.record(timeNanos, TraceRecorder.EVENT_DELIVER, mEngine.getPower(),
+                        (float) mEngine.getAngle(), mEngine.getDirection());
+            }
+            //取当前数据，而非过去数据的snapshot
+            long eventTimeNanos = mLastEventTimeNanos;
+            long latencyNanos = System.nanoTime() - eventTimeNanos;
+            if (mListener != null) {
+                mListener.onStatusChanged(SteeringWheelView.this, (int) mEngine.getAngle(),
+                        mEngine.getPower(), mEngine.getDirection());
+            }
+            if (mTimedListener != null) {
+                mTimedListener.onStatusChanged(SteeringWheelView.this, (int) mEngine.getAngle(),
+                        mEngine.getPower(), mEngine.getDirection(), eventTimeNanos, latencyNanos);
+            }
+            if (mMetrics != null) {
+                mMetrics.increment(SteeringWheelMetrics.DELIVERIES);
+                mMetrics.recordDeliveryLatency(latencyNanos);
+            }
+        }
+    };
     /**
-     * 球的半径
+     * 通知调度，默认固定频率
      */
-    private float mBallRadius;
+    private final NotifyControl mNotifyControl = new NotifyControl(mNotifyTarget);
     /**
-     * 当前半径
+     * 回弹动画，每帧同时更新球的X、Y坐标
      */
-    private float mRadius;
+    private final ReturnToCenterAnimator mReturnAnimator = new ReturnToCenterAnimator(
+            new ReturnToCenterAnimator.Callback() {
+                @Override
+                public void onAnimationFrame(float x, float y, long frameTimeNanos) {
+                    updateBallPosition(x, y, frameTimeNanos);
+                }
+
+                @Override
+                public void onAnimationEnd(long frameTimeNanos) {
+                    mEngine.reset();
+                    if (mTraceWriter != null) {
+                        mTraceWriter.record(frameTimeNanos, InputTraceWriter.KIND_RESET, 0, 0, mEngine);
+                    }
+                    publishState(frameTimeNanos);
+                    notifyStatusChanged();
+                }
+            });
+    private boolean mWasTouched;
     /**
-     * 当前角度
+     * 跟踪的手指，只响应按下的第一个手指，其他手指忽略
      */
-    private double mAngle;
+    private int mActivePointerId = MotionEvent.INVALID_POINTER_ID;
     /**
-     * 当前偏离中心的百分比，取值为 0 - 100
+     * 供其他线程读取的状态
      */
-    private int mPower;
+    private final StateSeqLock mStateLock = new StateSeqLock();
     /**
-     * 通知的时间最小间隔
+     * 按顺序保存每一个采样，供其他线程批量读取
      */
-    private long mNotifyInterval = 0;
+    private SampleRingBuffer mSampleBuffer;
     /**
-     * 通知者
+     * 在其他线程中回调监听者，为null时在主线程中回调
      */
-    private Runnable mNotifyRunnable;
+    private AsyncListenerDispatcher mListenerDispatcher;
     /**
-     * 上次通知监听者的时间
+     * 按需求投递的发布者，第一次获取时创建
      */
-    private long mLastNotifyTime;
+    private SteeringWheelPublisher mPublisher;
     /**
-     * 当前方向
+     * 统计数据，为null时不统计
      */
-    private int mDirection = INVALID;
+    private SteeringWheelMetrics mMetrics;
     /**
-     * 向右箭头
+     * 追踪记录，TRACE关闭时为null
      */
-    private Drawable mArrowRightDrawable;
+    private final TraceRecorder mTrace = TRACE ? new TraceRecorder(TRACE_CAPACITY) : null;
     /**
-     * 回弹动画
+     * 输入轨迹录制，为null时不录制
      */
-    private ObjectAnimator mAnimator;
-
+    private InputTraceWriter mTraceWriter;
     /**
-     * 时间插值器
+     * 触摸点滤波，为null时不滤波
      */
-    private TimeInterpolator mInterpolator;
-    private boolean mWasTouched;
+    private InputFilterChain mInputFilter;
+    /**
+     * 是否使用整数偏移的预计算表
+     */
+    private boolean mPolarLookup;
+    /**
+     * 预计算表的构建序号，每次重新安排构建时加1，只有最新一次的结果会被使用
+     */
+    private volatile int mLookupGeneration;
+    /**
+     * 尚未完成的构建任务
+     */
+    private Future<?> mLookupBuild;
+    /**
+     * 最近一次发布的状态对应的事件时间
+     */
+    private long mLastEventTimeNanos;
+    /**
+     * 是否处理MotionEvent中批量缓存的历史触摸点
+     */
+    private boolean mHistoricalSamples;
+    /**
+     * 是否缓存静态图层并只刷新球和箭头所在区域
+     */
+    private boolean mStaticLayerCache;
+    /**
+     * 静态图层，包括横线、竖线和大圆，尺寸改变时重新绘制
+     */
+    private Bitmap mStaticLayer;
+    /**
+     * 上次刷新时球和箭头所占的区域
+     */
+    private final Rect mMovingBounds = new Rect();
+    /**
+     * 本次需要刷新的区域
+     */
+    private final Rect mDirtyRect = new Rect();
 
     /**
      * 获取球X坐标
@@ -140,21 +253,17 @@ public class SteeringWheelView extends View {
      * @return 球X坐标
      */
     public float getBallX() {
-        return mBallCenterX;
+        return mEngine.getBallX();
     }
 
     /**
-     * 设置球X坐标。目前该API的执行时机为Choreographer中每帧中的动画阶段,由底层动画框架反射调用
+     * 设置球X坐标
      *
      * @param ballX 球X坐标
      */
     public void setBallX(float ballX) {
-        if (ballX != mBallCenterX) {
-            mBallCenterX = ballX;
-            updatePower();
-            updateDirection();
-            invalidate();
-            notifyStatusChanged();
+        if (ballX != mEngine.getBallX()) {
+            updateBallPosition(ballX, mEngine.getBallY(), System.nanoTime());
         }
     }
 
@@ -164,20 +273,56 @@ public class SteeringWheelView extends View {
      * @return 球Y坐标
      */
     public float getBallY() {
-        return mBallCenterY;
+        return mEngine.getBallY();
     }
 
     /**
-     * 设置球Y坐标。目前该API的执行时机为Choreographer中每帧中的动画阶段,由底层动画框架反射调用
+     * 设置球Y坐标
      *
      * @param ballY 球Y坐标
      */
     public void setBallY(float ballY) {
-        if (mBallCenterY != ballY) {
-            mBallCenterY = ballY;
-            updatePower();
-            updateDirection();
-            invalidate();
+        if (mEngine.getBallY() != ballY) {
+            updateBallPosition(mEngine.getBallX(), ballY, System.nanoTime());
+        }
+    }
+
+    /**
+     * 获取经过响应曲线的X轴输出，应在主线程中调用。其他线程通过 {@link #readState(SteeringWheelState)} 与状态一起读取
+     *
+     * @return X轴输出，[-1, 1]，向右为正
+     */
+    public float getAxisX() {
+        return mEngine.getAxisX();
+    }
+
+    /**
+     * 获取经过响应曲线的Y轴输出，应在主线程中调用。其他线程通过 {@link #readState(SteeringWheelState)} 与状态一起读取
+     *
+     * @return Y轴输出，[-1, 1]，向上为正
+     */
+    public float getAxisY() {
+        return mEngine.getAxisY();
+    }
+
+    /**
+     * 同时设置球的X、Y坐标，只计算、刷新和通知一次。回弹动画在Choreographer每帧的回调中调用
+     *
+     * @param ballX 球X坐标
+     * @param ballY 球Y坐标
+     */
+    public void setBallPosition(float ballX, float ballY) {
+        updateBallPosition(ballX, ballY, System.nanoTime());
+    }
+
+    private void updateBallPosition(float ballX, float ballY, long timeNanos) {
+        if (ballX != mEngine.getBallX() || ballY != mEngine.getBallY()) {
+            mEngine.setBall(ballX, ballY);
+            if (mTraceWriter != null) {
+                mTraceWriter.record(timeNanos, InputTraceWriter.KIND_BALL, ballX, ballY, mEngine);
+            }
+            publishState(timeNanos);
+            invalidateBall();
             notifyStatusChanged();
         }
     }
@@ -200,43 +345,34 @@ public class SteeringWheelView extends View {
     private void init(AttributeSet attrs, int defStyle) {
         TypedArray a = getContext().obtainStyledAttributes(attrs, R.styleable.SteeringWheelView);
         //读取XML配置
-        mColor = a.getColor(R.styleable.SteeringWheelView_ballColor, Color.RED);
-        mArrowRightDrawable = a.getDrawable(R.styleable.SteeringWheelView_arrowRight);
-        mBallDrawable = a.getDrawable(R.styleable.SteeringWheelView_ballSrc);
-        mBallPressedDrawable = a.getDrawable(R.styleable.SteeringWheelView_ballPressedSrc);
+        int color = a.getColor(R.styleable.SteeringWheelView_ballColor, Color.RED);
+        Drawable arrowRight = a.getDrawable(R.styleable.SteeringWheelView_arrowRight);
+        Drawable ball = a.getDrawable(R.styleable.SteeringWheelView_ballSrc);
+        Drawable ballPressed = a.getDrawable(R.styleable.SteeringWheelView_ballPressedSrc);
         a.recycle();
-        mBallRadius = mBallDrawable.getIntrinsicWidth() >> 1;
+        mPainter = new WheelPainter(color, arrowRight, ball, ballPressed);
+        mBallRadius = mPainter.getBallRadius();
         mDefaultWidth = LGViewUtils.dp2px(getContext(), mDefaultWidthDp);
         mDefaultHeight = LGViewUtils.dp2px(getContext(), mDefaultHeightDp);
-        mPaint.setColor(mColor);
-        mPaint.setStyle(Paint.Style.STROKE);
     }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
-        Log.d(TAG, "onMeasure: ");
         //handle wrap_content
-        int widthSpecMode = MeasureSpec.getMode(widthMeasureSpec);
-        int widthSpecSize = MeasureSpec.getSize(widthMeasureSpec);
-        //解析上层ViewGroup传下来的数据，高两位是模式，低30位是大小
-        //主要需要特殊处理wrap_content情形
-        int heightSpecMode = MeasureSpec.getMode(heightMeasureSpec);
-        int heightSpecSize = MeasureSpec.getSize(heightMeasureSpec);
-
-        if (widthSpecMode == MeasureSpec.AT_MOST && heightSpecMode == MeasureSpec.AT_MOST) {
-            setMeasuredDimension(mDefaultWidth, mDefaultHeight);
-        } else if (widthSpecMode == MeasureSpec.AT_MOST) {
-            setMeasuredDimension(mDefaultWidth, heightSpecSize);
-        } else if (heightSpecMode == MeasureSpec.AT_MOST) {
-            setMeasuredDimension(widthSpecSize, mDefaultHeight);
+        setMeasuredDimension(WheelPainter.measure(widthMeasureSpec, mDefaultWidth, getMeasuredWidth()),
+                WheelPainter.measure(heightMeasureSpec, mDefaultHeight, getMeasuredHeight()));
+        if (TRACE) {
+            mTrace.record(TraceRecorder.EVENT_MEASURE, 0, getMeasuredWidth(), getMeasuredHeight());
         }
     }
 
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
-        Log.d(TAG, "onSizeChanged: w=" + w + "#h=" + h + "#oldw=" + oldw + "#oldh=" + oldh);
+        if (TRACE) {
+            mTrace.record(TraceRecorder.EVENT_SIZE_CHANGED, 0, w, h);
+        }
         //在layout过程中会回调该方法
         //handle padding
         final int paddingLeft = getPaddingLeft();
@@ -247,84 +383,156 @@ public class SteeringWheelView extends View {
         int width = getWidth() - paddingLeft - paddingRight;
         int height = getHeight() - paddingTop - paddingBottom;
 
-        mRadius = (Math.min(width, height) >> 1) - mArrowRightDrawable.getIntrinsicWidth() / 2;
-        mBallCenterX = mCenterX = paddingLeft + (width >> 1);
-        mBallCenterY = mCenterY = paddingTop + (height >> 1);
+        mRadius = mPainter.radius(width, height);
+        mCenterX = paddingLeft + (width >> 1);
+        mCenterY = paddingTop + (height >> 1);
+        mEngine.setGeometry(mCenterX, mCenterY, mRadius - mBallRadius);
+        updatePolarLookup();
+        if (mTraceWriter != null) {
+            mTraceWriter.recordGeometry(System.nanoTime(), mCenterX, mCenterY, mEngine.getRange());
+        }
+        publishState(System.nanoTime());
+        updateStaticLayer();
+    }
 
-        //calc arrow bounds
-        mArrowRightDrawable.setBounds((int) (mCenterX + mRadius - mArrowRightDrawable.getIntrinsicWidth() / 2),
-                (int) (mCenterY - mArrowRightDrawable.getIntrinsicHeight() / 2),
-                (int) (mCenterX + mRadius + mArrowRightDrawable.getIntrinsicWidth() / 2),
-                (int) (mCenterY + mArrowRightDrawable.getIntrinsicHeight() / 2));
+    /**
+     * 按当前范围在后台线程中构建预计算表，完成后回到主线程交给引擎
+     */
+    private void updatePolarLookup() {
+        //之前安排的构建都已过时，还在排队的直接取消，正在构建的完成后丢弃
+        final int generation = ++mLookupGeneration;
+        if (mLookupBuild != null) {
+            mLookupBuild.cancel(false);
+            mLookupBuild = null;
+        }
+        final float range = mEngine.getRange();
+        if (!mPolarLookup || range <= 0 || range > PolarLookupTable.MAX_EXTENT) {
+            mEngine.setPolarLookup(null);
+            return;
+        }
+        //覆盖到大圆边缘，更远的触摸点仍然精确计算
+        final int extent = Math.min((int) Math.ceil(mRadius), PolarLookupTable.MAX_EXTENT);
+        mLookupBuild = LookupBuilder.EXECUTOR.submit(new Runnable() {
+            @Override
+            public void run() {
+                if (generation != mLookupGeneration)
+                    return;
+
+                final PolarLookupTable lookup = new PolarLookupTable(range, extent);
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        //构建期间可能已关闭或重新布局
+                        if (generation == mLookupGeneration) {
+                            mLookupBuild = null;
+                            mEngine.setPolarLookup(lookup);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 按当前尺寸重建或释放静态图层
+     */
+    private void updateStaticLayer() {
+        if (mStaticLayer != null) {
+            mStaticLayer.recycle();
+            mStaticLayer = null;
+        }
+        mMovingBounds.setEmpty();
+        if (!mStaticLayerCache || getWidth() <= 0 || getHeight() <= 0)
+            return;
+
+        mStaticLayer = Bitmap.createBitmap(getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
+        mPainter.drawStatic(new Canvas(mStaticLayer), mCenterX, mCenterY, mRadius);
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        //画横线
-        canvas.drawLine(mCenterX - mRadius, mCenterY, mCenterX + mRadius, mCenterY, mPaint);
-        //画竖线
-        canvas.drawLine(mCenterX, mCenterY - mRadius, mCenterX, mCenterY + mRadius, mPaint);
-        //画大圆
-        canvas.drawCircle(mCenterX, mCenterY, mRadius, mPaint);
+        long start = mMetrics != null ? System.nanoTime() : 0;
+        if (mStaticLayer != null) {
+            canvas.drawBitmap(mStaticLayer, 0, 0, null);
+        } else {
+            mPainter.drawStatic(canvas, mCenterX, mCenterY, mRadius);
+        }
         //画球
-        drawBall(canvas);
+        mPainter.drawBall(canvas, mEngine.getBallX(), mEngine.getBallY(), mWasTouched);
         //画箭头
-        drawArrow(canvas);
-    }
-
-    private void drawBall(Canvas canvas) {
-        Drawable drawable;
-        //point to the right drawable instance
         if (mWasTouched) {
-            drawable = mBallPressedDrawable;
-        } else {
-            drawable = mBallDrawable;
+            mPainter.drawArrow(canvas, mCenterX, mCenterY, mRadius, mEngine.getAngle());
+        }
+        if (mMetrics != null) {
+            mMetrics.increment(SteeringWheelMetrics.DRAWS);
+            mMetrics.recordDrawTime(System.nanoTime() - start);
         }
-        drawable.setBounds((int) (mBallCenterX - drawable.getIntrinsicWidth() / 2),
-                (int) (mBallCenterY - drawable.getIntrinsicHeight() / 2),
-                (int) (mBallCenterX + drawable.getIntrinsicWidth() / 2),
-                (int) (mBallCenterY + drawable.getIntrinsicHeight() / 2));
-        drawable.draw(canvas);
-    }
-
-    /**
-     * 画箭头
-     *
-     * @param canvas 画布对象
-     */
-    private void drawArrow(Canvas canvas) {
-        if (!mWasTouched)
-            return;
-
-        canvas.save(Canvas.MATRIX_SAVE_FLAG);
-        //旋转角度
-        canvas.rotate((float) -mAngle, mCenterX, mCenterY);
-        mArrowRightDrawable.draw(canvas);
-        canvas.restore();
     }
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        Log.d(TAG, "onTouchEvent: ");
-        int x = (int) event.getX();
-        int y = (int) event.getY();
-        switch (event.getAction()) {
+        if (TRACE) {
+            mTrace.record(event.getEventTime() * 1000000L, TraceRecorder.EVENT_TOUCH,
+                    event.getAction(), event.getX(), event.getY());
+        }
+        if (mMetrics != null) {
+            mMetrics.increment(SteeringWheelMetrics.TOUCH_EVENTS);
+        }
+        switch (event.getActionMasked()) {
             case MotionEvent.ACTION_DOWN: {
+                mActivePointerId = event.getPointerId(0);
                 mWasTouched = true;
-                if (mAnimator != null && mAnimator.isRunning()) {
+                //按下时状态不变，但本次通知由该事件引起
+                mLastEventTimeNanos = event.getEventTime() * 1000000L;
+                if (mInputFilter != null) {
+                    mInputFilter.reset();
+                }
+                if (mTraceWriter != null) {
+                    mTraceWriter.recordDown(mLastEventTimeNanos);
+                }
+                dispatchPressed(true);
+                if (mReturnAnimator.isRunning()) {
                     //在本次触摸事件序列中，如果上一个复位动画还没执行完毕，则需要取消动画，及时响应用户输入
-                    mAnimator.cancel();
+                    mReturnAnimator.cancel(mLastEventTimeNanos);
+                    if (mMetrics != null) {
+                        mMetrics.increment(SteeringWheelMetrics.RESETS_CANCELLED);
+                    }
                 }
                 break;
             }
             case MotionEvent.ACTION_MOVE: {
-                updateBallData(x, y);
+                final int index = event.findPointerIndex(mActivePointerId);
+                if (index < 0)
+                    break;
+
+                if (mHistoricalSamples) {
+                    //两帧之间的触摸点被合并到同一个事件中，按时间顺序逐个处理，保留亚像素精度
+                    final int historySize = event.getHistorySize();
+                    for (int i = 0; i < historySize; i++) {
+                        updateBallData(event.getHistoricalX(index, i), event.getHistoricalY(index, i),
+                                event.getHistoricalEventTime(i));
+                    }
+                    updateBallData(event.getX(index), event.getY(index), event.getEventTime());
+                } else {
+                    updateBallData((int) event.getX(index), (int) event.getY(index), event.getEventTime());
+                }
+                invalidateBall();
                 break;
             }
+            case MotionEvent.ACTION_POINTER_UP:
+                //其他手指抬起时忽略，跟踪的手指抬起时按松开处理
+                if (event.getPointerId(event.getActionIndex()) != mActivePointerId)
+                    break;
             case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_CANCEL: {
+                if (!mWasTouched)
+                    break;
+
+                mActivePointerId = MotionEvent.INVALID_POINTER_ID;
                 mWasTouched = false;
+                mLastEventTimeNanos = event.getEventTime() * 1000000L;
+                dispatchPressed(false);
                 resetBall();
                 break;
             }
@@ -337,161 +545,190 @@ public class SteeringWheelView extends View {
     }
 
     /**
-     * 指定球回弹动画时间插值器
+     * 指定球回弹动画时间插值器，回弹动画改为插值器方式
      *
      * @param value 插值器
      */
     public SteeringWheelView interpolator(TimeInterpolator value) {
         if (value != null) {
-            mInterpolator = value;
+            mReturnAnimator.setInterpolator(value);
         } else {
-            mInterpolator = new OvershootInterpolator();
+            mReturnAnimator.setInterpolator(new OvershootInterpolator());
         }
         return this;
     }
 
-    private TimeInterpolator getInterpolator() {
-        if (mInterpolator == null) {
-            mInterpolator = new OvershootInterpolator();
-        }
-        return mInterpolator;
+    /**
+     * 指定球回弹动画使用弹簧，回弹动画改为弹簧方式，直到再次调用 {@link #interpolator(TimeInterpolator)}
+     *
+     * @param stiffness    刚度，必须大于0，越大回弹越快
+     * @param dampingRatio 阻尼比，1为临界阻尼，小于1时会越过中心来回摆动
+     */
+    public SteeringWheelView springReturn(float stiffness, float dampingRatio) {
+        mReturnAnimator.setSpring(stiffness, dampingRatio);
+        return this;
     }
 
     /**
      * 弹性滑动
      */
     private void resetBall() {
-        PropertyValuesHolder pvhX = PropertyValuesHolder.ofFloat("BallX", mBallCenterX, mCenterX);
-        PropertyValuesHolder pvhY = PropertyValuesHolder.ofFloat("BallY", mBallCenterY, mCenterY);
-        mAnimator = ObjectAnimator.ofPropertyValuesHolder(this, pvhX, pvhY).setDuration(150);
-        mAnimator.setInterpolator(getInterpolator());
-        mAnimator.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
+        if (mMetrics != null) {
+            mMetrics.increment(SteeringWheelMetrics.RESETS_STARTED);
+        }
+        mReturnAnimator.start(mEngine.getBallX(), mEngine.getBallY(), mCenterX, mCenterY);
+    }
 
-            }
+    /**
+     * 处理一个触摸点
+     *
+     * @param x         触摸点X坐标
+     * @param y         触摸点Y坐标
+     * @param eventTime 触摸点的时间，与 {@link android.os.SystemClock#uptimeMillis()} 同一时钟
+     */
+    private void updateBallData(float x, float y, long eventTime) {
+        float inputX = x;
+        float inputY = y;
+        if (mInputFilter != null) {
+            mInputFilter.filter(eventTime * 1000000L, x, y);
+            inputX = mInputFilter.getX();
+            inputY = mInputFilter.getY();
+        }
+        mEngine.update(inputX, inputY);
+        if (mTraceWriter != null) {
+            //记录滤波前的坐标，回放时按录制的滤波器链重新滤波
+            mTraceWriter.record(eventTime * 1000000L, InputTraceWriter.KIND_TOUCH, x, y, mEngine);
+        }
+        //uptimeMillis 与 System.nanoTime 在Android上都基于CLOCK_MONOTONIC
+        publishState(eventTime * 1000000L);
+        if (mSampleListener != null) {
+            mSampleListener.onSample(this, eventTime, mEngine.getAngle(),
+                    mEngine.getPower(), mEngine.getDirection());
+        }
+    }
 
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                mAngle = 0;
-                mPower = 0;
-                mDirection = INVALID;
-                notifyStatusChanged();
-            }
+    /**
+     * 发布当前状态，供其他线程读取
+     *
+     * @param eventTimeNanos 产生该状态的事件时间
+     */
+    private void publishState(long eventTimeNanos) {
+        float x = mEngine.getBallX() - mEngine.getCenterX();
+        float y = mEngine.getBallY() - mEngine.getCenterY();
+        mLastEventTimeNanos = eventTimeNanos;
+        mStateLock.write(mEngine.getAngle(), mEngine.getPower(), mEngine.getDirection(), x, y,
+                mEngine.getAxisX(), mEngine.getAxisY(), eventTimeNanos);
+        if (mSampleBuffer != null) {
+            mSampleBuffer.offer(eventTimeNanos, x, y, (float) mEngine.getAngle(),
+                    mEngine.getPower(), mEngine.getDirection());
+        }
+        SteeringWheelSubscription[] subscriptions = mSubscriptions;
+        for (int i = 0; i < subscriptions.length; i++) {
+            subscriptions[i].onState(this, mEngine.getAngle(), mEngine.getPower(), mEngine.getDirection());
+        }
+        if (mPublisher != null) {
+            mPublisher.publish();
+        }
+    }
 
-            @Override
-            public void onAnimationCancel(Animator animation) {
+    private void dispatchPressed(boolean pressed) {
+        SteeringWheelSubscription[] subscriptions = mSubscriptions;
+        for (int i = 0; i < subscriptions.length; i++) {
+            subscriptions[i].onPressed(this, pressed);
+        }
+    }
 
-            }
+    /**
+     * 读取当前状态的一致快照。可以在任意线程中调用，不阻塞主线程，也不分配内存，
+     * 适合游戏循环或控制循环按自己的节奏轮询
+     *
+     * @param out 由调用方持有的快照对象
+     * @return out
+     */
+    @Override
+    public SteeringWheelState readState(SteeringWheelState out) {
+        return mStateLock.read(out);
+    }
 
-            @Override
-            public void onAnimationRepeat(Animator animation) {
+    /**
+     * 设置采样缓冲区。触摸和回弹动画产生的每一个状态都会按顺序写入，
+     * 由其他线程调用 {@link SampleRingBuffer#drain} 批量读取
+     *
+     * @param buffer 采样缓冲区，null表示不再写入
+     */
+    public SteeringWheelView sampleBuffer(SampleRingBuffer buffer) {
+        mSampleBuffer = buffer;
+        return this;
+    }
 
-            }
-        });
-        mAnimator.start();
-    }
-
-    private void updateBallData(int x, int y) {
-        mBallCenterX = x;
-        mBallCenterY = y;
-        boolean outOfRange = outOfRange(x, y);
-        //采用(a, b]开闭区间
-        if (x >= mCenterX && y < mCenterY) {
-            //第一象限
-            mAngle = Math.toDegrees(Math.atan((mCenterY - y) / (x - mCenterX)));
-            if (outOfRange) {
-                mBallCenterX = (float) (mCenterX + Math.cos(Math.toRadians(mAngle)) * (mRadius - mBallRadius));
-                mBallCenterY = (float) (mCenterY - Math.sin(Math.toRadians(mAngle)) * (mRadius - mBallRadius));
-            }
-        } else if (x < mCenterX && y <= mCenterY) {
-            //第二象限
-            mAngle = 180 - Math.toDegrees(Math.atan((mCenterY - y) / (mCenterX - x)));
-            if (outOfRange) {
-                mBallCenterX = (float) (mCenterX - Math.cos(Math.toRadians(180 - mAngle)) * (mRadius - mBallRadius));
-                mBallCenterY = (float) (mCenterY - Math.sin(Math.toRadians(180 - mAngle)) * (mRadius - mBallRadius));
-            }
-        } else if (x <= mCenterX && y > mCenterY) {
-            //第三象限
-            mAngle = 270 - Math.toDegrees(Math.atan((mCenterX - x) / (y - mCenterY)));
-            if (outOfRange) {
-                mBallCenterX = (float) (mCenterX - Math.cos(Math.toRadians(mAngle - 180)) * (mRadius - mBallRadius));
-                mBallCenterY = (float) (mCenterY + Math.sin(Math.toRadians(mAngle - 180)) * (mRadius - mBallRadius));
-            }
-        } else if (x > mCenterX && y >= mCenterY) {
-            //第四象限
-            mAngle = 360 - Math.toDegrees(Math.atan((y - mCenterY) / (x - mCenterX)));
-            if (outOfRange) {
-                mBallCenterX = (float) (mCenterX + Math.cos(Math.toRadians(360 - mAngle)) * (mRadius - mBallRadius));
-                mBallCenterY = (float) (mCenterY + Math.sin(Math.toRadians(360 - mAngle)) * (mRadius - mBallRadius));
-            }
+    /**
+     * 设置统计数据。开启后记录触摸事件数、通知请求与实际回调次数、回弹动画启动与取消次数、
+     * onDraw 次数，以及 onDraw 耗时和从触摸到回调的耗时分布
+     *
+     * @param metrics 统计数据，可以由多个方向盘共享，为null时不统计
+     */
+    public SteeringWheelView metrics(SteeringWheelMetrics metrics) {
+        mMetrics = metrics;
+        if (mListenerDispatcher != null) {
+            mListenerDispatcher.setMetrics(metrics);
         }
-        updatePower();
-        updateDirection();
-        invalidate();
+        return this;
     }
 
-    private void updatePower() {
-        mPower = (int) (100 * Math.sqrt(Math.pow(mBallCenterX - mCenterX, 2) + Math.pow(mBallCenterY - mCenterY, 2)) / (mRadius - mBallRadius));
-        Log.d(TAG, "updatePower: mPower = " + mPower);
+    /**
+     * 设置触摸点滤波，触摸点依次经过各个滤波器后再计算角度和力度。录制的轨迹中保存的是滤波前的坐标和滤波器参数
+     *
+     * @param filters 按执行顺序排列的滤波器，如 {@link OneEuroInputFilter} {@link ExponentialInputFilter}
+     *                {@link PredictiveInputFilter}，为空时不滤波
+     */
+    public SteeringWheelView inputFilters(InputFilter... filters) {
+        mInputFilter = filters == null || filters.length == 0 ? null : new InputFilterChain(filters);
+        if (mTraceWriter != null) {
+            mTraceWriter.recordFilters(mInputFilter);
+        }
+        return this;
     }
 
-    private boolean outOfRange(int newX, int newY) {
-        return (Math.pow(newX - mCenterX, 2) + Math.pow(newY - mCenterY, 2)) > Math.pow(mRadius - mBallRadius, 2);
+    /**
+     * 录制输入轨迹。每个触摸点、回弹动画帧和几何参数变化都会连同计算结果写入轨迹文件，
+     * 引擎配置和滤波器链也一并写入，之后可以用 {@link InputTraceReplayer} 回放。
+     * 滤波器的内部状态无法录制，从下一次手指按下开始才能完全复现。应在UI线程中调用，停止录制后由调用者关闭writer
+     *
+     * @param writer 轨迹写入，为null时停止录制
+     */
+    public SteeringWheelView traceWriter(InputTraceWriter writer) {
+        mTraceWriter = writer;
+        if (writer != null && mEngine.getRange() > 0) {
+            //已经布局过，先写入当前几何参数和状态，回放时从同一状态开始
+            writer.recordGeometry(System.nanoTime(), mEngine.getCenterX(), mEngine.getCenterY(), mEngine.getRange());
+            writer.record(System.nanoTime(), InputTraceWriter.KIND_TOUCH, mEngine.getBallX(), mEngine.getBallY(), mEngine);
+        }
+        if (writer != null) {
+            writer.recordFilters(mInputFilter);
+        }
+        return this;
     }
 
     /**
-     * 采用(a,b]开闭区间
+     * 获取追踪记录，可调用 {@link TraceRecorder#dump()} 导出，应在UI线程中调用
      *
-     * @return 方向值
+     * @return 追踪记录，BuildConfig.TRACE_ENABLED 关闭时为null
      */
-    private int updateDirection() {
-        if (Math.abs(mCenterX - mBallCenterX) < 0.00000001
-                && Math.abs(mCenterY - mBallCenterY) < 0.00000001)
-            mDirection = INVALID;
-        else if (mAngle <= 45 || mAngle > 315)
-            mDirection = RIGHT;
-        else if (mAngle > 45 && mAngle <= 135)
-            mDirection = UP;
-        else if (mAngle > 135 && mAngle <= 225)
-            mDirection = LEFT;
-        else
-            mDirection = DOWN;
-        return mDirection;
+    public TraceRecorder getTraceRecorder() {
+        return mTrace;
     }
 
     /**
      * 通知监听者方向盘状态改变
      */
     private void notifyStatusChanged() {
-        if (mListener == null)
+        if (mListener == null && mTimedListener == null)
             return;
 
-        long delay = 0;
-        if (mNotifyRunnable == null) {
-            mNotifyRunnable = createNotifyRunnable();
-        } else {
-            long now = System.currentTimeMillis();
-            if (now - mLastNotifyTime < mNotifyInterval) {
-                //移除旧消息
-                removeCallbacks(mNotifyRunnable);
-                delay = mNotifyInterval - (now - mLastNotifyTime);
-            }
+        if (mMetrics != null) {
+            mMetrics.increment(SteeringWheelMetrics.NOTIFY_REQUESTS);
         }
-
-        postDelayed(mNotifyRunnable, delay);
-    }
-
-    private Runnable createNotifyRunnable() {
-        return new Runnable() {
-            @Override
-            public void run() {
-                Log.d(TAG, "run: ");
-                mLastNotifyTime = System.currentTimeMillis();
-                //取当前数据，而非过去数据的snapshot
-                mListener.onStatusChanged(SteeringWheelView.this, (int) mAngle, mPower, mDirection);
-            }
-        };
+        mNotifyControl.request();
     }
 
     /**
@@ -500,11 +737,27 @@ public class SteeringWheelView extends View {
      * @param interval 回调时间间隔
      */
     public SteeringWheelView notifyInterval(long interval) {
-        if (interval < 0) {
-            throw new RuntimeException("notifyInterval interval < 0 is not accept");
-        }
+        mNotifyControl.setInterval(interval);
+        return this;
+    }
+
+    /**
+     * 设置通知模式
+     *
+     * @param mode {@link #NOTIFY_MODE_FIXED_RATE} {@link #NOTIFY_MODE_VSYNC} {@link #NOTIFY_MODE_IMMEDIATE}
+     */
+    public SteeringWheelView notifyMode(int mode) {
+        mNotifyControl.setMode(mode);
+        return this;
+    }
 
-        mNotifyInterval = interval;
+    /**
+     * 设置自定义通知调度器，替换 {@link #notifyMode(int)} 的设置
+     *
+     * @param scheduler 通知调度器
+     */
+    public SteeringWheelView notifyScheduler(NotifyScheduler scheduler) {
+        mNotifyControl.setScheduler(scheduler);
         return this;
     }
 
@@ -515,9 +768,226 @@ public class SteeringWheelView extends View {
      */
     public SteeringWheelView listener(SteeringWheelListener listener) {
         mListener = listener;
+        if (mListenerDispatcher != null) {
+            mListenerDispatcher.setListener(listener);
+        }
+        return this;
+    }
+
+    /**
+     * 设置带输入时间的监听器，可与 {@link #listener(SteeringWheelListener)} 同时使用。
+     * 配合 {@link #metrics(SteeringWheelMetrics)} 可以得到触摸到回调的延迟分布
+     *
+     * @param listener 监听器对象
+     */
+    public SteeringWheelView timedListener(SteeringWheelTimedListener listener) {
+        mTimedListener = listener;
+        if (mListenerDispatcher != null) {
+            mListenerDispatcher.setTimedListener(listener);
+        }
+        return this;
+    }
+
+    /**
+     * 指定回调监听者的线程。主线程只发布状态，监听者处理较慢时只会收到最新状态，不会积压
+     *
+     * @param executor 执行回调的线程，例如 {@link java.util.concurrent.Executors#newSingleThreadExecutor()}，
+     *                 为null时在主线程中回调
+     */
+    public SteeringWheelView listenerExecutor(Executor executor) {
+        if (executor == null) {
+            mListenerDispatcher = null;
+        } else {
+            mListenerDispatcher = new AsyncListenerDispatcher(this, mStateLock, executor);
+            mListenerDispatcher.setListener(mListener);
+            mListenerDispatcher.setTimedListener(mTimedListener);
+            mListenerDispatcher.setMetrics(mMetrics);
+        }
+        return this;
+    }
+
+    /**
+     * @return 跨线程回调的统计数据，没有指定回调线程时为null
+     */
+    public AsyncListenerDispatcher getListenerDispatcher() {
+        return mListenerDispatcher;
+    }
+
+    /**
+     * 刷新球和箭头。开启静态图层缓存时只刷新新旧位置的并集，否则刷新整个控件
+     */
+    private void invalidateBall() {
+        if (!mStaticLayerCache) {
+            invalidate();
+            return;
+        }
+
+        mDirtyRect.set(mMovingBounds);
+        mPainter.movingBounds(mMovingBounds, mEngine.getBallX(), mEngine.getBallY(), mCenterX, mCenterY, mRadius,
+                mEngine.getAngle(), mWasTouched);
+        mDirtyRect.union(mMovingBounds);
+        invalidate(mDirtyRect);
+    }
+
+    /**
+     * 是否缓存静态图层。
+     * <p>
+     * 开启后横线、竖线和大圆在尺寸改变时绘制一次到位图中，每帧只需贴图；
+     * 球移动时只刷新球和箭头新旧位置的并集。软件绘制时可以明显减少每帧的光栅化工作，
+     * 硬件加速下系统会忽略刷新区域，但仍可减少每帧的绘制指令
+     *
+     * @param enabled 是否开启，默认关闭
+     */
+    public SteeringWheelView staticLayerCache(boolean enabled) {
+        if (mStaticLayerCache != enabled) {
+            mStaticLayerCache = enabled;
+            updateStaticLayer();
+            invalidate();
+        }
+        return this;
+    }
+
+    /**
+     * 是否使用整数偏移的预计算表。
+     * <p>
+     * 开启后每次布局时在所有方向盘共用的后台线程中按球的活动范围构建查找表，约 7 * (大圆半径 + 1)² 字节，
+     * 大圆半径超过 {@link PolarLookupTable#MAX_EXTENT} 时只覆盖到该半径，球的活动范围超过时不使用查找表；
+     * 尺寸连续变化时只有最后一次的构建结果会被使用。
+     * 构建完成后整数触摸点只需查表，不再计算三角函数和开方。角度按 {@link PolarLookupTable#ANGLE_STEP} 量化，
+     * 力度和球位置与精确计算一致。构建完成前、滤波后的非整数坐标仍然精确计算
+     *
+     * @param enabled 是否开启，默认关闭
+     */
+    public SteeringWheelView polarLookup(boolean enabled) {
+        if (mPolarLookup != enabled) {
+            mPolarLookup = enabled;
+            updatePolarLookup();
+        }
+        return this;
+    }
+
+    /**
+     * 设置角度和力度的计算精度。浮点运算较慢的设备上可以使用近似精度，
+     * 用多项式代替三角函数，用距离平方比较代替开方
+     *
+     * @param precision {@link JoystickEngine#PRECISION_EXACT}(默认) {@link JoystickEngine#PRECISION_HIGH}
+     *                  {@link JoystickEngine#PRECISION_LOW}，各精度的最大误差见对应常量
+     */
+    public SteeringWheelView precision(int precision) {
+        mEngine.setPrecision(precision);
+        return this;
+    }
+
+    /**
+     * 设置力度和单轴输出的响应曲线，如死区、指数曲线、饱和。
+     * 曲线在创建时编译为查找表，可以在任意线程中随时替换，替换是原子的，从下一次触摸开始生效
+     *
+     * @param curve 响应曲线，为null时线性
+     */
+    public SteeringWheelView responseCurve(ResponseCurve curve) {
+        mEngine.setResponseCurve(curve);
+        return this;
+    }
+
+    /**
+     * 是否处理触摸事件中批量缓存的历史触摸点。
+     * <p>
+     * 开启后每个历史触摸点都以浮点精度参与计算，{@link SteeringWheelSampleListener} 可以收到完整轨迹，
+     * {@link SteeringWheelListener} 仍按通知模式每次收到合并后的最新状态
+     *
+     * @param enabled 是否开启，默认关闭，只处理最新的触摸点并截断为整数像素
+     */
+    public SteeringWheelView historicalSamples(boolean enabled) {
+        mHistoricalSamples = enabled;
+        return this;
+    }
+
+    /**
+     * 设置逐个触摸采样的监听器
+     *
+     * @param listener 监听器对象
+     */
+    public SteeringWheelView sampleListener(SteeringWheelSampleListener listener) {
+        mSampleListener = listener;
+        return this;
+    }
+
+    /**
+     * 设置大方向的量化方式，如八方向、滞回、死区
+     *
+     * @param quantizer 量化方式，为null时恢复默认的四方向
+     */
+    public SteeringWheelView directionQuantizer(DirectionQuantizer quantizer) {
+        mEngine.setDirectionQuantizer(quantizer);
+        publishState(System.nanoTime());
+        return this;
+    }
+
+    /**
+     * 注册按条件过滤的订阅，可以注册多个。订阅在主线程中状态改变时同步判断和回调，
+     * 只有满足条件时才回调，不受通知模式和间隔影响
+     *
+     * @param subscription 订阅，由 {@link SteeringWheelSubscription} 的工厂方法创建
+     */
+    public SteeringWheelView subscribe(SteeringWheelSubscription subscription) {
+        if (subscription == null) {
+            throw new RuntimeException("null subscription is not accept");
+        }
+        SteeringWheelSubscription[] old = mSubscriptions;
+        SteeringWheelSubscription[] subscriptions = new SteeringWheelSubscription[old.length + 1];
+        System.arraycopy(old, 0, subscriptions, 0, old.length);
+        subscriptions[old.length] = subscription;
+        mSubscriptions = subscriptions;
         return this;
     }
 
+    /**
+     * 取消订阅
+     *
+     * @param subscription 已注册的订阅
+     */
+    public SteeringWheelView unsubscribe(SteeringWheelSubscription subscription) {
+        SteeringWheelSubscription[] old = mSubscriptions;
+        for (int i = 0; i < old.length; i++) {
+            if (old[i] == subscription) {
+                SteeringWheelSubscription[] subscriptions = old.length == 1 ? NO_SUBSCRIPTIONS
+                        : new SteeringWheelSubscription[old.length - 1];
+                System.arraycopy(old, 0, subscriptions, 0, i);
+                System.arraycopy(old, i + 1, subscriptions, i, old.length - i - 1);
+                mSubscriptions = subscriptions;
+                break;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 获取按需求投递的发布者，第一次调用时创建，应在主线程中调用。
+     * 订阅者各自声明需求、在自己的线程中消费，需求为0时只保留最新状态，可以串联采样、去重、窗口聚合等算子
+     *
+     * @return 发布者
+     */
+    public SteeringWheelPublisher publisher() {
+        if (mPublisher == null) {
+            mPublisher = new SteeringWheelPublisher(this);
+        }
+        return mPublisher;
+    }
+
+    /**
+     * 构建预计算表的后台线程，所有方向盘共用，第一次开启预计算表时才创建
+     */
+    private static final class LookupBuilder {
+        static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "SteeringWheelLookup");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
     interface SteeringWheelListener {
         /**
          * 方向盘状态改变的回调
@@ -529,4 +999,43 @@ public class SteeringWheelView extends View {
          */
         void onStatusChanged(SteeringWheelView view, int angle, int power, int direction);
     }
+
+    interface SteeringWheelTimedListener {
+        /**
+         * 方向盘状态改变的回调，附带产生该状态的输入事件时间
+         *
+         * @param view           方向盘实例对象
+         * @param angle          当前角度。范围0-360，其中右0，上90，左180，下270
+         * @param power          方向上的力度。范围0-100
+         * @param direction      大致方向。取值为 {@link #RIGHT} {@link #UP} {@link #LEFT} {@link #DOWN}
+         * @param eventTimeNanos 产生该状态的触摸事件或回弹动画帧的时间，与 {@link System#nanoTime()} 同一时钟，
+         *                       触摸事件时间精度为毫秒
+         * @param latencyNanos   从该事件到开始回调经过的时间，单位纳秒
+         */
+        void onStatusChanged(SteeringWheelView view, int angle, int power, int direction,
+                             long eventTimeNanos, long latencyNanos);
+    }
+
+    interface SteeringWheelPressListener {
+        /**
+         * 按下或松开的回调，在主线程中同步执行
+         *
+         * @param view    方向盘实例对象
+         * @param pressed true 按下，false 松开
+         */
+        void onPressedChanged(SteeringWheelView view, boolean pressed);
+    }
+
+    interface SteeringWheelSampleListener {
+        /**
+         * 每处理一个触摸点回调一次，在主线程的触摸事件处理中同步执行，不经过通知调度
+         *
+         * @param view      方向盘实例对象
+         * @param eventTime 触摸点的时间，与 {@link android.os.SystemClock#uptimeMillis()} 同一时钟
+         * @param angle     当前角度。范围0-360，其中右0，上90，左180，下270
+         * @param power     方向上的力度。范围0-100
+         * @param direction 大致方向。取值为 {@link #RIGHT} {@link #UP} {@link #LEFT} {@link #DOWN}
+         */
+        void onSample(SteeringWheelView view, long eventTime, double angle, int power, int direction);
+    }
 }
@@ -0,0 +1,166 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 事件追踪记录器，取代热路径上的 Log.d。
+ * <p>
+ * 每条记录只保存时间、事件类型和三个基本类型参数，写入预分配的定长环形数组，
+ * 满了覆盖最旧的记录，记录过程中不分配对象、不拼接字符串、不做任何IO，
+ * 需要时再调用 {@link #dump()} 格式化输出。
+ * <p>
+ * 是否追踪由编译期常量 BuildConfig.TRACE_ENABLED 决定，关闭时调用处的代码会被编译器整体去掉。
+ * 非线程安全，记录和导出应在同一线程（通常是UI线程）中进行。
+ */
+public class TraceRecorder {
+    /**
+     * onMeasure，参数为测量后的宽高
+     */
+    public static final int EVENT_MEASURE = 0;
+    /**
+     * onSizeChanged，参数为新的宽高
+     */
+    public static final int EVENT_SIZE_CHANGED = 1;
+    /**
+     * onTouchEvent，参数为action和触摸点坐标
+     */
+    public static final int EVENT_TOUCH = 2;
+    /**
+     * 回调监听者，参数为力度、角度和方向
+     */
+    public static final int EVENT_DELIVER = 3;
+
+    private static final String[] EVENT_NAMES = {"measure", "sizeChanged", "touch", "deliver"};
+
+    private final long[] mTimes;
+    private final int[] mTypes;
+    private final int[] mArgs;
+    private final float[] mValuesA;
+    private final float[] mValuesB;
+    private final int mMask;
+    /**
+     * 累计写入的记录数
+     */
+    private long mCount;
+
+    /**
+     * @param capacity 最多保留的记录数，向上取整为2的幂
+     */
+    public TraceRecorder(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 20)) {
+            throw new RuntimeException("capacity " + capacity + " is not accept");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mTimes = new long[size];
+        mTypes = new int[size];
+        mArgs = new int[size];
+        mValuesA = new float[size];
+        mValuesB = new float[size];
+        mMask = size - 1;
+    }
+
+    /**
+     * 记录一个事件，时间取 System.nanoTime()
+     */
+    public void record(int type, int arg, float a, float b) {
+        record(System.nanoTime(), type, arg, a, b);
+    }
+
+    /**
+     * 记录一个事件
+     *
+     * @param timeNanos 事件时间
+     * @param type      事件类型，EVENT_*
+     * @param arg       整型参数
+     * @param a         浮点参数
+     * @param b         浮点参数
+     */
+    public void record(long timeNanos, int type, int arg, float a, float b) {
+        int i = (int) (mCount & mMask);
+        mTimes[i] = timeNanos;
+        mTypes[i] = type;
+        mArgs[i] = arg;
+        mValuesA[i] = a;
+        mValuesB[i] = b;
+        mCount++;
+    }
+
+    /**
+     * 当前保留的记录数
+     */
+    public int size() {
+        return (int) Math.min(mCount, mTimes.length);
+    }
+
+    public int capacity() {
+        return mTimes.length;
+    }
+
+    /**
+     * 累计写入的记录数，包括已被覆盖的
+     */
+    public long getRecordedCount() {
+        return mCount;
+    }
+
+    /**
+     * 第index条保留的记录，0为最旧
+     */
+    private int slot(int index) {
+        if (index < 0 || index >= size()) {
+            throw new RuntimeException("index " + index + " is not accept");
+        }
+        return (int) ((mCount - size() + index) & mMask);
+    }
+
+    public long getTimeNanos(int index) {
+        return mTimes[slot(index)];
+    }
+
+    public int getType(int index) {
+        return mTypes[slot(index)];
+    }
+
+    public int getArg(int index) {
+        return mArgs[slot(index)];
+    }
+
+    public float getValueA(int index) {
+        return mValuesA[slot(index)];
+    }
+
+    public float getValueB(int index) {
+        return mValuesB[slot(index)];
+    }
+
+    /**
+     * 清空记录
+     */
+    public void clear() {
+        mCount = 0;
+    }
+
+    /**
+     * 按时间顺序格式化所有保留的记录，每条一行，时间为相对第一条记录的微秒数
+     */
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        int size = size();
+        long dropped = mCount - size;
+        if (dropped > 0) {
+            sb.append("... ").append(dropped).append(" earlier events dropped\n");
+        }
+        long base = size > 0 ? getTimeNanos(0) : 0;
+        for (int i = 0; i < size; i++) {
+            int type = getType(i);
+            sb.append('+').append((getTimeNanos(i) - base) / 1000).append("us ")
+                    .append(type >= 0 && type < EVENT_NAMES.length ? EVENT_NAMES[type] : String.valueOf(type))
+                    .append(' ').append(getArg(i))
+                    .append(' ').append(getValueA(i))
+                    .append(' ').append(getValueB(i))
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,159 @@
+package com.liguang.steeringwheel;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以固定频率通过UDP发送方向盘状态，用于远程控制云台、机器人等。
+ * <p>
+ * 使用非阻塞的DatagramChannel，每次发送复用同一个直接缓冲区和状态对象，不分配内存。
+ * 发送在独立线程中进行，不占用主线程。发送缓冲区满时本帧被跳过，下一帧会带上最新状态；
+ * 发送失败只计数并记录最后一次异常，不会中断之后的发送。{@link #stop()} 关闭通道后可以再次 {@link #start(long)}。
+ * 应用需要声明 android.permission.INTERNET 权限。
+ */
+public class UdpControlSender {
+    private final SteeringWheelStateSource mSource;
+    private final SocketAddress mTarget;
+    /**
+     * 当前通道，停止后关闭，再次开始时重新打开
+     */
+    private volatile DatagramChannel mChannel;
+    private final ByteBuffer mBuffer = ByteBuffer.allocateDirect(ControlFrameCodec.FRAME_SIZE);
+    private final SteeringWheelState mState = new SteeringWheelState();
+    private final Runnable mSendRunnable = new Runnable() {
+        @Override
+        public void run() {
+            //任务抛出异常后定时执行会被静默取消，所有异常都在这里计数
+            try {
+                sendOnce();
+            } catch (Exception e) {
+                onError(e);
+            }
+        }
+    };
+    private ScheduledExecutorService mExecutor;
+    private volatile long mSentCount;
+    private volatile long mSkippedCount;
+    private volatile long mErrorCount;
+    private volatile Exception mLastError;
+
+    /**
+     * @param source 状态来源，通常为 {@link SteeringWheelView}
+     * @param target 接收端地址
+     * @throws IOException 打开或连接通道失败
+     */
+    public UdpControlSender(SteeringWheelStateSource source, SocketAddress target) throws IOException {
+        mSource = source;
+        mTarget = target;
+        mChannel = open(target);
+    }
+
+    private static DatagramChannel open(SocketAddress target) throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.connect(target);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    private void onError(Exception e) {
+        mLastError = e;
+        mErrorCount = mErrorCount + 1;
+    }
+
+    /**
+     * 开始按固定频率发送，已停止时重新打开通道
+     *
+     * @param intervalMillis 发送间隔，单位毫秒
+     * @throws IOException 重新打开或连接通道失败
+     */
+    public synchronized void start(long intervalMillis) throws IOException {
+        if (intervalMillis <= 0) {
+            throw new RuntimeException("start intervalMillis <= 0 is not accept");
+        }
+        if (mExecutor != null) {
+            throw new RuntimeException("UdpControlSender is already started");
+        }
+        if (!mChannel.isOpen()) {
+            mChannel = open(mTarget);
+        }
+
+        mExecutor = Executors.newSingleThreadScheduledExecutor();
+        mExecutor.scheduleAtFixedRate(mSendRunnable, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止发送并关闭通道
+     */
+    public synchronized void stop() {
+        if (mExecutor != null) {
+            mExecutor.shutdownNow();
+            //发送是非阻塞的，很快退出；之后错误计数只由当前线程写入
+            try {
+                mExecutor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mExecutor = null;
+        }
+        try {
+            mChannel.close();
+        } catch (IOException e) {
+            onError(e);
+        }
+    }
+
+    /**
+     * 读取当前状态并发送一帧。由发送线程调用，也可以由调用方在自己的控制循环中直接调用，
+     * 但不能与 {@link #start(long)} 同时使用
+     *
+     * @return 是否发送成功
+     * @throws IOException 发送失败，停止后通道已关闭时为 {@link java.nio.channels.ClosedChannelException}
+     */
+    public boolean sendOnce() throws IOException {
+        mSource.readState(mState);
+        mBuffer.clear();
+        ControlFrameCodec.encode(mState, mBuffer);
+        mBuffer.flip();
+        if (mChannel.write(mBuffer) > 0) {
+            mSentCount = mSentCount + 1;
+            return true;
+        }
+        mSkippedCount = mSkippedCount + 1;
+        return false;
+    }
+
+    public long getSentCount() {
+        return mSentCount;
+    }
+
+    /**
+     * @return 因发送缓冲区满而跳过的帧数
+     */
+    public long getSkippedCount() {
+        return mSkippedCount;
+    }
+
+    /**
+     * @return 发送或关闭通道失败的次数，包括状态来源抛出的异常
+     */
+    public long getErrorCount() {
+        return mErrorCount;
+    }
+
+    /**
+     * @return 最后一次失败的异常，没有失败时为null
+     */
+    public Exception getLastError() {
+        return mLastError;
+    }
+}
@@ -0,0 +1,35 @@
+package com.liguang.steeringwheel;
+
+import android.view.Choreographer;
+
+/**
+ * 与屏幕刷新同步的通知，在Choreographer的下一帧回调监听者，每帧最多通知一次。
+ * 设置了通知间隔时，顺延到满足间隔的第一帧
+ */
+public class VsyncNotifyScheduler extends NotifyScheduler {
+    /**
+     * 帧时间存在少量抖动，间隔差距在此范围内仍视为满足，避免刚好错过一帧
+     */
+    private static final long FRAME_SLACK_NANOS = 2000000L;
+    private final Choreographer mChoreographer = Choreographer.getInstance();
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (remainingNanos(frameTimeNanos) > FRAME_SLACK_NANOS) {
+                mChoreographer.postFrameCallback(this);
+            } else {
+                dispatch(frameTimeNanos);
+            }
+        }
+    };
+
+    @Override
+    protected void onRequest() {
+        mChoreographer.postFrameCallback(mFrameCallback);
+    }
+
+    @Override
+    protected void onCancel() {
+        mChoreographer.removeFrameCallback(mFrameCallback);
+    }
+}
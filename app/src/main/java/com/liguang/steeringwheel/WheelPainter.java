@@ -0,0 +1,130 @@
+package com.liguang.steeringwheel;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+/**
+ * 方向盘控件共用的测量和绘制：横线、竖线、大圆、球和指向当前角度的箭头。
+ * <p>
+ * 持有XML中配置的画笔颜色和图片。绘制时会修改图片的bounds，同一个对象只能在一个线程中绘制。
+ */
+final class WheelPainter {
+    private final Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Drawable mArrowRightDrawable;
+    private final Drawable mBallDrawable;
+    private final Drawable mBallPressedDrawable;
+
+    /**
+     * @param color       横线、竖线和大圆的颜色
+     * @param arrowRight  向右箭头
+     * @param ball        球
+     * @param ballPressed 被按下后，球的图片
+     */
+    WheelPainter(int color, Drawable arrowRight, Drawable ball, Drawable ballPressed) {
+        mArrowRightDrawable = arrowRight;
+        mBallDrawable = ball;
+        mBallPressedDrawable = ballPressed;
+        mPaint.setColor(color);
+        mPaint.setStyle(Paint.Style.STROKE);
+    }
+
+    /**
+     * 处理wrap_content：测量模式为AT_MOST时使用默认尺寸，否则保留已测量的尺寸
+     *
+     * @param measureSpec  上层ViewGroup传下来的数据，高两位是模式，低30位是大小
+     * @param defaultSize  默认尺寸
+     * @param measuredSize View#onMeasure 已测量的尺寸
+     * @return 尺寸
+     */
+    static int measure(int measureSpec, int defaultSize, int measuredSize) {
+        return View.MeasureSpec.getMode(measureSpec) == View.MeasureSpec.AT_MOST ? defaultSize : measuredSize;
+    }
+
+    /**
+     * 大圆半径，给箭头留出一半宽度
+     *
+     * @param width  可用宽度
+     * @param height 可用高度
+     */
+    float radius(int width, int height) {
+        return (Math.min(width, height) >> 1) - mArrowRightDrawable.getIntrinsicWidth() / 2;
+    }
+
+    /**
+     * @return 球的半径
+     */
+    int getBallRadius() {
+        return mBallDrawable.getIntrinsicWidth() >> 1;
+    }
+
+    /**
+     * 画静态部分：横线、竖线、大圆
+     */
+    void drawStatic(Canvas canvas, float centerX, float centerY, float radius) {
+        //画横线
+        canvas.drawLine(centerX - radius, centerY, centerX + radius, centerY, mPaint);
+        //画竖线
+        canvas.drawLine(centerX, centerY - radius, centerX, centerY + radius, mPaint);
+        //画大圆
+        canvas.drawCircle(centerX, centerY, radius, mPaint);
+    }
+
+    /**
+     * 画球，球的中心在(ballX, ballY)
+     *
+     * @param pressed 是否按下，按下时使用按下后的图片
+     */
+    void drawBall(Canvas canvas, float ballX, float ballY, boolean pressed) {
+        Drawable drawable = pressed ? mBallPressedDrawable : mBallDrawable;
+        drawable.setBounds((int) (ballX - drawable.getIntrinsicWidth() / 2),
+                (int) (ballY - drawable.getIntrinsicHeight() / 2),
+                (int) (ballX + drawable.getIntrinsicWidth() / 2),
+                (int) (ballY + drawable.getIntrinsicHeight() / 2));
+        drawable.draw(canvas);
+    }
+
+    /**
+     * 画箭头，向右箭头放在大圆最右侧，绕中心旋转到当前角度
+     *
+     * @param angle 当前角度，范围0-360，其中右0，上90，左180，下270
+     */
+    void drawArrow(Canvas canvas, float centerX, float centerY, float radius, double angle) {
+        Drawable arrow = mArrowRightDrawable;
+        arrow.setBounds((int) (centerX + radius - arrow.getIntrinsicWidth() / 2),
+                (int) (centerY - arrow.getIntrinsicHeight() / 2),
+                (int) (centerX + radius + arrow.getIntrinsicWidth() / 2),
+                (int) (centerY + arrow.getIntrinsicHeight() / 2));
+        canvas.save(Canvas.MATRIX_SAVE_FLAG);
+        //旋转角度
+        canvas.rotate((float) -angle, centerX, centerY);
+        arrow.draw(canvas);
+        canvas.restore();
+    }
+
+    /**
+     * 计算球和箭头所占的区域，用于只刷新移动部分
+     *
+     * @param out     输出区域
+     * @param pressed 是否按下，没有按下时不画箭头
+     */
+    void movingBounds(Rect out, float ballX, float ballY, float centerX, float centerY, float radius,
+                      double angle, boolean pressed) {
+        int halfBall = Math.max(Math.max(mBallDrawable.getIntrinsicWidth(), mBallDrawable.getIntrinsicHeight()),
+                Math.max(mBallPressedDrawable.getIntrinsicWidth(), mBallPressedDrawable.getIntrinsicHeight())) / 2 + 1;
+        out.set((int) ballX - halfBall, (int) ballY - halfBall, (int) ballX + halfBall, (int) ballY + halfBall);
+        if (pressed) {
+            //箭头绕中心旋转，取其外接圆的包围盒
+            double radians = Math.toRadians(angle);
+            float arrowX = (float) (centerX + Math.cos(radians) * radius);
+            float arrowY = (float) (centerY - Math.sin(radians) * radius);
+            int w = mArrowRightDrawable.getIntrinsicWidth();
+            int h = mArrowRightDrawable.getIntrinsicHeight();
+            int halfArrow = (int) Math.ceil(Math.sqrt(w * w + h * h) / 2) + 1;
+            out.union((int) arrowX - halfArrow, (int) arrowY - halfArrow,
+                    (int) arrowX + halfArrow, (int) arrowY + halfArrow);
+        }
+    }
+}
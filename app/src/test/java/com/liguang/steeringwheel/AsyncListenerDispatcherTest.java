@@ -0,0 +1,55 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link AsyncListenerDispatcher} 单元测试，view为null，只验证多线程执行器下的回调顺序和统计
+ */
+public class AsyncListenerDispatcherTest {
+
+    @Test
+    public void multiThreadExecutor_neverDispatchesConcurrently() throws Exception {
+        final StateSeqLock lock = new StateSeqLock();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AsyncListenerDispatcher dispatcher = new AsyncListenerDispatcher(null, lock, executor);
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger overlapped = new AtomicInteger();
+        final int[] lastPower = new int[1];
+        dispatcher.setListener(new SteeringWheelView.SteeringWheelListener() {
+            @Override
+            public void onStatusChanged(SteeringWheelView view, int angle, int power, int direction) {
+                if (active.incrementAndGet() > 1) {
+                    overlapped.incrementAndGet();
+                }
+                lastPower[0] = power;
+                //拉长回调，让发布线程有机会在回调期间安排回调
+                long end = System.nanoTime() + 20000;
+                while (System.nanoTime() < end) {
+                    Thread.yield();
+                }
+                active.decrementAndGet();
+            }
+        });
+
+        int published = 20000;
+        for (int i = 1; i <= published; i++) {
+            lock.write(i % 360, i % 101, JoystickEngine.RIGHT, 0, 0, 0, 0, System.nanoTime());
+            dispatcher.publish();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(0, overlapped.get());
+        assertEquals(published, dispatcher.getPublishedCount());
+        assertEquals(published, dispatcher.getDeliveredCount() + dispatcher.getConflatedCount());
+        //最后一次发布之后总有一次回调，取到的是最新状态
+        assertEquals(published % 101, lastPower[0]);
+    }
+}
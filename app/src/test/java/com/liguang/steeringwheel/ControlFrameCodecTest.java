@@ -0,0 +1,151 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link ControlFrameCodec} 和 {@link UdpControlSender} 单元测试
+ */
+public class ControlFrameCodecTest {
+    @Test
+    public void roundTrip() throws Exception {
+        SteeringWheelState state = new SteeringWheelState();
+        SteeringWheelState decoded = new SteeringWheelState();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(ControlFrameCodec.FRAME_SIZE);
+        for (int i = 0; i < 3600; i++) {
+            double angle = i / 10.0;
+            state.set(angle, i % 101, i % 2 == 0 ? JoystickEngine.INVALID : JoystickEngine.DOWN,
+                    0, 0, 0, 0, 5000000000L + i * 1000000L, 0xFFFFFFF0L + i);
+            buffer.clear();
+            ControlFrameCodec.encode(state, buffer);
+            assertEquals(ControlFrameCodec.FRAME_SIZE, buffer.position());
+            buffer.flip();
+            assertTrue(ControlFrameCodec.decode(buffer, decoded));
+            assertEquals(0, buffer.remaining());
+
+            double error = Math.abs(decoded.getAngle() - angle);
+            assertTrue(Math.min(error, 360 - error) <= ControlFrameCodec.ANGLE_STEP / 2 + 1e-9);
+            assertEquals(state.getPower(), decoded.getPower());
+            assertEquals(state.getDirection(), decoded.getDirection());
+            assertEquals((state.getEventTimeNanos() / 1000000L & 0xFFFFFFFFL) * 1000000L,
+                    decoded.getEventTimeNanos());
+            assertEquals(state.getSequence() & 0xFFFFFFFFL, decoded.getSequence());
+        }
+    }
+
+    @Test
+    public void roundTrip_directionBeyondByte() throws Exception {
+        SteeringWheelState state = new SteeringWheelState();
+        SteeringWheelState decoded = new SteeringWheelState();
+        ByteBuffer buffer = ByteBuffer.allocate(ControlFrameCodec.FRAME_SIZE);
+        //360扇区的量化器方向可达359，超出一个字节
+        int[] directions = {JoystickEngine.INVALID, 127, 128, 200, 255, 359};
+        for (int direction : directions) {
+            state.set(10, 50, direction, 0, 0, 0, 0, 1000000L, 1);
+            buffer.clear();
+            ControlFrameCodec.encode(state, buffer);
+            buffer.flip();
+            assertTrue(ControlFrameCodec.decode(buffer, decoded));
+            assertEquals(direction, decoded.getDirection());
+        }
+    }
+
+    @Test
+    public void decode_rejectsShortOrForeignFrames() throws Exception {
+        SteeringWheelState state = new SteeringWheelState();
+        assertFalse(ControlFrameCodec.decode(ByteBuffer.allocate(ControlFrameCodec.FRAME_SIZE - 1), state));
+        ByteBuffer foreign = ByteBuffer.allocate(ControlFrameCodec.FRAME_SIZE);
+        foreign.put(0, (byte) 0x7F);
+        assertFalse(ControlFrameCodec.decode(foreign, state));
+        assertEquals(0, foreign.position());
+    }
+
+    @Test
+    public void sender_deliversToLoopback() throws Exception {
+        final StateSeqLock lock = new StateSeqLock();
+        SteeringWheelStateSource source = new SteeringWheelStateSource() {
+            @Override
+            public SteeringWheelState readState(SteeringWheelState out) {
+                return lock.read(out);
+            }
+        };
+        LoopbackReceiver receiver = new LoopbackReceiver();
+        UdpControlSender sender = new UdpControlSender(source, receiver.getAddress());
+        try {
+            SteeringWheelState received = new SteeringWheelState();
+            for (int i = 1; i <= 20; i++) {
+                lock.write(i * 10, i * 5, JoystickEngine.UP, 0, 0, 0, 0, i * 1000000L);
+                assertTrue(sender.sendOnce());
+                assertEquals(ControlFrameCodec.FRAME_SIZE, receiver.receive(received));
+                assertEquals(i, received.getSequence());
+                assertEquals(i * 5, received.getPower());
+                assertEquals(i * 10, received.getAngle(), ControlFrameCodec.ANGLE_STEP);
+                assertEquals(i * 1000000L, received.getEventTimeNanos());
+            }
+            assertEquals(20, sender.getSentCount());
+        } finally {
+            sender.stop();
+            receiver.close();
+        }
+    }
+
+    @Test
+    public void sender_restartsAfterStop() throws Exception {
+        final StateSeqLock lock = new StateSeqLock();
+        SteeringWheelStateSource source = new SteeringWheelStateSource() {
+            @Override
+            public SteeringWheelState readState(SteeringWheelState out) {
+                return lock.read(out);
+            }
+        };
+        lock.write(90, 40, JoystickEngine.UP, 0, 0, 0, 0, 1000000L);
+        LoopbackReceiver receiver = new LoopbackReceiver();
+        UdpControlSender sender = new UdpControlSender(source, receiver.getAddress());
+        try {
+            SteeringWheelState received = new SteeringWheelState();
+            sender.start(5);
+            assertEquals(ControlFrameCodec.FRAME_SIZE, receiver.receive(received));
+            sender.stop();
+            sender.start(5);
+            assertEquals(ControlFrameCodec.FRAME_SIZE, receiver.receive(received));
+            assertEquals(40, received.getPower());
+            assertEquals(0, sender.getErrorCount());
+        } finally {
+            sender.stop();
+            receiver.close();
+        }
+    }
+
+    @Test
+    public void sender_keepsRunningAfterSourceThrows() throws Exception {
+        final StateSeqLock lock = new StateSeqLock();
+        final int[] reads = new int[1];
+        SteeringWheelStateSource source = new SteeringWheelStateSource() {
+            @Override
+            public SteeringWheelState readState(SteeringWheelState out) {
+                //前几次读取失败，未捕获时定时任务会被取消
+                if (++reads[0] <= 3) {
+                    throw new IllegalStateException("not ready");
+                }
+                return lock.read(out);
+            }
+        };
+        lock.write(0, 70, JoystickEngine.RIGHT, 0, 0, 0, 0, 1000000L);
+        LoopbackReceiver receiver = new LoopbackReceiver();
+        UdpControlSender sender = new UdpControlSender(source, receiver.getAddress());
+        try {
+            SteeringWheelState received = new SteeringWheelState();
+            sender.start(5);
+            assertEquals(ControlFrameCodec.FRAME_SIZE, receiver.receive(received));
+            assertEquals(70, received.getPower());
+            assertEquals(3, sender.getErrorCount());
+            assertTrue(sender.getLastError() instanceof IllegalStateException);
+        } finally {
+            sender.stop();
+            receiver.close();
+        }
+    }
+}
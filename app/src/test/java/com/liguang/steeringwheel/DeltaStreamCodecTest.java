@@ -0,0 +1,227 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link DeltaStreamEncoder} 和 {@link DeltaStreamDecoder} 单元测试
+ */
+public class DeltaStreamCodecTest {
+    private static final int SAMPLES = 20000;
+
+    /**
+     * 模拟的触摸轨迹：按住拖动、停在原处、松手回中交替出现，间隔约8ms
+     */
+    private static class Trace {
+        final long[] time = new long[SAMPLES];
+        final float[] x = new float[SAMPLES];
+        final float[] y = new float[SAMPLES];
+        final double[] angle = new double[SAMPLES];
+        final int[] power = new int[SAMPLES];
+        final int[] direction = new int[SAMPLES];
+
+        Trace(long seed) {
+            Random random = new Random(seed);
+            JoystickEngine engine = new JoystickEngine();
+            engine.setGeometry(0, 0, 200);
+            long now = 1000000000000L;
+            float targetX = 0;
+            float targetY = 0;
+            float fingerX = 0;
+            float fingerY = 0;
+            for (int i = 0; i < SAMPLES; i++) {
+                if (i % 250 == 0) {
+                    int gesture = random.nextInt(3);
+                    if (gesture == 0) {
+                        targetX = 0;
+                        targetY = 0;
+                    } else if (gesture == 1) {
+                        targetX = fingerX;
+                        targetY = fingerY;
+                    } else {
+                        targetX = random.nextInt(500) - 250;
+                        targetY = random.nextInt(500) - 250;
+                    }
+                }
+                fingerX += (targetX - fingerX) * 0.05f + (random.nextFloat() - 0.5f) * 0.2f;
+                fingerY += (targetY - fingerY) * 0.05f + (random.nextFloat() - 0.5f) * 0.2f;
+                engine.update(fingerX, fingerY);
+                now += 8000000L + random.nextInt(100000);
+                time[i] = now;
+                x[i] = engine.getBallX();
+                y[i] = engine.getBallY();
+                angle[i] = engine.getAngle();
+                power[i] = engine.getPower();
+                direction[i] = engine.getDirection();
+            }
+        }
+    }
+
+    /**
+     * 记录解码结果，并与编码时输出的采样逐一比较
+     */
+    private static class Collector implements SampleRingBuffer.SampleHandler {
+        final long[] time = new long[SAMPLES];
+        final float[] x = new float[SAMPLES];
+        final float[] angle = new float[SAMPLES];
+        final int[] power = new int[SAMPLES];
+        final int[] direction = new int[SAMPLES];
+        int count;
+
+        @Override
+        public void onSample(long timeNanos, float x, float y, float angle, int power, int direction) {
+            this.time[count] = timeNanos;
+            this.x[count] = x;
+            this.angle[count] = angle;
+            this.power[count] = power;
+            this.direction[count] = direction;
+            count++;
+        }
+    }
+
+    @Test
+    public void roundTrip_matchesQuantizedInput() throws Exception {
+        Trace trace = new Trace(1);
+        DeltaStreamEncoder encoder = new DeltaStreamEncoder(64, 0, 0, 0);
+        ByteBuffer stream = ByteBuffer.allocate(SAMPLES * DeltaStreamEncoder.MAX_FRAME_SIZE);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertTrue(encoder.encode(trace.time[i], trace.x[i], trace.y[i], trace.angle[i],
+                    trace.power[i], trace.direction[i], stream));
+        }
+        stream.flip();
+
+        Collector collector = new Collector();
+        DeltaStreamDecoder decoder = new DeltaStreamDecoder();
+        assertEquals(SAMPLES, decoder.decode(stream, collector));
+        for (int i = 0; i < SAMPLES; i++) {
+            assertEquals(trace.time[i] / 1000000L * 1000000L, collector.time[i]);
+            assertEquals(trace.x[i], collector.x[i], 0.5 / DeltaStreamEncoder.POSITION_SCALE);
+            double error = Math.abs(trace.angle[i] - collector.angle[i]);
+            assertEquals(0, Math.min(error, 360 - error), 0.5 / DeltaStreamEncoder.ANGLE_SCALE + 1e-4);
+            assertEquals(trace.power[i], collector.power[i]);
+            assertEquals(trace.direction[i], collector.direction[i]);
+        }
+        //即使不设死区，增量帧也应小于定长帧
+        assertTrue(stream.limit() < SAMPLES * ControlFrameCodec.FRAME_SIZE);
+    }
+
+    @Test
+    public void deadBand_suppressesStillSamples() throws Exception {
+        Trace trace = new Trace(2);
+        DeltaStreamEncoder encoder = new DeltaStreamEncoder(64, 1, 2, 2);
+        ByteBuffer stream = ByteBuffer.allocate(SAMPLES * DeltaStreamEncoder.MAX_FRAME_SIZE);
+        for (int i = 0; i < SAMPLES; i++) {
+            encoder.encode(trace.time[i], trace.x[i], trace.y[i], trace.angle[i],
+                    trace.power[i], trace.direction[i], stream);
+        }
+        assertEquals(SAMPLES, encoder.getWrittenCount() + encoder.getSuppressedCount());
+        assertTrue(encoder.getSuppressedCount() > SAMPLES / 3);
+
+        stream.flip();
+        Collector collector = new Collector();
+        new DeltaStreamDecoder().decode(stream, collector);
+        assertEquals(encoder.getWrittenCount(), collector.count);
+    }
+
+    /**
+     * 输入按随机长度分块到达，结果与一次性解码相同
+     */
+    @Test
+    public void decode_isIncremental() throws Exception {
+        Trace trace = new Trace(3);
+        DeltaStreamEncoder encoder = new DeltaStreamEncoder(32, 0, 0, 0);
+        ByteBuffer stream = ByteBuffer.allocate(SAMPLES * DeltaStreamEncoder.MAX_FRAME_SIZE);
+        for (int i = 0; i < SAMPLES; i++) {
+            encoder.encode(trace.time[i], trace.x[i], trace.y[i], trace.angle[i],
+                    trace.power[i], trace.direction[i], stream);
+        }
+        stream.flip();
+        byte[] bytes = new byte[stream.remaining()];
+        stream.get(bytes);
+
+        Collector collector = new Collector();
+        DeltaStreamDecoder decoder = new DeltaStreamDecoder();
+        ByteBuffer window = ByteBuffer.allocate(256);
+        Random random = new Random(3);
+        int offset = 0;
+        while (offset < bytes.length) {
+            int chunk = Math.min(Math.min(1 + random.nextInt(20), window.remaining()), bytes.length - offset);
+            window.put(bytes, offset, chunk);
+            offset += chunk;
+            window.flip();
+            decoder.decode(window, collector);
+            window.compact();
+        }
+        assertEquals(SAMPLES, collector.count);
+        assertEquals(trace.power[SAMPLES - 1], collector.power[SAMPLES - 1]);
+    }
+
+    /**
+     * 从流的中间开始接收，在第一个关键帧处同步
+     */
+    @Test
+    public void decode_resyncsOnKeyframe() throws Exception {
+        Trace trace = new Trace(4);
+        int interval = 16;
+        DeltaStreamEncoder encoder = new DeltaStreamEncoder(interval, 0, 0, 0);
+        ByteBuffer stream = ByteBuffer.allocate(SAMPLES * DeltaStreamEncoder.MAX_FRAME_SIZE);
+        int joinAt = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            if (i == 5) {
+                joinAt = stream.position();
+            }
+            encoder.encode(trace.time[i], trace.x[i], trace.y[i], trace.angle[i],
+                    trace.power[i], trace.direction[i], stream);
+        }
+        stream.flip();
+        stream.position(joinAt);
+
+        Collector collector = new Collector();
+        DeltaStreamDecoder decoder = new DeltaStreamDecoder();
+        decoder.decode(stream, collector);
+        assertEquals(interval - 5, decoder.getSkippedCount());
+        assertEquals(SAMPLES - interval, collector.count);
+        assertEquals(trace.power[interval], collector.power[0]);
+    }
+
+    /**
+     * 摇杆停在原处时所有采样都落在死区内，超过最长静默时间后输出关键帧作为心跳
+     */
+    @Test
+    public void stillStick_sendsHeartbeatKeyframe() throws Exception {
+        DeltaStreamEncoder encoder = new DeltaStreamEncoder(64, 500, 1, 2, 2);
+        ByteBuffer stream = ByteBuffer.allocate(SAMPLES * DeltaStreamEncoder.MAX_FRAME_SIZE);
+        long start = 1000000000000L;
+        int lastFrameAt = 0;
+        //10ms一个采样，共3秒
+        for (int i = 0; i < 300; i++) {
+            int position = stream.position();
+            if (encoder.encode(start + i * 10000000L, 50, -50, 45, 35, JoystickEngine.RIGHT, stream)) {
+                lastFrameAt = position;
+            }
+        }
+        //第一帧，以及500、1000、1500、2000、2500ms处的心跳
+        assertEquals(6, encoder.getKeyframeCount());
+        assertEquals(6, encoder.getWrittenCount());
+        assertEquals(294, encoder.getSuppressedCount());
+
+        //只收到心跳的接收端也能同步到当前状态
+        stream.flip();
+        stream.position(lastFrameAt);
+        Collector collector = new Collector();
+        assertEquals(1, new DeltaStreamDecoder().decode(stream, collector));
+        assertEquals(35, collector.power[0]);
+        assertEquals((start + 2500000000L) / 1000000L * 1000000L, collector.time[0]);
+    }
+
+    @Test
+    public void wrapAngle_crossesZero() throws Exception {
+        assertEquals(-100, DeltaStreamEncoder.wrapAngle(-100));
+        assertEquals(200, DeltaStreamEncoder.wrapAngle(100 - 35900));
+        assertEquals(-200, DeltaStreamEncoder.wrapAngle(35900 - 100));
+    }
+}
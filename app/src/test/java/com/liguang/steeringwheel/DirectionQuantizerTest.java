@@ -0,0 +1,124 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link DirectionQuantizer} 单元测试
+ */
+public class DirectionQuantizerTest {
+
+    /**
+     * 原来 updateDirection 中的判断
+     */
+    private static int legacyDirection(double angle) {
+        if (angle <= 45 || angle > 315)
+            return JoystickEngine.RIGHT;
+        else if (angle <= 135)
+            return JoystickEngine.UP;
+        else if (angle <= 225)
+            return JoystickEngine.LEFT;
+        else
+            return JoystickEngine.DOWN;
+    }
+
+    @Test
+    public void fourWay_matchesLegacyBranches() throws Exception {
+        DirectionQuantizer quantizer = new DirectionQuantizer();
+        for (int i = 0; i < 3600000; i++) {
+            double angle = i / 10000.0;
+            assertEquals(legacyDirection(angle), quantizer.toDirection(quantizer.quantize(angle, 50, -1)));
+        }
+        double[] boundaries = {45, 135, 225, 315};
+        for (double b : boundaries) {
+            for (double angle : new double[]{b, Math.nextUp(b), Math.nextAfter(b, 0)}) {
+                assertEquals(legacyDirection(angle), quantizer.toDirection(quantizer.sector(angle)));
+            }
+        }
+    }
+
+    @Test
+    public void nWay_matchesDirectComputation() throws Exception {
+        for (int sectors = 2; sectors <= 360; sectors++) {
+            DirectionQuantizer quantizer = new DirectionQuantizer(sectors, 0, 0);
+            double width = 360.0 / sectors;
+            for (int i = 0; i < 36000; i++) {
+                double angle = i / 100.0 + 0.003;
+                int expected = (int) Math.ceil(angle / width - 0.5) % sectors;
+                assertEquals(expected, quantizer.sector(angle));
+            }
+        }
+    }
+
+    @Test
+    public void hysteresis_holdsSectorNearBoundary() throws Exception {
+        DirectionQuantizer quantizer = new DirectionQuantizer(8, 5, 0);
+        //八方向，扇区1为(22.5, 67.5]
+        int sector = quantizer.quantize(40, 50, -1);
+        assertEquals(1, sector);
+        assertEquals(1, quantizer.quantize(70, 50, sector));
+        assertEquals(1, quantizer.quantize(18, 50, sector));
+        assertEquals(2, quantizer.quantize(73, 50, sector));
+        assertEquals(0, quantizer.quantize(17, 50, sector));
+        //跨越0度
+        assertEquals(0, quantizer.quantize(341, 50, 0));
+        assertEquals(0, quantizer.quantize(335, 50, 0));
+        assertEquals(7, quantizer.quantize(332, 50, 0));
+    }
+
+    @Test
+    public void hysteresis_matchesPerBoundaryComparison() throws Exception {
+        for (int sectors : new int[]{3, 8, 12, 360}) {
+            double width = 360.0 / sectors;
+            double hysteresis = width / 3;
+            DirectionQuantizer quantizer = new DirectionQuantizer(sectors, hysteresis, 0);
+            for (int previous = 0; previous < sectors; previous++) {
+                //当前扇区的下边界和上边界分别外扩滞回角度
+                double lower = (previous - 0.5) * width - hysteresis;
+                double upper = (previous + 0.5) * width + hysteresis;
+                for (int i = 0; i < 36000; i++) {
+                    double angle = i / 100.0 + 0.003;
+                    double unwrapped = angle;
+                    while (unwrapped > upper) {
+                        unwrapped -= 360;
+                    }
+                    boolean held = unwrapped >= lower && unwrapped <= upper;
+                    int expected = held ? previous : quantizer.sector(angle);
+                    assertEquals(expected, quantizer.quantize(angle, 50, previous));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void toDirection_nWayDoesNotCollideWithFourWay() throws Exception {
+        DirectionQuantizer four = new DirectionQuantizer();
+        DirectionQuantizer eight = new DirectionQuantizer(8, 0, 0);
+        for (int sector = 0; sector < 8; sector++) {
+            int direction = eight.toDirection(sector);
+            assertEquals(JoystickEngine.SECTOR_DIRECTION_BASE + sector, direction);
+            for (int s = 0; s < 4; s++) {
+                assertTrue(four.toDirection(s) != direction);
+            }
+            assertEquals(sector, DirectionQuantizer.sectorOf(direction));
+        }
+        for (int sector = 0; sector < 4; sector++) {
+            assertEquals(sector, DirectionQuantizer.sectorOf(four.toDirection(sector)));
+        }
+        assertEquals(DirectionQuantizer.INVALID, DirectionQuantizer.sectorOf(JoystickEngine.INVALID));
+    }
+
+    @Test
+    public void deadZone_isInvalid() throws Exception {
+        DirectionQuantizer quantizer = new DirectionQuantizer(4, 0, 20);
+        assertEquals(DirectionQuantizer.INVALID, quantizer.quantize(90, 19, 1));
+        assertEquals(JoystickEngine.INVALID, quantizer.toDirection(DirectionQuantizer.INVALID));
+        assertEquals(1, quantizer.quantize(90, 20, DirectionQuantizer.INVALID));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void hysteresis_tooLarge() throws Exception {
+        new DirectionQuantizer(4, 45, 0);
+    }
+}
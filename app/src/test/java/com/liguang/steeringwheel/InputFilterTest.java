@@ -0,0 +1,104 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 滤波器单元测试，检查去抖效果和匀速移动时的滞后
+ */
+public class InputFilterTest {
+    private static final long INTERVAL_NANOS = 8000000L;
+
+    /**
+     * 匀速移动足够长时间后，输出落后输入的时间，单位毫秒
+     */
+    private static double rampLagMillis(InputFilter filter, double speedPxPerSecond) {
+        double x = 0;
+        long time = 0;
+        for (int i = 0; i < 500; i++) {
+            time += INTERVAL_NANOS;
+            x = speedPxPerSecond * time / 1e9;
+            filter.filter(time, (float) x, 0);
+        }
+        return (x - filter.getX()) / speedPxPerSecond * 1000;
+    }
+
+    /**
+     * 静止时叠加随机抖动，输出相对静止点的均方根偏差
+     */
+    private static double restJitter(InputFilter filter, Random random) {
+        long time = 0;
+        double sum = 0;
+        int count = 0;
+        for (int i = 0; i < 500; i++) {
+            time += INTERVAL_NANOS;
+            filter.filter(time, 100 + random.nextFloat() * 4 - 2, 0);
+            if (i >= 100) {
+                double d = filter.getX() - 100;
+                sum += d * d;
+                count++;
+            }
+        }
+        return Math.sqrt(sum / count);
+    }
+
+    @Test
+    public void exponential_lagNearTimeConstant() throws Exception {
+        double lag = rampLagMillis(new ExponentialInputFilter(20), 500);
+        assertTrue(lag > 10 && lag < 25);
+    }
+
+    @Test
+    public void oneEuro_smoothsAtRestAndFollowsFastMoves() throws Exception {
+        Random random = new Random(1);
+        double rawJitter = restJitter(new InputFilter() {
+            @Override
+            protected void onStart(float x, float y) {
+            }
+
+            @Override
+            protected void onFilter(double elapsedSeconds, float x, float y) {
+                setOutput(x, y);
+            }
+        }, random);
+        double oneEuroJitter = restJitter(new OneEuroInputFilter(1, 0.02, 1), random);
+        assertTrue(oneEuroJitter < rawJitter / 2);
+
+        //静止时与One-Euro去抖程度相近的指数平滑，快速移动时滞后大得多
+        double oneEuroLag = rampLagMillis(new OneEuroInputFilter(1, 0.02, 1), 2000);
+        double exponentialLag = rampLagMillis(new ExponentialInputFilter(1000 / (2 * Math.PI)), 2000);
+        assertTrue(oneEuroLag < exponentialLag / 5);
+    }
+
+    @Test
+    public void prediction_cancelsSmoothingLag() throws Exception {
+        ExponentialInputFilter smoothing = new ExponentialInputFilter(20);
+        double smoothingLag = rampLagMillis(smoothing, 500);
+
+        InputFilterChain chain = new InputFilterChain(new ExponentialInputFilter(20),
+                new PredictiveInputFilter(smoothingLag, 5));
+        double x = 0;
+        long time = 0;
+        for (int i = 0; i < 500; i++) {
+            time += INTERVAL_NANOS;
+            x = 500.0 * time / 1e9;
+            chain.filter(time, (float) x, 0);
+        }
+        assertEquals(0, (x - chain.getX()) / 500 * 1000, 1);
+    }
+
+    @Test
+    public void reset_passesNextPointThrough() throws Exception {
+        InputFilterChain chain = new InputFilterChain(new OneEuroInputFilter(1, 0.01, 1),
+                new PredictiveInputFilter(30, 5));
+        chain.filter(0, 0, 0);
+        chain.filter(INTERVAL_NANOS, 50, 50);
+        chain.reset();
+        chain.filter(2 * INTERVAL_NANOS, 120, -40);
+        assertEquals(120, chain.getX(), 0);
+        assertEquals(-40, chain.getY(), 0);
+    }
+}
@@ -0,0 +1,268 @@
+package com.liguang.steeringwheel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link InputTraceWriter} {@link InputTraceReader} {@link InputTraceReplayer} 单元测试
+ */
+public class InputTraceTest {
+    private static final int SAMPLES = 50000;
+    /**
+     * 几何记录、第一次输入前的引擎配置和响应曲线记录，加上每个采样
+     */
+    private static final int RECORDS = SAMPLES + 3;
+
+    private File mFile;
+
+    @Before
+    public void setUp() throws Exception {
+        mFile = File.createTempFile("input", ".trace");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mFile.delete();
+    }
+
+    /**
+     * 录制随机拖动、回弹和重置，返回录制时的最终状态
+     */
+    private JoystickEngine record(InputTraceWriter writer) {
+        Random random = new Random(42);
+        JoystickEngine engine = new JoystickEngine();
+        engine.setGeometry(300, 300, 200);
+        writer.recordGeometry(0, 300, 300, 200);
+        long time = 1000000000L;
+        for (int i = 0; i < SAMPLES; i++) {
+            time += 8000000;
+            int r = random.nextInt(100);
+            if (r < 90) {
+                float x = 300 + random.nextFloat() * 600 - 300;
+                float y = 300 + random.nextFloat() * 600 - 300;
+                engine.update(x, y);
+                writer.record(time, InputTraceWriter.KIND_TOUCH, x, y, engine);
+            } else if (r < 98) {
+                float x = (engine.getBallX() + 300) / 2;
+                float y = (engine.getBallY() + 300) / 2;
+                engine.setBall(x, y);
+                writer.record(time, InputTraceWriter.KIND_BALL, x, y, engine);
+            } else {
+                engine.reset();
+                writer.record(time, InputTraceWriter.KIND_RESET, 0, 0, engine);
+            }
+        }
+        return engine;
+    }
+
+    @Test
+    public void replay_reproducesRecordedState() throws Exception {
+        InputTraceWriter writer = new InputTraceWriter(mFile);
+        JoystickEngine recorded = record(writer);
+        writer.close();
+        assertEquals(RECORDS, writer.getRecordCount());
+        assertEquals(InputTraceWriter.HEADER_SIZE + RECORDS * InputTraceWriter.RECORD_SIZE, mFile.length());
+
+        InputTraceReader reader = new InputTraceReader(mFile);
+        assertEquals(RECORDS, reader.getRecordCount());
+        JoystickEngine engine = new JoystickEngine();
+        InputTraceReplayer replayer = new InputTraceReplayer(engine);
+        assertEquals(RECORDS, replayer.replay(reader, false));
+        assertEquals(0, replayer.getMismatchCount());
+        assertEquals(recorded.getBallX(), engine.getBallX(), 0);
+        assertEquals(recorded.getBallY(), engine.getBallY(), 0);
+        assertEquals(recorded.getPower(), engine.getPower());
+
+        reader.rewind();
+        assertTrue(reader.next());
+        assertEquals(InputTraceWriter.KIND_GEOMETRY, reader.getKind());
+        assertEquals(200, reader.getBallX(), 0);
+        reader.close();
+    }
+
+    @Test
+    public void replay_appliesRecordedConfigAndFilters() throws Exception {
+        InputTraceWriter writer = new InputTraceWriter(mFile);
+        JoystickEngine recorded = new JoystickEngine();
+        recorded.setGeometry(300, 300, 200);
+        recorded.setPrecision(JoystickEngine.PRECISION_LOW);
+        recorded.setDirectionQuantizer(new DirectionQuantizer(360, 0.4, 5));
+        recorded.setResponseCurve(new ResponseCurve(0.1f, 0.5f, 0.9f).withAxial(0.05f, 0.3f, 0.95f));
+        InputFilterChain filter = new InputFilterChain(
+                new OneEuroInputFilter(1, 0.01, 1), new PredictiveInputFilter(20, 5));
+        writer.recordGeometry(0, 300, 300, 200);
+        writer.recordFilters(filter);
+
+        Random random = new Random(7);
+        long time = 1000000000L;
+        int maxDirection = 0;
+        for (int gesture = 0; gesture < 50; gesture++) {
+            time += 100000000;
+            filter.reset();
+            writer.recordDown(time);
+            if (gesture == 25) {
+                //中途开启预计算表，之后的整数触摸点查表
+                recorded.setPolarLookup(new PolarLookupTable(200, 210));
+            }
+            float fingerX = 300;
+            float fingerY = 300;
+            for (int i = 0; i < 100; i++) {
+                time += 8000000;
+                fingerX += random.nextInt(21) - 10;
+                fingerY += random.nextInt(21) - 10;
+                filter.filter(time, fingerX, fingerY);
+                recorded.update(filter.getX(), filter.getY());
+                writer.record(time, InputTraceWriter.KIND_TOUCH, fingerX, fingerY, recorded);
+                maxDirection = Math.max(maxDirection, recorded.getDirection());
+            }
+            recorded.reset();
+            writer.record(time, InputTraceWriter.KIND_RESET, 0, 0, recorded);
+        }
+        writer.close();
+        assertTrue(maxDirection > 127);
+
+        InputTraceReader reader = new InputTraceReader(mFile);
+        JoystickEngine engine = new JoystickEngine();
+        InputTraceReplayer replayer = new InputTraceReplayer(engine);
+        replayer.replay(reader, false);
+        reader.close();
+        assertEquals(0, replayer.getMismatchCount());
+        assertEquals(JoystickEngine.PRECISION_LOW, engine.getPrecision());
+        assertEquals(360, engine.getDirectionQuantizer().getSectors());
+        assertEquals(0.4, engine.getDirectionQuantizer().getHysteresis(), 0);
+        assertEquals(5, engine.getDirectionQuantizer().getDeadZonePower());
+        assertTrue(engine.getResponseCurve().isAxial());
+        assertEquals(0.3f, engine.getResponseCurve().getAxialExpo(), 0);
+        assertNotNull(engine.getPolarLookup());
+        assertEquals(210, engine.getPolarLookup().getExtent());
+    }
+
+    @Test
+    public void replay_withoutFilters_mismatchesFilteredTrace() throws Exception {
+        InputTraceWriter writer = new InputTraceWriter(mFile);
+        JoystickEngine recorded = new JoystickEngine();
+        recorded.setGeometry(300, 300, 200);
+        InputFilterChain filter = new InputFilterChain(new ExponentialInputFilter(30));
+        writer.recordGeometry(0, 300, 300, 200);
+        writer.recordDown(0);
+        for (int i = 1; i <= 100; i++) {
+            float x = 300 + i;
+            filter.filter(i * 8000000L, x, 300);
+            recorded.update(filter.getX(), filter.getY());
+            writer.record(i * 8000000L, InputTraceWriter.KIND_TOUCH, x, 300, recorded);
+        }
+        writer.close();
+
+        //轨迹中保存的是原始坐标，没有滤波器记录时回放结果不一致
+        InputTraceReader reader = new InputTraceReader(mFile);
+        InputTraceReplayer replayer = new InputTraceReplayer(new JoystickEngine());
+        replayer.replay(reader, false);
+        reader.close();
+        assertTrue(replayer.getMismatchCount() > 0);
+    }
+
+    @Test
+    public void replay_notifyInterval_coalescesByTraceTime() throws Exception {
+        InputTraceWriter writer = new InputTraceWriter(mFile);
+        JoystickEngine recorded = new JoystickEngine();
+        recorded.setGeometry(300, 300, 200);
+        writer.recordGeometry(0, 300, 300, 200);
+        //每4毫秒一个触摸点，共400毫秒
+        for (int i = 1; i <= 100; i++) {
+            recorded.update(300 + i, 300);
+            writer.record(i * 4000000L, InputTraceWriter.KIND_TOUCH, 300 + i, 300, recorded);
+        }
+        writer.close();
+
+        final long[] lastTime = {-1};
+        final int[] minGap = {Integer.MAX_VALUE};
+        final float[] lastX = new float[1];
+        InputTraceReplayer replayer = new InputTraceReplayer(new JoystickEngine())
+                .notifyInterval(16)
+                .handler(new SampleRingBuffer.SampleHandler() {
+                    @Override
+                    public void onSample(long timeNanos, float x, float y, float angle, int power, int direction) {
+                        if (lastTime[0] >= 0) {
+                            minGap[0] = (int) Math.min(minGap[0], timeNanos - lastTime[0]);
+                        }
+                        lastTime[0] = timeNanos;
+                        lastX[0] = x;
+                    }
+                });
+        InputTraceReader reader = new InputTraceReader(mFile);
+        replayer.replay(reader, false);
+        reader.close();
+        assertEquals(0, replayer.getMismatchCount());
+        //100个请求按16毫秒合并，约25次通知，间隔不小于16毫秒，最后一次取到最终状态
+        assertTrue(replayer.getDeliveredCount() >= 24 && replayer.getDeliveredCount() <= 26);
+        assertTrue(minGap[0] >= 16000000);
+        assertEquals(400, lastX[0], 0);
+    }
+
+    @Test
+    public void replay_immediateScheduler_deliversEveryInput() throws Exception {
+        InputTraceWriter writer = new InputTraceWriter(mFile);
+        record(writer);
+        writer.close();
+
+        InputTraceReader reader = new InputTraceReader(mFile);
+        InputTraceReplayer replayer = new InputTraceReplayer(new JoystickEngine())
+                .notifyScheduler(new ImmediateNotifyScheduler());
+        replayer.replay(reader, false);
+        reader.close();
+        assertEquals(SAMPLES, replayer.getDeliveredCount());
+    }
+
+    @Test
+    public void writer_dropsRecordsBeyondLimit() throws Exception {
+        InputTraceWriter writer = new InputTraceWriter(mFile, 10);
+        JoystickEngine engine = new JoystickEngine();
+        engine.setGeometry(300, 300, 200);
+        writer.recordGeometry(0, 300, 300, 200);
+        for (int i = 1; i <= 20; i++) {
+            engine.update(300 + i, 300);
+            writer.record(i, InputTraceWriter.KIND_TOUCH, 300 + i, 300, engine);
+        }
+        writer.close();
+        //几何记录、引擎配置和响应曲线记录之后只能写下7个触摸点
+        assertEquals(10, writer.getRecordCount());
+        assertEquals(13, writer.getDroppedCount());
+        assertEquals(InputTraceWriter.HEADER_SIZE + 10 * InputTraceWriter.RECORD_SIZE, mFile.length());
+
+        InputTraceReader reader = new InputTraceReader(mFile);
+        InputTraceReplayer replayer = new InputTraceReplayer(engine);
+        assertEquals(10, replayer.replay(reader, false));
+        assertEquals(0, replayer.getMismatchCount());
+        assertEquals(307, engine.getBallX(), 0);
+        reader.close();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void writer_rejectsNonPositiveLimit() throws Exception {
+        new InputTraceWriter(mFile, 0);
+    }
+
+    @Test
+    public void reader_stopsAtUnwrittenRecords() throws Exception {
+        InputTraceWriter writer = new InputTraceWriter(mFile);
+        record(writer);
+        //模拟异常退出：不关闭，记录数未写入，文件末尾是按上限映射时扩展出的空白
+        RandomAccessFile file = new RandomAccessFile(mFile, "r");
+        assertTrue(file.length() > InputTraceWriter.HEADER_SIZE + RECORDS * InputTraceWriter.RECORD_SIZE);
+        file.close();
+
+        InputTraceReader reader = new InputTraceReader(mFile);
+        InputTraceReplayer replayer = new InputTraceReplayer(new JoystickEngine());
+        assertEquals(RECORDS, replayer.replay(reader, false));
+        assertEquals(0, replayer.getMismatchCount());
+        reader.close();
+        writer.close();
+    }
+}
@@ -0,0 +1,144 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link JoystickEngine} 单元测试，在JVM上运行
+ */
+public class JoystickEngineTest {
+    private static final float CENTER_X = 300;
+    private static final float CENTER_Y = 300;
+    private static final float RANGE = 200;
+
+    private JoystickEngine mEngine;
+
+    @Before
+    public void setUp() throws Exception {
+        mEngine = new JoystickEngine();
+        mEngine.setGeometry(CENTER_X, CENTER_Y, RANGE);
+    }
+
+    @Test
+    public void initialState_isIdle() throws Exception {
+        assertEquals(CENTER_X, mEngine.getBallX(), 0);
+        assertEquals(CENTER_Y, mEngine.getBallY(), 0);
+        assertEquals(0, mEngine.getPower());
+        assertEquals(JoystickEngine.INVALID, mEngine.getDirection());
+    }
+
+    @Test
+    public void update_axes() throws Exception {
+        mEngine.update(CENTER_X + 100, CENTER_Y);
+        assertEquals(0, mEngine.getAngle(), 1e-9);
+        assertEquals(50, mEngine.getPower());
+        assertEquals(JoystickEngine.RIGHT, mEngine.getDirection());
+
+        mEngine.update(CENTER_X, CENTER_Y - 100);
+        assertEquals(90, mEngine.getAngle(), 1e-9);
+        assertEquals(JoystickEngine.UP, mEngine.getDirection());
+
+        mEngine.update(CENTER_X - 100, CENTER_Y);
+        assertEquals(180, mEngine.getAngle(), 1e-9);
+        assertEquals(JoystickEngine.LEFT, mEngine.getDirection());
+
+        mEngine.update(CENTER_X, CENTER_Y + 100);
+        assertEquals(270, mEngine.getAngle(), 1e-9);
+        assertEquals(JoystickEngine.DOWN, mEngine.getDirection());
+    }
+
+    @Test
+    public void update_outOfRange_isClamped() throws Exception {
+        mEngine.update(CENTER_X + 300, CENTER_Y - 400);
+        assertEquals(100, mEngine.getPower());
+        assertEquals(CENTER_X + 120, mEngine.getBallX(), 1e-3);
+        assertEquals(CENTER_Y - 160, mEngine.getBallY(), 1e-3);
+    }
+
+    @Test
+    public void setBall_keepsAngle() throws Exception {
+        mEngine.update(CENTER_X, CENTER_Y - 200);
+        mEngine.setBall(CENTER_X, CENTER_Y - 50);
+        assertEquals(90, mEngine.getAngle(), 1e-9);
+        assertEquals(25, mEngine.getPower());
+        mEngine.setBall(CENTER_X, CENTER_Y);
+        assertEquals(0, mEngine.getPower());
+        assertEquals(JoystickEngine.INVALID, mEngine.getDirection());
+    }
+
+    /**
+     * 与重构前按象限分支计算的结果逐点比较
+     */
+    @Test
+    public void update_matchesLegacyQuadrantMath() throws Exception {
+        for (int y = 0; y <= 600; y += 3) {
+            for (int x = 0; x <= 600; x += 3) {
+                mEngine.update(x, y);
+                LegacyMath legacy = new LegacyMath();
+                legacy.update(x, y);
+                if (x == CENTER_X && y == CENTER_Y) {
+                    continue;
+                }
+                assertEquals(legacy.angle % 360, mEngine.getAngle(), 1e-4);
+                assertEquals(legacy.ballX, mEngine.getBallX(), 1e-2);
+                assertEquals(legacy.ballY, mEngine.getBallY(), 1e-2);
+                assertEquals(legacy.direction, mEngine.getDirection());
+                assertTrue(Math.abs(legacy.power - mEngine.getPower()) <= 1);
+            }
+        }
+    }
+
+    /**
+     * 重构前 SteeringWheelView 中的计算方式
+     */
+    private static class LegacyMath {
+        double angle;
+        float ballX;
+        float ballY;
+        int power;
+        int direction;
+
+        void update(int x, int y) {
+            float r = RANGE;
+            ballX = x;
+            ballY = y;
+            boolean outOfRange = (Math.pow(x - CENTER_X, 2) + Math.pow(y - CENTER_Y, 2)) > Math.pow(r, 2);
+            if (x >= CENTER_X && y < CENTER_Y) {
+                angle = Math.toDegrees(Math.atan((CENTER_Y - y) / (x - CENTER_X)));
+                if (outOfRange) {
+                    ballX = (float) (CENTER_X + Math.cos(Math.toRadians(angle)) * r);
+                    ballY = (float) (CENTER_Y - Math.sin(Math.toRadians(angle)) * r);
+                }
+            } else if (x < CENTER_X && y <= CENTER_Y) {
+                angle = 180 - Math.toDegrees(Math.atan((CENTER_Y - y) / (CENTER_X - x)));
+                if (outOfRange) {
+                    ballX = (float) (CENTER_X - Math.cos(Math.toRadians(180 - angle)) * r);
+                    ballY = (float) (CENTER_Y - Math.sin(Math.toRadians(180 - angle)) * r);
+                }
+            } else if (x <= CENTER_X && y > CENTER_Y) {
+                angle = 270 - Math.toDegrees(Math.atan((CENTER_X - x) / (y - CENTER_Y)));
+                if (outOfRange) {
+                    ballX = (float) (CENTER_X - Math.cos(Math.toRadians(angle - 180)) * r);
+                    ballY = (float) (CENTER_Y + Math.sin(Math.toRadians(angle - 180)) * r);
+                }
+            } else if (x > CENTER_X && y >= CENTER_Y) {
+                angle = 360 - Math.toDegrees(Math.atan((y - CENTER_Y) / (x - CENTER_X)));
+                if (outOfRange) {
+                    ballX = (float) (CENTER_X + Math.cos(Math.toRadians(360 - angle)) * r);
+                    ballY = (float) (CENTER_Y + Math.sin(Math.toRadians(360 - angle)) * r);
+                }
+            }
+            power = (int) (100 * Math.sqrt(Math.pow(ballX - CENTER_X, 2) + Math.pow(ballY - CENTER_Y, 2)) / r);
+            if (angle <= 45 || angle > 315)
+                direction = JoystickEngine.RIGHT;
+            else if (angle <= 135)
+                direction = JoystickEngine.UP;
+            else if (angle <= 225)
+                direction = JoystickEngine.LEFT;
+            else
+                direction = JoystickEngine.DOWN;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link LatencyHistogram} 单元测试
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketBounds_containValue() throws Exception {
+        for (long micros = 0; micros < 1000000; micros += 7) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            long lower = index == 0 ? 0 : LatencyHistogram.bucketUpperBoundMicros(index - 1);
+            assertTrue(micros >= lower);
+            assertTrue(micros < LatencyHistogram.bucketUpperBoundMicros(index));
+        }
+    }
+
+    @Test
+    public void percentiles() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(0.5));
+        //1ms到100ms各一次
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.record(ms * 1000000L);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(100000000L, histogram.getMaxNanos());
+        long p50 = histogram.getPercentileNanos(0.5);
+        long p99 = histogram.getPercentileNanos(0.99);
+        //分桶相对误差不超过12.5%
+        assertTrue(p50 >= 50000000L && p50 <= 50000000L * 1.125);
+        assertTrue(p99 >= 99000000L && p99 <= 100000000L);
+        assertEquals(100000000L, histogram.getPercentileNanos(1));
+    }
+
+    @Test
+    public void copyFrom_reset() throws Exception {
+        LatencyHistogram source = new LatencyHistogram();
+        source.record(5000);
+        source.record(7000);
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.copyFrom(source, true);
+        assertEquals(2, copy.getCount());
+        assertEquals(6000, copy.getMeanNanos());
+        assertEquals(7000, copy.getMaxNanos());
+        assertEquals(0, source.getCount());
+        assertEquals(0, source.getMaxNanos());
+    }
+}
@@ -0,0 +1,47 @@
+package com.liguang.steeringwheel;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * 测试用的本机UDP接收端，代替云台或机器人。
+ * 使用 {@link DatagramSocket}，接收超时才会生效，发送端出错时测试失败而不是一直阻塞
+ */
+class LoopbackReceiver {
+    private final DatagramSocket mSocket;
+    private final byte[] mBytes = new byte[1500];
+    private final DatagramPacket mPacket = new DatagramPacket(mBytes, mBytes.length);
+
+    LoopbackReceiver() throws IOException {
+        mSocket = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        mSocket.setSoTimeout(2000);
+    }
+
+    InetSocketAddress getAddress() {
+        return (InetSocketAddress) mSocket.getLocalSocketAddress();
+    }
+
+    /**
+     * 阻塞接收一个数据报，超过2秒抛出 {@link java.net.SocketTimeoutException}
+     *
+     * @param out 解码结果
+     * @return 数据报长度
+     */
+    int receive(SteeringWheelState out) throws IOException {
+        mPacket.setLength(mBytes.length);
+        mSocket.receive(mPacket);
+        int length = mPacket.getLength();
+        if (!ControlFrameCodec.decode(ByteBuffer.wrap(mBytes, 0, length), out)) {
+            throw new IOException("bad frame, length = " + length);
+        }
+        return length;
+    }
+
+    void close() throws IOException {
+        mSocket.close();
+    }
+}
@@ -0,0 +1,177 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link NotifyScheduler} 单元测试，用手动推进时钟的调度器代替主线程消息队列
+ */
+public class NotifySchedulerTest {
+
+    /**
+     * 与 {@link FixedRateNotifyScheduler} 相同，按 {@link #remainingMillis(long)} 延迟执行，由测试推进时钟
+     */
+    private static class ManualScheduler extends NotifyScheduler {
+        long mNow;
+        /**
+         * 安排的执行时间，没有时为-1
+         */
+        long mScheduledAt = -1;
+        int mRequests;
+        int mCancels;
+
+        @Override
+        protected void onRequest() {
+            mRequests++;
+            mScheduledAt = mNow + remainingMillis(mNow) * 1000000L;
+        }
+
+        @Override
+        protected void onCancel() {
+            mCancels++;
+            mScheduledAt = -1;
+        }
+
+        /**
+         * 推进到指定时间，到达安排的执行时间时执行通知
+         */
+        void advanceTo(long nowNanos) {
+            if (mScheduledAt >= 0 && mScheduledAt <= nowNanos) {
+                mNow = mScheduledAt;
+                mScheduledAt = -1;
+                dispatch(mNow);
+            }
+            mNow = nowNanos;
+        }
+
+        long remaining(long nowNanos) {
+            return remainingMillis(nowNanos);
+        }
+    }
+
+    private static class Recorder implements NotifyScheduler.Target {
+        final List<Long> mDelivered = new ArrayList<>();
+
+        @Override
+        public void deliver(long timeNanos) {
+            mDelivered.add(timeNanos);
+        }
+    }
+
+    @Test
+    public void request_coalescesUntilDelivered() throws Exception {
+        ManualScheduler scheduler = new ManualScheduler();
+        Recorder recorder = new Recorder();
+        scheduler.setTarget(recorder);
+        scheduler.request();
+        scheduler.request();
+        scheduler.request();
+        assertTrue(scheduler.isPending());
+        assertEquals(1, scheduler.mRequests);
+
+        scheduler.advanceTo(1);
+        assertFalse(scheduler.isPending());
+        assertEquals(1, recorder.mDelivered.size());
+
+        scheduler.request();
+        assertEquals(2, scheduler.mRequests);
+    }
+
+    @Test
+    public void cancel_dropsPendingNotify() throws Exception {
+        ManualScheduler scheduler = new ManualScheduler();
+        Recorder recorder = new Recorder();
+        scheduler.setTarget(recorder);
+        scheduler.cancel();
+        assertEquals(0, scheduler.mCancels);
+
+        scheduler.request();
+        scheduler.cancel();
+        assertFalse(scheduler.isPending());
+        assertEquals(1, scheduler.mCancels);
+        scheduler.advanceTo(100000000L);
+        assertEquals(0, recorder.mDelivered.size());
+    }
+
+    @Test
+    public void request_withoutTarget_isIgnored() throws Exception {
+        ManualScheduler scheduler = new ManualScheduler();
+        scheduler.request();
+        assertFalse(scheduler.isPending());
+        assertEquals(0, scheduler.mRequests);
+    }
+
+    @Test
+    public void remainingMillis_roundsUp() throws Exception {
+        ManualScheduler scheduler = new ManualScheduler();
+        scheduler.setTarget(new Recorder());
+        scheduler.setInterval(16);
+        //还没有通知过时不需要等待
+        assertEquals(0, scheduler.remaining(0));
+
+        scheduler.request();
+        scheduler.advanceTo(0);
+        assertEquals(16, scheduler.remaining(1));
+        assertEquals(1, scheduler.remaining(15000000L));
+        assertEquals(1, scheduler.remaining(15999999L));
+        assertEquals(0, scheduler.remaining(16000000L));
+        assertEquals(0, scheduler.remaining(50000000L));
+    }
+
+    @Test
+    public void fixedRate_spacesDeliveriesByInterval() throws Exception {
+        long interval = 16000000L;
+        ManualScheduler scheduler = new ManualScheduler();
+        Recorder recorder = new Recorder();
+        scheduler.setTarget(recorder);
+        scheduler.setInterval(16);
+
+        Random random = new Random(3);
+        long now = 0;
+        long maxWait = 0;
+        int inputs = 0;
+        while (now < 2000000000L) {
+            //触摸事件间隔0.5 - 8毫秒不等
+            now += 500000L + random.nextInt(7500000);
+            scheduler.advanceTo(now);
+            long requestedAt = now;
+            boolean coalesced = scheduler.isPending();
+            scheduler.request();
+            inputs++;
+            if (!coalesced) {
+                maxWait = Math.max(maxWait, scheduler.mScheduledAt - requestedAt);
+            }
+        }
+        scheduler.advanceTo(Long.MAX_VALUE);
+
+        List<Long> delivered = recorder.mDelivered;
+        assertTrue(delivered.size() < inputs);
+        for (int i = 1; i < delivered.size(); i++) {
+            long spacing = delivered.get(i) - delivered.get(i - 1);
+            //不早于间隔；连续输入时最多再晚一个触摸间隔和取整的1毫秒
+            assertTrue(spacing >= interval);
+            assertTrue(spacing <= interval + 9000000L);
+        }
+        //向上取整到毫秒，等待不超过一个间隔加1毫秒
+        assertTrue(maxWait <= interval + 1000000L);
+    }
+
+    @Test
+    public void zeroInterval_deliversWithoutDelay() throws Exception {
+        ManualScheduler scheduler = new ManualScheduler();
+        Recorder recorder = new Recorder();
+        scheduler.setTarget(recorder);
+        for (long now = 1000; now < 10000; now += 1000) {
+            scheduler.advanceTo(now);
+            scheduler.request();
+            assertEquals(now, scheduler.mScheduledAt);
+        }
+        scheduler.advanceTo(Long.MAX_VALUE);
+        assertEquals(9, recorder.mDelivered.size());
+    }
+}
@@ -0,0 +1,113 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link PolarLookupTable} 单元测试，逐个整数偏移与精确计算比较
+ */
+public class PolarLookupTableTest {
+
+    private static void assertEquivalent(float range, int extent, DirectionQuantizer quantizer) {
+        float centerX = 240;
+        float centerY = 360;
+        JoystickEngine exact = new JoystickEngine();
+        exact.setGeometry(centerX, centerY, range);
+        exact.setDirectionQuantizer(quantizer);
+        JoystickEngine lookup = new JoystickEngine();
+        lookup.setGeometry(centerX, centerY, range);
+        lookup.setDirectionQuantizer(quantizer);
+        lookup.setPolarLookup(new PolarLookupTable(range, extent));
+        assertNotNull(lookup.getPolarLookup());
+
+        double width = 360.0 / quantizer.getSectors();
+        //表外的偏移走精确计算，同样比较
+        for (int dy = -extent - 2; dy <= extent + 2; dy++) {
+            for (int dx = -extent - 2; dx <= extent + 2; dx++) {
+                exact.update(centerX + dx, centerY + dy);
+                lookup.update(centerX + dx, centerY + dy);
+                String at = "(" + dx + ", " + dy + ")";
+                assertEquals(at, exact.getBallX(), lookup.getBallX(), 0);
+                assertEquals(at, exact.getBallY(), lookup.getBallY(), 0);
+                assertEquals(at, exact.getPower(), lookup.getPower());
+
+                double diff = Math.abs(exact.getAngle() - lookup.getAngle());
+                diff = Math.min(diff, 360 - diff);
+                assertTrue(at + " angle diff " + diff, diff <= PolarLookupTable.ANGLE_STEP / 2);
+
+                if (exact.getDirection() != lookup.getDirection()) {
+                    //只允许在扇区边界附近一个量化单位内不同
+                    double offset = Math.IEEEremainder(exact.getAngle() - width / 2, width);
+                    assertTrue(at + " direction", Math.abs(offset) <= PolarLookupTable.ANGLE_STEP);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fourWay_equivalentToExact() throws Exception {
+        assertEquivalent(37, 37, new DirectionQuantizer());
+        assertEquivalent(150, 210, new DirectionQuantizer());
+    }
+
+    @Test
+    public void eightWay_equivalentToExact() throws Exception {
+        assertEquivalent(200, 260, new DirectionQuantizer(8, 0, 0));
+    }
+
+    @Test
+    public void diagonals_keepLegacyBoundaries() throws Exception {
+        JoystickEngine engine = new JoystickEngine();
+        engine.setGeometry(100, 100, 50);
+        engine.setPolarLookup(new PolarLookupTable(50, 60));
+        engine.update(110, 90);
+        assertEquals(45, engine.getAngle(), 0);
+        assertEquals(JoystickEngine.RIGHT, engine.getDirection());
+        engine.update(90, 90);
+        assertEquals(135, engine.getAngle(), 0);
+        assertEquals(JoystickEngine.UP, engine.getDirection());
+        engine.update(90, 110);
+        assertEquals(225, engine.getAngle(), 0);
+        assertEquals(JoystickEngine.LEFT, engine.getDirection());
+        engine.update(110, 110);
+        assertEquals(315, engine.getAngle(), 0);
+        assertEquals(JoystickEngine.DOWN, engine.getDirection());
+    }
+
+    @Test
+    public void rangeMismatch_isIgnored() throws Exception {
+        JoystickEngine engine = new JoystickEngine();
+        engine.setGeometry(100, 100, 50);
+        engine.setPolarLookup(new PolarLookupTable(40, 60));
+        assertNull(engine.getPolarLookup());
+
+        engine.setPolarLookup(new PolarLookupTable(50, 60));
+        assertNotNull(engine.getPolarLookup());
+        engine.setGeometry(100, 100, 50);
+        assertNotNull(engine.getPolarLookup());
+        engine.setGeometry(100, 100, 60);
+        assertNull(engine.getPolarLookup());
+    }
+
+    @Test
+    public void memory_isSevenBytesPerQuadrantCell() throws Exception {
+        assertEquals(101 * 101 * 7, new PolarLookupTable(100, 100).getMemoryBytes());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void extentSmallerThanRange_isRejected() throws Exception {
+        new PolarLookupTable(100, 99);
+    }
+
+    @Test
+    public void maxExtent_boundsMemory() throws Exception {
+        PolarLookupTable largest = new PolarLookupTable(PolarLookupTable.MAX_EXTENT, PolarLookupTable.MAX_EXTENT);
+        assertTrue(largest.getMemoryBytes() < 8 * 1024 * 1024);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void extentAboveMax_isRejected() throws Exception {
+        new PolarLookupTable(100, PolarLookupTable.MAX_EXTENT + 1);
+    }
+}
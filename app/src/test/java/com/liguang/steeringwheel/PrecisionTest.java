@@ -0,0 +1,123 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link JoystickEngine} 各精度与精确计算的误差，覆盖方向盘上所有整数触摸点
+ */
+public class PrecisionTest {
+    private static final float CENTER_X = 320;
+    private static final float CENTER_Y = 480;
+
+    private static double angleDiff(double a, double b) {
+        double diff = Math.abs(a - b);
+        return Math.min(diff, 360 - diff);
+    }
+
+    private static void assertWithinBounds(int precision, double maxAngleError, float range, int extent, float step) {
+        JoystickEngine exact = new JoystickEngine();
+        exact.setGeometry(CENTER_X, CENTER_Y, range);
+        JoystickEngine approx = new JoystickEngine();
+        approx.setGeometry(CENTER_X, CENTER_Y, range);
+        approx.setPrecision(precision);
+
+        double maxAngle = 0;
+        int maxPower = 0;
+        for (float dy = -extent; dy <= extent; dy += step) {
+            for (float dx = -extent; dx <= extent; dx += step) {
+                exact.update(CENTER_X + dx, CENTER_Y + dy);
+                approx.update(CENTER_X + dx, CENTER_Y + dy);
+                assertEquals(exact.getBallX(), approx.getBallX(), 0);
+                assertEquals(exact.getBallY(), approx.getBallY(), 0);
+                maxAngle = Math.max(maxAngle, angleDiff(exact.getAngle(), approx.getAngle()));
+                maxPower = Math.max(maxPower, Math.abs(exact.getPower() - approx.getPower()));
+            }
+        }
+        assertTrue("angle error " + maxAngle, maxAngle <= maxAngleError);
+        assertTrue("power error " + maxPower, maxPower <= JoystickEngine.MAX_POWER_ERROR);
+    }
+
+    @Test
+    public void high_integerTouches() throws Exception {
+        assertWithinBounds(JoystickEngine.PRECISION_HIGH, FastAtan2.MAX_ERROR_HIGH, 200, 300, 1);
+        assertWithinBounds(JoystickEngine.PRECISION_HIGH, FastAtan2.MAX_ERROR_HIGH, 37, 60, 1);
+    }
+
+    @Test
+    public void low_integerTouches() throws Exception {
+        assertWithinBounds(JoystickEngine.PRECISION_LOW, FastAtan2.MAX_ERROR_LOW, 200, 300, 1);
+        assertWithinBounds(JoystickEngine.PRECISION_LOW, FastAtan2.MAX_ERROR_LOW, 37, 60, 1);
+    }
+
+    /**
+     * 滤波和历史触摸点产生的非整数坐标
+     */
+    @Test
+    public void fractionalTouches() throws Exception {
+        assertWithinBounds(JoystickEngine.PRECISION_HIGH, FastAtan2.MAX_ERROR_HIGH, 123.5f, 130, 0.25f);
+        assertWithinBounds(JoystickEngine.PRECISION_LOW, FastAtan2.MAX_ERROR_LOW, 123.5f, 130, 0.25f);
+    }
+
+    @Test
+    public void fastAtan2_randomInputs() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 1000000; i++) {
+            double scale = Math.pow(10, random.nextInt(9) - 4);
+            double x = (random.nextDouble() * 2 - 1) * scale;
+            double y = (random.nextDouble() * 2 - 1) * scale;
+            double expected = Math.toDegrees(Math.atan2(y, x));
+            if (expected < 0) {
+                expected += 360;
+            }
+            double high = FastAtan2.high(y, x);
+            double low = FastAtan2.low(y, x);
+            assertTrue(high >= 0 && high < 360);
+            assertTrue(low >= 0 && low < 360);
+            assertTrue(angleDiff(expected, high) <= FastAtan2.MAX_ERROR_HIGH);
+            assertTrue(angleDiff(expected, low) <= FastAtan2.MAX_ERROR_LOW);
+        }
+    }
+
+    @Test
+    public void fastAtan2_denseOctantSweep() throws Exception {
+        //其他八分区由对称展开得到，只需扫描 t = y / x 在[0, 1]上的误差
+        int steps = 20000000;
+        for (int i = 0; i <= steps; i++) {
+            double t = (double) i / steps;
+            double expected = Math.toDegrees(Math.atan2(t, 1));
+            assertTrue(Math.abs(FastAtan2.high(t, 1) - expected) <= FastAtan2.MAX_ERROR_HIGH);
+            assertTrue(Math.abs(FastAtan2.low(t, 1) - expected) <= FastAtan2.MAX_ERROR_LOW);
+        }
+    }
+
+    @Test
+    public void axesAndDiagonals_areExact() throws Exception {
+        float[][] points = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+        for (float[] p : points) {
+            double expected = Math.toDegrees(Math.atan2(p[1], p[0]));
+            if (expected < 0) {
+                expected += 360;
+            }
+            assertEquals(expected, FastAtan2.high(p[1] * 50, p[0] * 50), 0);
+            assertEquals(expected, FastAtan2.low(p[1] * 50, p[0] * 50), 0);
+        }
+    }
+
+    @Test
+    public void setBall_overshootKeepsExactPower() throws Exception {
+        JoystickEngine engine = new JoystickEngine();
+        engine.setGeometry(0, 0, 100);
+        engine.setPrecision(JoystickEngine.PRECISION_LOW);
+        engine.setBall(0, -120);
+        assertEquals(120, engine.getPower());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void unknownPrecision_isRejected() throws Exception {
+        new JoystickEngine().setPrecision(3);
+    }
+}
@@ -0,0 +1,115 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link ResponseCurve} 单元测试
+ */
+public class ResponseCurveTest {
+
+    @Test
+    public void linear_keepsPower() throws Exception {
+        ResponseCurve curve = new ResponseCurve(0, 0, 1).withAxial(0, 0, 1);
+        for (int power = 0; power <= 100; power++) {
+            assertEquals(power, curve.power(power));
+        }
+        for (int i = -100; i <= 100; i++) {
+            assertEquals(i / 100f, curve.axis(i / 100f), 1e-5);
+        }
+    }
+
+    @Test
+    public void radialDeadZone_andSaturation() throws Exception {
+        ResponseCurve curve = new ResponseCurve(0.2f, 0, 0.8f);
+        assertEquals(0, curve.power(0));
+        assertEquals(0, curve.power(20));
+        assertEquals(50, curve.power(50));
+        assertEquals(100, curve.power(80));
+        assertEquals(100, curve.power(100));
+        assertEquals(100, curve.power(130));
+        //死区之后连续增长，不跳变
+        assertTrue(curve.power(22) <= 4);
+        for (int power = 1; power <= 100; power++) {
+            assertTrue(curve.power(power) >= curve.power(power - 1));
+        }
+    }
+
+    @Test
+    public void expo_matchesDefinitionWithinInterpolationError() throws Exception {
+        float expo = 0.6f;
+        ResponseCurve curve = new ResponseCurve(0, expo, 1).withAxial(0.1f, expo, 1);
+        for (int i = 0; i <= 10000; i++) {
+            float t = i / 10000f;
+            double x = t <= 0.1f ? 0 : (t - 0.1f) / 0.9f;
+            double expected = (1 - expo) * x + expo * x * x * x;
+            assertEquals(expected, curve.axis(t), 0.002);
+            assertEquals(-expected, curve.axis(-t), 0.002);
+        }
+        assertEquals(Math.round(100 * (0.4 * 0.6 + 0.6 * 0.216)), curve.power(60));
+    }
+
+    @Test
+    public void axialStage_isOptionalAndIndependent() throws Exception {
+        ResponseCurve radial = new ResponseCurve(0.2f, 1, 0.9f);
+        assertFalse(radial.isAxial());
+        //没有轴向曲线时单轴输出线性，只截断到[-1, 1]
+        for (int i = -100; i <= 100; i++) {
+            assertEquals(i / 100f, radial.axis(i / 100f), 0);
+        }
+        assertEquals(1, radial.axis(1.5f), 0);
+        assertEquals(-1, radial.axis(-1.5f), 0);
+
+        //轴向曲线使用自己的参数，不受径向指数影响，径向力度表不变
+        ResponseCurve axial = radial.withAxial(0, 0, 0.5f);
+        assertTrue(axial.isAxial());
+        assertEquals(0.5f, axial.axis(0.25f), 1e-5);
+        assertEquals(-1, axial.axis(-0.5f), 0);
+        assertEquals(1, axial.getExpo(), 0);
+        assertEquals(0, axial.getAxialExpo(), 0);
+        for (int power = 0; power <= 100; power++) {
+            assertEquals(radial.power(power), axial.power(power));
+        }
+    }
+
+    @Test
+    public void engine_appliesCurveAndSwapsAtomically() throws Exception {
+        JoystickEngine engine = new JoystickEngine();
+        engine.setGeometry(100, 100, 100);
+        engine.update(150, 100);
+        assertEquals(50, engine.getPower());
+        assertEquals(0.5f, engine.getAxisX(), 0);
+        assertEquals(0, engine.getAxisY(), 0);
+
+        engine.setResponseCurve(new ResponseCurve(0.1f, 0, 1).withAxial(0.6f, 0, 1));
+        engine.update(150, 50);
+        //径向距离约0.707，轴向各0.5落在轴向死区内
+        assertEquals(Math.round(100 * (0.70f - 0.1f) / 0.9f), engine.getPower(), 1);
+        assertEquals(0, engine.getAxisX(), 0);
+        assertEquals(0, engine.getAxisY(), 0);
+        engine.update(100, 0);
+        assertEquals(1, engine.getAxisY(), 0);
+
+        //只有径向曲线时单轴输出不经过径向曲线
+        engine.setResponseCurve(new ResponseCurve(0.1f, 1, 1));
+        engine.update(150, 50);
+        assertEquals(0.5f, engine.getAxisX(), 0);
+        assertEquals(0.5f, engine.getAxisY(), 0);
+
+        engine.setResponseCurve(null);
+        engine.update(150, 50);
+        assertEquals(0.5f, engine.getAxisX(), 0);
+        assertEquals(0.5f, engine.getAxisY(), 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void saturationInsideDeadZone_isRejected() throws Exception {
+        new ResponseCurve(0.5f, 0, 0.4f);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void axialSaturationInsideDeadZone_isRejected() throws Exception {
+        new ResponseCurve(0, 0, 1).withAxial(0.5f, 0, 0.4f);
+    }
+}
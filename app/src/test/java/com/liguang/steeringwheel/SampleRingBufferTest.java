@@ -0,0 +1,111 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link SampleRingBuffer} 单元测试
+ */
+public class SampleRingBufferTest {
+    /**
+     * 检查采样按顺序到达且字段自洽，采样i的各字段都由i推导
+     */
+    private static class Checker implements SampleRingBuffer.SampleHandler {
+        long last = -1;
+        long received;
+
+        @Override
+        public void onSample(long timeNanos, float x, float y, float angle, int power, int direction) {
+            assertTrue(timeNanos > last);
+            assertEquals(timeNanos % 1000, x, 0);
+            assertEquals(-(timeNanos % 1000), y, 0);
+            assertEquals(timeNanos % 360, angle, 0);
+            assertEquals(timeNanos % 101, power);
+            assertEquals(timeNanos % 2 == 0 ? JoystickEngine.INVALID : JoystickEngine.DOWN, direction);
+            last = timeNanos;
+            received++;
+        }
+    }
+
+    private static boolean offer(SampleRingBuffer buffer, long i) {
+        return buffer.offer(i, i % 1000, -(i % 1000), i % 360, (int) (i % 101),
+                i % 2 == 0 ? JoystickEngine.INVALID : JoystickEngine.DOWN);
+    }
+
+    @Test
+    public void capacity_roundsUpToPowerOfTwo() throws Exception {
+        assertEquals(64, new SampleRingBuffer(33, SampleRingBuffer.DROP_NEWEST).capacity());
+    }
+
+    @Test
+    public void dropNewest_keepsOldest() throws Exception {
+        SampleRingBuffer buffer = new SampleRingBuffer(8, SampleRingBuffer.DROP_NEWEST);
+        for (long i = 1; i <= 10; i++) {
+            assertEquals(i <= 8, offer(buffer, i));
+        }
+        Checker checker = new Checker();
+        assertEquals(8, buffer.drain(checker, 100));
+        assertEquals(8, checker.last);
+        assertEquals(2, buffer.getDroppedCount());
+    }
+
+    @Test
+    public void overwriteOldest_keepsNewest() throws Exception {
+        SampleRingBuffer buffer = new SampleRingBuffer(8, SampleRingBuffer.OVERWRITE_OLDEST);
+        for (long i = 1; i <= 10; i++) {
+            assertTrue(offer(buffer, i));
+        }
+        Checker checker = new Checker();
+        assertEquals(8, buffer.drain(checker, 100));
+        assertEquals(10, checker.last);
+        assertEquals(2, buffer.getDroppedCount());
+    }
+
+    @Test
+    public void drain_respectsBatchSize() throws Exception {
+        SampleRingBuffer buffer = new SampleRingBuffer(16, SampleRingBuffer.DROP_NEWEST);
+        for (long i = 1; i <= 10; i++) {
+            offer(buffer, i);
+        }
+        Checker checker = new Checker();
+        assertEquals(4, buffer.drain(checker, 4));
+        assertEquals(6, buffer.drain(checker, 100));
+        assertEquals(0, buffer.drain(checker, 100));
+    }
+
+    @Test
+    public void concurrent_dropNewest() throws Exception {
+        concurrent(SampleRingBuffer.DROP_NEWEST);
+    }
+
+    @Test
+    public void concurrent_overwriteOldest() throws Exception {
+        concurrent(SampleRingBuffer.OVERWRITE_OLDEST);
+    }
+
+    /**
+     * 并发读写后，收到的加上丢弃的必须等于写入的总数
+     */
+    private void concurrent(int policy) throws Exception {
+        final SampleRingBuffer buffer = new SampleRingBuffer(64, policy);
+        final long total = 500000;
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (long i = 1; i <= total; i++) {
+                    offer(buffer, i);
+                }
+            }
+        });
+        Checker checker = new Checker();
+        producer.start();
+        while (producer.isAlive()) {
+            buffer.drain(checker, 32);
+        }
+        producer.join();
+        while (buffer.drain(checker, 32) > 0) {
+        }
+        assertEquals(total, checker.received + buffer.getDroppedCount());
+    }
+}
@@ -0,0 +1,133 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link SpringIntegrator} 单元测试
+ */
+public class SpringIntegratorTest {
+    private static final float FRAME = 0.016f;
+
+    /**
+     * 按帧前进直到静止
+     *
+     * @return 用去的帧数，超过上限时为-1
+     */
+    private static int framesToRest(SpringIntegrator spring, int maxFrames) {
+        for (int frame = 1; frame <= maxFrames; frame++) {
+            spring.step(FRAME);
+            if (spring.isAtRest())
+                return frame;
+        }
+        return -1;
+    }
+
+    @Test
+    public void criticallyDamped_convergesWithoutOvershoot() throws Exception {
+        SpringIntegrator spring = new SpringIntegrator();
+        spring.setSpring(400, 1);
+        spring.setPosition(200, -100);
+        float minX = Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        int frames = 0;
+        while (!spring.isAtRest() && frames < 120) {
+            spring.step(FRAME);
+            minX = Math.min(minX, spring.getX());
+            maxY = Math.max(maxY, spring.getY());
+            frames++;
+        }
+        assertTrue(spring.isAtRest());
+        //临界阻尼不越过平衡位置，约一秒内回到中心
+        assertTrue(frames < 60);
+        assertTrue(minX > -0.5f);
+        assertTrue(maxY < 0.5f);
+        assertEquals(0, spring.getX(), 0.5);
+        assertEquals(0, spring.getY(), 0.5);
+    }
+
+    @Test
+    public void underDamped_overshootsThenSettles() throws Exception {
+        SpringIntegrator spring = new SpringIntegrator();
+        spring.setSpring(400, 0.3f);
+        spring.setPosition(100, 0);
+        float minX = Float.MAX_VALUE;
+        for (int frame = 0; frame < 30; frame++) {
+            spring.step(FRAME);
+            minX = Math.min(minX, spring.getX());
+        }
+        assertTrue(minX < -10);
+        assertTrue(framesToRest(spring, 300) > 0);
+    }
+
+    @Test
+    public void isAtRest_requiresSmallDisplacementAndVelocity() throws Exception {
+        SpringIntegrator spring = new SpringIntegrator();
+        spring.setSpring(400, 0.3f);
+        spring.setPosition(0.4f, -0.4f);
+        assertTrue(spring.isAtRest());
+        spring.setPosition(0.6f, 0);
+        assertFalse(spring.isAtRest());
+        spring.setPosition(0, 0.6f);
+        assertFalse(spring.isAtRest());
+
+        //欠阻尼时第一次越过中心，位移很小但速度很大，不能视为静止
+        spring.setPosition(100, 0);
+        while (spring.getX() > 0) {
+            spring.step(0.0002f);
+        }
+        assertTrue(Math.abs(spring.getX()) < 0.5f);
+        assertFalse(spring.isAtRest());
+    }
+
+    @Test
+    public void largeFrameGap_isSubstepped() throws Exception {
+        SpringIntegrator whole = new SpringIntegrator();
+        SpringIntegrator fine = new SpringIntegrator();
+        whole.setSpring(400, 0.5f);
+        fine.setSpring(400, 0.5f);
+        whole.setPosition(150, 80);
+        fine.setPosition(150, 80);
+        //一次前进0.2秒与按子步长逐步前进结果一致
+        whole.step(0.2f);
+        for (int i = 0; i < 50; i++) {
+            fine.step(0.004f);
+        }
+        assertEquals(fine.getX(), whole.getX(), 0.01);
+        assertEquals(fine.getY(), whole.getY(), 0.01);
+    }
+
+    @Test
+    public void stiffSpring_staysStableAcrossLongStall() throws Exception {
+        SpringIntegrator spring = new SpringIntegrator();
+        //单步0.5秒直接积分会发散，子步长积分后仍在初始位移之内并最终静止
+        spring.setSpring(10000, 0.1f);
+        spring.setPosition(100, -100);
+        spring.step(0.5f);
+        assertTrue(Math.abs(spring.getX()) <= 100);
+        assertTrue(Math.abs(spring.getY()) <= 100);
+        spring.step(2);
+        assertTrue(spring.isAtRest());
+    }
+
+    @Test
+    public void zeroOrNegativeTime_doesNothing() throws Exception {
+        SpringIntegrator spring = new SpringIntegrator();
+        spring.setPosition(30, 40);
+        spring.step(0);
+        spring.step(-1);
+        assertEquals(30, spring.getX(), 0);
+        assertEquals(40, spring.getY(), 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void nonPositiveStiffness_isRejected() throws Exception {
+        new SpringIntegrator().setSpring(0, 1);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void negativeDampingRatio_isRejected() throws Exception {
+        new SpringIntegrator().setSpring(400, -0.1f);
+    }
+}
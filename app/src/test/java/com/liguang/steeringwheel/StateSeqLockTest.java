@@ -0,0 +1,62 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link StateSeqLock} 单元测试
+ */
+public class StateSeqLockTest {
+    @Test
+    public void read_returnsLatestWrite() throws Exception {
+        StateSeqLock lock = new StateSeqLock();
+        SteeringWheelState state = new SteeringWheelState();
+        assertEquals(0, lock.read(state).getSequence());
+
+        lock.write(90, 50, JoystickEngine.UP, 0, -100, 0, 0.5f, 123);
+        lock.read(state);
+        assertEquals(90, state.getAngle(), 0);
+        assertEquals(50, state.getPower());
+        assertEquals(JoystickEngine.UP, state.getDirection());
+        assertEquals(-100, state.getY(), 0);
+        assertEquals(0, state.getAxisX(), 0);
+        assertEquals(0.5f, state.getAxisY(), 0);
+        assertEquals(123, state.getEventTimeNanos());
+        assertEquals(1, state.getSequence());
+    }
+
+    /**
+     * 写者每次写入的各字段都由同一个值推导，读者读到的快照必须自洽
+     */
+    @Test
+    public void concurrentRead_isConsistent() throws Exception {
+        final StateSeqLock lock = new StateSeqLock();
+        final int writes = 200000;
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 1; i <= writes; i++) {
+                    lock.write(i % 360, i % 101, i % 3, i, -i, 0, 0, i);
+                }
+            }
+        });
+        writer.start();
+
+        SteeringWheelState state = new SteeringWheelState();
+        long lastSequence = 0;
+        while (lastSequence < writes) {
+            lock.read(state);
+            long i = state.getEventTimeNanos();
+            assertEquals(i, state.getSequence());
+            assertEquals(i % 360, state.getAngle(), 0);
+            assertEquals(i % 101, state.getPower());
+            assertEquals(i == 0 ? JoystickEngine.INVALID : i % 3, state.getDirection());
+            assertEquals(i, state.getX(), 0);
+            assertEquals(-i, state.getY(), 0);
+            assertTrue(state.getSequence() >= lastSequence);
+            lastSequence = state.getSequence();
+        }
+        writer.join();
+    }
+}
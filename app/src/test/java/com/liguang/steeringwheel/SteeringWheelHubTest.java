@@ -0,0 +1,120 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link SteeringWheelHub} 单元测试，手动tick
+ */
+public class SteeringWheelHubTest {
+
+    private static class LockSource implements SteeringWheelStateSource {
+        final StateSeqLock mLock = new StateSeqLock();
+
+        @Override
+        public SteeringWheelState readState(SteeringWheelState out) {
+            return mLock.read(out);
+        }
+    }
+
+    private static class FrameRecorder implements SteeringWheelHub.HubListener {
+        int mFrames;
+        long mTimeNanos;
+        int mChangedCount;
+        int[] mPowers;
+        float[] mAxisXs;
+        boolean[] mChanged;
+
+        @Override
+        public void onFrame(SteeringWheelHub hub, SteeringWheelHub.Frame frame) {
+            mFrames++;
+            mTimeNanos = frame.getTimeNanos();
+            mChangedCount = frame.getChangedCount();
+            mPowers = frame.getPowers().clone();
+            mAxisXs = frame.getAxisXs().clone();
+            mChanged = frame.getChanged().clone();
+        }
+    }
+
+    @Test
+    public void tick_batchesAllControllersIntoOneFrame() throws Exception {
+        SteeringWheelHub hub = new SteeringWheelHub(4);
+        FrameRecorder recorder = new FrameRecorder();
+        hub.listener(recorder);
+        LockSource[] sources = new LockSource[3];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = new LockSource();
+            assertEquals(i, hub.register(sources[i]));
+        }
+        //多次发布只在下一次tick时合成一帧
+        for (int n = 0; n < 10; n++) {
+            sources[0].mLock.write(90, n, JoystickEngine.UP, 0, -n, 0, 0, n);
+        }
+        sources[2].mLock.write(180, 70, JoystickEngine.LEFT, -70, 0, -0.7f, 0, 5);
+        hub.tick(1000);
+        assertEquals(1, recorder.mFrames);
+        assertEquals(1000, recorder.mTimeNanos);
+        //刚注册的方向盘即使还没有发布过状态也视为改变
+        assertEquals(3, recorder.mChangedCount);
+        assertArrayEquals(new int[]{9, 0, 70, 0}, recorder.mPowers);
+        assertEquals(-0.7f, recorder.mAxisXs[2], 0);
+        assertArrayEquals(new boolean[]{true, true, true, false}, recorder.mChanged);
+
+        //没有改变时默认不回调
+        hub.tick(2000);
+        assertEquals(1, recorder.mFrames);
+        assertEquals(2, hub.getTickCount());
+        hub.deliverUnchanged(true);
+        hub.tick(3000);
+        assertEquals(2, recorder.mFrames);
+        assertEquals(0, recorder.mChangedCount);
+
+        sources[1].mLock.write(0, 40, JoystickEngine.RIGHT, 40, 0, 0, 0, 6);
+        hub.tick(4000);
+        assertArrayEquals(new int[]{9, 40, 70, 0}, recorder.mPowers);
+        assertArrayEquals(new boolean[]{false, true, false, false}, recorder.mChanged);
+    }
+
+    @Test
+    public void unregister_clearsSlotAndKeepsOthers() throws Exception {
+        SteeringWheelHub hub = new SteeringWheelHub(2);
+        FrameRecorder recorder = new FrameRecorder();
+        hub.listener(recorder);
+        LockSource first = new LockSource();
+        LockSource second = new LockSource();
+        hub.register(first);
+        assertEquals(1, hub.register(second));
+        first.mLock.write(0, 50, JoystickEngine.RIGHT, 50, 0, 0, 0, 1);
+        second.mLock.write(0, 60, JoystickEngine.RIGHT, 60, 0, 0, 0, 1);
+        hub.tick(1);
+
+        hub.unregister(first);
+        hub.tick(2);
+        assertArrayEquals(new int[]{0, 60}, recorder.mPowers);
+        assertArrayEquals(new boolean[]{true, false}, recorder.mChanged);
+
+        //空出的槽位被新的方向盘复用，即使序号相同也视为改变
+        LockSource third = new LockSource();
+        third.mLock.write(0, 30, JoystickEngine.RIGHT, 30, 0, 0, 0, 1);
+        assertEquals(0, hub.register(third));
+        hub.tick(3);
+        assertArrayEquals(new int[]{30, 60}, recorder.mPowers);
+        assertArrayEquals(new boolean[]{true, false}, recorder.mChanged);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void register_whenFull() throws Exception {
+        SteeringWheelHub hub = new SteeringWheelHub(1);
+        hub.register(new LockSource());
+        hub.register(new LockSource());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void register_twice() throws Exception {
+        SteeringWheelHub hub = new SteeringWheelHub(2);
+        LockSource source = new LockSource();
+        hub.register(source);
+        hub.register(source);
+    }
+}
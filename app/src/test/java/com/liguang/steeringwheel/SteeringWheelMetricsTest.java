@@ -0,0 +1,119 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link SteeringWheelMetrics} 单元测试
+ */
+public class SteeringWheelMetricsTest {
+
+    private static SteeringWheelMetrics filled() {
+        SteeringWheelMetrics metrics = new SteeringWheelMetrics();
+        for (int i = 0; i < 10; i++) {
+            metrics.increment(SteeringWheelMetrics.TOUCH_EVENTS);
+            metrics.increment(SteeringWheelMetrics.NOTIFY_REQUESTS);
+        }
+        for (int i = 0; i < 4; i++) {
+            metrics.increment(SteeringWheelMetrics.DELIVERIES);
+            metrics.recordDeliveryLatency((i + 1) * 1000000L);
+        }
+        metrics.increment(SteeringWheelMetrics.RESETS_STARTED);
+        metrics.increment(SteeringWheelMetrics.RESETS_CANCELLED);
+        metrics.increment(SteeringWheelMetrics.DRAWS);
+        metrics.recordDrawTime(3000);
+        return metrics;
+    }
+
+    @Test
+    public void counters_areIndependent() throws Exception {
+        SteeringWheelMetrics metrics = filled();
+        assertEquals(10, metrics.get(SteeringWheelMetrics.TOUCH_EVENTS));
+        assertEquals(10, metrics.get(SteeringWheelMetrics.NOTIFY_REQUESTS));
+        assertEquals(4, metrics.get(SteeringWheelMetrics.DELIVERIES));
+        assertEquals(1, metrics.get(SteeringWheelMetrics.RESETS_STARTED));
+        assertEquals(1, metrics.get(SteeringWheelMetrics.RESETS_CANCELLED));
+        assertEquals(1, metrics.get(SteeringWheelMetrics.DRAWS));
+        assertEquals(4, metrics.getDeliveryLatency().getCount());
+        assertEquals(1, metrics.getDrawTime().getCount());
+    }
+
+    @Test
+    public void coalescedCount_neverNegative() throws Exception {
+        SteeringWheelMetrics metrics = filled();
+        assertEquals(6, metrics.getCoalescedCount());
+        //立即通知模式下回调数可能多于被统计的请求数
+        for (int i = 0; i < 20; i++) {
+            metrics.increment(SteeringWheelMetrics.DELIVERIES);
+        }
+        assertEquals(0, metrics.getCoalescedCount());
+    }
+
+    @Test
+    public void snapshot_keepsSource() throws Exception {
+        SteeringWheelMetrics metrics = filled();
+        SteeringWheelMetrics out = new SteeringWheelMetrics();
+        assertSame(out, metrics.snapshot(out, false));
+        assertEquals(10, out.get(SteeringWheelMetrics.TOUCH_EVENTS));
+        assertEquals(4, out.get(SteeringWheelMetrics.DELIVERIES));
+        assertEquals(4000000L, out.getDeliveryLatency().getMaxNanos());
+        assertEquals(3000, out.getDrawTime().getMaxNanos());
+        assertEquals(10, metrics.get(SteeringWheelMetrics.TOUCH_EVENTS));
+        assertEquals(4, metrics.getDeliveryLatency().getCount());
+    }
+
+    @Test
+    public void snapshot_reset() throws Exception {
+        SteeringWheelMetrics metrics = filled();
+        SteeringWheelMetrics out = new SteeringWheelMetrics();
+        metrics.snapshot(out, true);
+        assertEquals(10, out.get(SteeringWheelMetrics.NOTIFY_REQUESTS));
+        assertEquals(6, out.getCoalescedCount());
+        assertEquals(2500000L, out.getDeliveryLatency().getMeanNanos());
+        assertEquals(0, metrics.get(SteeringWheelMetrics.NOTIFY_REQUESTS));
+        assertEquals(0, metrics.get(SteeringWheelMetrics.DRAWS));
+        assertEquals(0, metrics.getDeliveryLatency().getCount());
+        assertEquals(0, metrics.getDrawTime().getCount());
+
+        //清零后继续累计，下一次快照只包含新数据
+        metrics.increment(SteeringWheelMetrics.DRAWS);
+        metrics.snapshot(out, true);
+        assertEquals(1, out.get(SteeringWheelMetrics.DRAWS));
+        assertEquals(0, out.get(SteeringWheelMetrics.TOUCH_EVENTS));
+        assertEquals(0, out.getDeliveryLatency().getCount());
+    }
+
+    @Test
+    public void reset_clearsEverything() throws Exception {
+        SteeringWheelMetrics metrics = filled();
+        metrics.reset();
+        for (int counter = SteeringWheelMetrics.TOUCH_EVENTS; counter <= SteeringWheelMetrics.DRAWS; counter++) {
+            assertEquals(0, metrics.get(counter));
+        }
+        assertEquals(0, metrics.getDrawTime().getCount());
+        assertEquals(0, metrics.getDeliveryLatency().getMaxNanos());
+    }
+
+    @Test
+    public void concurrentIncrements_areNotLost() throws Exception {
+        final SteeringWheelMetrics metrics = new SteeringWheelMetrics();
+        final int perThread = 100000;
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        metrics.increment(SteeringWheelMetrics.TOUCH_EVENTS);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(threads.length * perThread, metrics.get(SteeringWheelMetrics.TOUCH_EVENTS));
+    }
+}
@@ -0,0 +1,242 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link SteeringWheelPublisher} 和 {@link StateOperator} 单元测试，除多线程执行器的用例外在当前线程中直接投递
+ */
+public class SteeringWheelPublisherTest {
+    private final StateSeqLock mLock = new StateSeqLock();
+    private final SteeringWheelPublisher mPublisher = new SteeringWheelPublisher(new SteeringWheelStateSource() {
+        @Override
+        public SteeringWheelState readState(SteeringWheelState out) {
+            return mLock.read(out);
+        }
+    });
+
+    private static class Recorder implements SteeringWheelPublisher.StateSubscriber {
+        final long mInitialRequest;
+        SteeringWheelPublisher.Subscription mSubscription;
+        final List<double[]> mReceived = new ArrayList<>();
+
+        Recorder(long initialRequest) {
+            mInitialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(SteeringWheelPublisher.Subscription subscription) {
+            mSubscription = subscription;
+            if (mInitialRequest > 0) {
+                subscription.request(mInitialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(SteeringWheelState state) {
+            mReceived.add(new double[]{state.getAngle(), state.getPower(), state.getDirection(),
+                    state.getEventTimeNanos() / 1000000L});
+        }
+    }
+
+    private void publish(double angle, int power, long timeMillis) {
+        mLock.write(angle, power, JoystickEngine.RIGHT, 0, 0, 0, 0, timeMillis * 1000000L);
+        mPublisher.publish();
+    }
+
+    @Test
+    public void zeroDemand_conflatesToLatest() throws Exception {
+        Recorder recorder = new Recorder(0);
+        mPublisher.subscribe(recorder, null);
+        for (int i = 1; i <= 10; i++) {
+            publish(i, i, i);
+        }
+        assertEquals(0, recorder.mReceived.size());
+        assertEquals(10, recorder.mSubscription.getOfferedCount());
+
+        recorder.mSubscription.request(3);
+        assertEquals(1, recorder.mReceived.size());
+        assertEquals(10, recorder.mReceived.get(0)[1], 0);
+        //没有新状态时不重复投递，需求保留
+        assertEquals(2, recorder.mSubscription.getDemand());
+
+        publish(11, 11, 11);
+        publish(12, 12, 12);
+        publish(13, 13, 13);
+        assertEquals(3, recorder.mReceived.size());
+        assertEquals(12, recorder.mReceived.get(2)[1], 0);
+        assertEquals(0, recorder.mSubscription.getDemand());
+    }
+
+    @Test
+    public void unboundedDemand_deliversEveryState() throws Exception {
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        mPublisher.subscribe(recorder, null);
+        for (int i = 1; i <= 100; i++) {
+            publish(i, i % 101, i);
+        }
+        assertEquals(100, recorder.mReceived.size());
+        assertEquals(Long.MAX_VALUE, recorder.mSubscription.getDemand());
+    }
+
+    @Test
+    public void cancel_stopsDelivery() throws Exception {
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        mPublisher.subscribe(recorder, null);
+        publish(1, 1, 1);
+        recorder.mSubscription.cancel();
+        assertEquals(0, mPublisher.getSubscriptionCount());
+        publish(2, 2, 2);
+        assertEquals(1, recorder.mReceived.size());
+    }
+
+    @Test
+    public void sample_throttlesByEventTimeButKeepsRelease() throws Exception {
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        mPublisher.subscribe(recorder, null, StateOperator.sample(10));
+        for (int t = 0; t < 35; t++) {
+            publish(90, 50, t);
+        }
+        publish(0, 0, 36);
+        assertEquals(5, recorder.mReceived.size());
+        assertEquals(0, recorder.mReceived.get(0)[3], 0);
+        assertEquals(30, recorder.mReceived.get(3)[3], 0);
+        assertEquals(0, recorder.mReceived.get(4)[1], 0);
+    }
+
+    @Test
+    public void distinct_dropsRepeatedIntegerState() throws Exception {
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        mPublisher.subscribe(recorder, null, StateOperator.distinct());
+        publish(10.2, 50, 1);
+        publish(10.7, 50, 2);
+        publish(11.1, 50, 3);
+        publish(11.9, 51, 4);
+        assertEquals(3, recorder.mReceived.size());
+    }
+
+    @Test
+    public void window_aggregatesMaxPowerAndMeanAngle() throws Exception {
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        mPublisher.subscribe(recorder, null, StateOperator.window(100));
+        publish(350, 20, 0);
+        publish(10, 80, 50);
+        publish(30, 40, 99);
+        publish(180, 30, 100);
+        assertEquals(1, recorder.mReceived.size());
+        double[] first = recorder.mReceived.get(0);
+        //350、10、30的平均方向约为10度
+        assertEquals(10, first[0], 1);
+        assertEquals(80, first[1], 0);
+        assertEquals(99, first[3], 0);
+
+        publish(90, 10, 250);
+        assertEquals(2, recorder.mReceived.size());
+        assertEquals(180, recorder.mReceived.get(1)[0], 1e-9);
+        assertEquals(30, recorder.mReceived.get(1)[1], 0);
+    }
+
+    @Test
+    public void window_deliversReleaseImmediately() throws Exception {
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        mPublisher.subscribe(recorder, null, StateOperator.window(100));
+        publish(90, 60, 100);
+        publish(90, 60, 200);
+        assertEquals(1, recorder.mReceived.size());
+
+        //松开不等下一次触摸，立即投递，未结束的窗口丢弃
+        publish(0, 0, 260);
+        assertEquals(2, recorder.mReceived.size());
+        double[] release = recorder.mReceived.get(1);
+        assertEquals(0, release[1], 0);
+        assertEquals(260, release[3], 0);
+
+        //之后重新开始窗口
+        publish(180, 40, 400);
+        publish(180, 50, 520);
+        assertEquals(3, recorder.mReceived.size());
+        assertEquals(40, recorder.mReceived.get(2)[1], 0);
+        assertEquals(400, recorder.mReceived.get(2)[3], 0);
+    }
+
+    @Test
+    public void operators_areChained() throws Exception {
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        mPublisher.subscribe(recorder, null, StateOperator.sample(10), StateOperator.distinct());
+        for (int t = 0; t < 100; t++) {
+            publish(45, 50, t);
+        }
+        assertEquals(1, recorder.mReceived.size());
+    }
+
+    @Test
+    public void multiThreadExecutor_neverDeliversConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger overlapped = new AtomicInteger();
+        final AtomicInteger received = new AtomicInteger();
+        final SteeringWheelPublisher.Subscription[] holder = new SteeringWheelPublisher.Subscription[1];
+        mPublisher.subscribe(new SteeringWheelPublisher.StateSubscriber() {
+            @Override
+            public void onSubscribe(SteeringWheelPublisher.Subscription subscription) {
+                holder[0] = subscription;
+            }
+
+            @Override
+            public void onNext(SteeringWheelState state) {
+                if (active.incrementAndGet() > 1) {
+                    overlapped.incrementAndGet();
+                }
+                received.incrementAndGet();
+                //拉长回调，让其他线程有机会在投递期间安排投递
+                long end = System.nanoTime() + 20000;
+                while (System.nanoTime() < end) {
+                    Thread.yield();
+                }
+                active.decrementAndGet();
+            }
+        }, executor);
+        final SteeringWheelPublisher.Subscription subscription = holder[0];
+
+        //发布线程和多个请求线程同时安排投递
+        final int requests = 2000;
+        Thread[] requesters = new Thread[4];
+        for (int i = 0; i < requesters.length; i++) {
+            requesters[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int n = 0; n < requests / 4; n++) {
+                        subscription.request(1);
+                    }
+                }
+            });
+            requesters[i].start();
+        }
+        for (int i = 1; i <= 20000; i++) {
+            publish(i % 360, i % 101, i);
+        }
+        for (Thread requester : requesters) {
+            requester.join();
+        }
+        //最后一个状态保证还有未满足的需求时能继续投递
+        for (int i = 0; i < 100 && subscription.getDemand() > 0; i++) {
+            publish(1, 1, 20000 + i);
+            Thread.sleep(5);
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(0, overlapped.get());
+        assertTrue(subscription.getDemand() >= 0);
+        assertEquals(received.get(), subscription.getDeliveredCount());
+        assertEquals(requests, subscription.getDeliveredCount() + subscription.getDemand());
+    }
+}
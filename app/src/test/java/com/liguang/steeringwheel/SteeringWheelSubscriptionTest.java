@@ -0,0 +1,140 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link SteeringWheelSubscription} 单元测试，view为null，直接调用 onState 和 onPressed
+ */
+public class SteeringWheelSubscriptionTest {
+
+    private static class Recorder implements SteeringWheelView.SteeringWheelListener,
+            SteeringWheelView.SteeringWheelPressListener {
+        final List<int[]> mStates = new ArrayList<>();
+        final List<Boolean> mPressed = new ArrayList<>();
+
+        @Override
+        public void onStatusChanged(SteeringWheelView view, int angle, int power, int direction) {
+            mStates.add(new int[]{angle, power, direction});
+        }
+
+        @Override
+        public void onPressedChanged(SteeringWheelView view, boolean pressed) {
+            mPressed.add(pressed);
+        }
+    }
+
+    @Test
+    public void powerThresholds_firesOnBandChangeBothWays() throws Exception {
+        Recorder recorder = new Recorder();
+        SteeringWheelSubscription subscription = SteeringWheelSubscription.powerThresholds(recorder, 50, 20, 80);
+        int[] powers = {0, 10, 19, 20, 35, 49, 50, 79, 80, 100, 81, 79, 21, 19, 0};
+        for (int power : powers) {
+            subscription.onState(null, 90, power, JoystickEngine.UP);
+        }
+        //区段：[0,20) [20,50) [50,80) [80,100]，阈值乱序也按力度排列
+        int[] expected = {20, 50, 80, 79, 21, 19};
+        assertEquals(expected.length, recorder.mStates.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], recorder.mStates.get(i)[1]);
+        }
+    }
+
+    @Test
+    public void powerThresholds_clampsOutOfRangePower() throws Exception {
+        Recorder recorder = new Recorder();
+        SteeringWheelSubscription subscription = SteeringWheelSubscription.powerThresholds(recorder, 100);
+        subscription.onState(null, 0, -5, JoystickEngine.RIGHT);
+        subscription.onState(null, 0, 130, JoystickEngine.RIGHT);
+        subscription.onState(null, 0, 100, JoystickEngine.RIGHT);
+        assertEquals(1, recorder.mStates.size());
+        assertEquals(130, recorder.mStates.get(0)[1]);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void powerThresholds_rejectsZero() throws Exception {
+        SteeringWheelSubscription.powerThresholds(new Recorder(), 0);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void powerThresholds_rejectsEmpty() throws Exception {
+        SteeringWheelSubscription.powerThresholds(new Recorder());
+    }
+
+    @Test
+    public void angleDelta_firstStateAlwaysFires() throws Exception {
+        Recorder recorder = new Recorder();
+        SteeringWheelSubscription subscription = SteeringWheelSubscription.angleDelta(recorder, 10);
+        //上一次角度为NaN时差值也是NaN，不能被当作小于阈值
+        subscription.onState(null, 0, 50, JoystickEngine.RIGHT);
+        assertEquals(1, recorder.mStates.size());
+        subscription.onState(null, 9.9, 50, JoystickEngine.RIGHT);
+        assertEquals(1, recorder.mStates.size());
+        subscription.onState(null, 10, 50, JoystickEngine.RIGHT);
+        assertEquals(2, recorder.mStates.size());
+    }
+
+    @Test
+    public void angleDelta_wrapsAcrossZero() throws Exception {
+        Recorder recorder = new Recorder();
+        SteeringWheelSubscription subscription = SteeringWheelSubscription.angleDelta(recorder, 10);
+        subscription.onState(null, 355, 50, JoystickEngine.RIGHT);
+        //355到3只差8度
+        subscription.onState(null, 3, 50, JoystickEngine.RIGHT);
+        assertEquals(1, recorder.mStates.size());
+        //355到6差11度
+        subscription.onState(null, 6, 50, JoystickEngine.RIGHT);
+        assertEquals(2, recorder.mStates.size());
+        assertEquals(6, recorder.mStates.get(1)[0]);
+        //反方向同样
+        subscription.onState(null, 357, 50, JoystickEngine.RIGHT);
+        assertEquals(2, recorder.mStates.size());
+        subscription.onState(null, 355.5, 50, JoystickEngine.RIGHT);
+        assertEquals(3, recorder.mStates.size());
+    }
+
+    @Test
+    public void angleDelta_measuresFromLastFiredAngle() throws Exception {
+        Recorder recorder = new Recorder();
+        SteeringWheelSubscription subscription = SteeringWheelSubscription.angleDelta(recorder, 10);
+        for (int angle = 0; angle <= 30; angle++) {
+            subscription.onState(null, angle, 50, JoystickEngine.RIGHT);
+        }
+        //缓慢转动时不会因为每次只差1度而漏掉
+        assertEquals(4, recorder.mStates.size());
+        assertEquals(30, recorder.mStates.get(3)[0]);
+    }
+
+    @Test
+    public void directionChanged_firesOnlyOnChange() throws Exception {
+        Recorder recorder = new Recorder();
+        SteeringWheelSubscription subscription = SteeringWheelSubscription.directionChanged(recorder);
+        subscription.onState(null, 0, 0, JoystickEngine.INVALID);
+        assertEquals(0, recorder.mStates.size());
+        subscription.onState(null, 10, 50, JoystickEngine.RIGHT);
+        subscription.onState(null, 20, 60, JoystickEngine.RIGHT);
+        subscription.onState(null, 80, 60, JoystickEngine.UP);
+        subscription.onState(null, 0, 0, JoystickEngine.INVALID);
+        assertEquals(3, recorder.mStates.size());
+        assertEquals(JoystickEngine.RIGHT, recorder.mStates.get(0)[2]);
+        assertEquals(JoystickEngine.UP, recorder.mStates.get(1)[2]);
+        assertEquals(JoystickEngine.INVALID, recorder.mStates.get(2)[2]);
+    }
+
+    @Test
+    public void pressed_ignoresStateChanges() throws Exception {
+        Recorder recorder = new Recorder();
+        SteeringWheelSubscription subscription = SteeringWheelSubscription.pressed(recorder);
+        subscription.onState(null, 10, 50, JoystickEngine.RIGHT);
+        subscription.onPressed(null, true);
+        subscription.onPressed(null, false);
+        assertEquals(0, recorder.mStates.size());
+        assertEquals(2, recorder.mPressed.size());
+        assertTrue(recorder.mPressed.get(0));
+        assertFalse(recorder.mPressed.get(1));
+    }
+}
@@ -0,0 +1,41 @@
+package com.liguang.steeringwheel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link TraceRecorder} 单元测试
+ */
+public class TraceRecorderTest {
+
+    @Test
+    public void record_keepsOrder() throws Exception {
+        TraceRecorder trace = new TraceRecorder(4);
+        trace.record(100, TraceRecorder.EVENT_TOUCH, 0, 1.5f, 2.5f);
+        trace.record(200, TraceRecorder.EVENT_DELIVER, 50, 90, 1);
+        assertEquals(2, trace.size());
+        assertEquals(100, trace.getTimeNanos(0));
+        assertEquals(TraceRecorder.EVENT_TOUCH, trace.getType(0));
+        assertEquals(2.5f, trace.getValueB(0), 0);
+        assertEquals(50, trace.getArg(1));
+        assertEquals(90, trace.getValueA(1), 0);
+    }
+
+    @Test
+    public void record_overwritesOldest() throws Exception {
+        TraceRecorder trace = new TraceRecorder(3);
+        assertEquals(4, trace.capacity());
+        for (int i = 0; i < 10; i++) {
+            trace.record(i, TraceRecorder.EVENT_TOUCH, i, 0, 0);
+        }
+        assertEquals(4, trace.size());
+        assertEquals(10, trace.getRecordedCount());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(6 + i, trace.getArg(i));
+        }
+        String dump = trace.dump();
+        assertTrue(dump.startsWith("... 6 earlier events dropped"));
+        assertTrue(dump.contains("+0us touch 6"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.liguang.steeringwheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * 增量压缩编解码的吞吐量，每次操作为一个采样
+ */
+@State(Scope.Thread)
+public class DeltaStreamBenchmark {
+    private static final int SAMPLES = 4096;
+
+    private final long[] mTime = new long[SAMPLES];
+    private final float[] mX = new float[SAMPLES];
+    private final float[] mY = new float[SAMPLES];
+    private final double[] mAngle = new double[SAMPLES];
+    private final int[] mPower = new int[SAMPLES];
+    private final int[] mDirection = new int[SAMPLES];
+    private final ByteBuffer mBuffer = ByteBuffer.allocateDirect(SAMPLES * DeltaStreamEncoder.MAX_FRAME_SIZE);
+    private final ByteBuffer mEncoded = ByteBuffer.allocateDirect(SAMPLES * DeltaStreamEncoder.MAX_FRAME_SIZE);
+    private final SampleRingBuffer.SampleHandler mHandler = new SampleRingBuffer.SampleHandler() {
+        @Override
+        public void onSample(long timeNanos, float x, float y, float angle, int power, int direction) {
+            mChecksum += power;
+        }
+    };
+    private long mChecksum;
+
+    @Setup
+    public void setUp() {
+        //随机拖动的轨迹，采样间隔约8ms
+        Random random = new Random(42);
+        JoystickEngine engine = new JoystickEngine();
+        engine.setGeometry(0, 0, 200);
+        float fingerX = 0;
+        float fingerY = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            fingerX += random.nextFloat() * 6 - 3;
+            fingerY += random.nextFloat() * 6 - 3;
+            engine.update(fingerX, fingerY);
+            mTime[i] = 1000000000L + i * 8000000L;
+            mX[i] = engine.getBallX();
+            mY[i] = engine.getBallY();
+            mAngle[i] = engine.getAngle();
+            mPower[i] = engine.getPower();
+            mDirection[i] = engine.getDirection();
+        }
+        DeltaStreamEncoder encoder = new DeltaStreamEncoder(64, 0, 0, 0);
+        for (int i = 0; i < SAMPLES; i++) {
+            encoder.encode(mTime[i], mX[i], mY[i], mAngle[i], mPower[i], mDirection[i], mEncoded);
+        }
+        mEncoded.flip();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public int encode() {
+        DeltaStreamEncoder encoder = new DeltaStreamEncoder(64, 0, 0, 0);
+        mBuffer.clear();
+        for (int i = 0; i < SAMPLES; i++) {
+            encoder.encode(mTime[i], mX[i], mY[i], mAngle[i], mPower[i], mDirection[i], mBuffer);
+        }
+        return mBuffer.position();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public long decode() {
+        DeltaStreamDecoder decoder = new DeltaStreamDecoder();
+        mEncoded.rewind();
+        decoder.decode(mEncoded, mHandler);
+        return mChecksum;
+    }
+}
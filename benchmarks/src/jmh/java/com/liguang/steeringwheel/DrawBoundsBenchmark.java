@@ -0,0 +1,48 @@
+package com.liguang.steeringwheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * onDraw 中的边界计算，使用xxhdpi下48dp图片的尺寸
+ */
+@State(Scope.Thread)
+public class DrawBoundsBenchmark {
+    private static final int SAMPLES = 1024;
+
+    private final DrawBoundsStub mStub = new DrawBoundsStub(144, 144, 144, 144);
+    private final JoystickEngine mEngine = new JoystickEngine();
+    private final float[] mXs = new float[SAMPLES];
+    private final float[] mYs = new float[SAMPLES];
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mEngine.setGeometry(300, 300, 156);
+        for (int i = 0; i < SAMPLES; i++) {
+            double theta = Math.PI * 2 * i / SAMPLES;
+            mXs[i] = (int) (300 + Math.cos(theta) * 250);
+            mYs[i] = (int) (300 - Math.sin(theta) * 250);
+        }
+    }
+
+    @Benchmark
+    public int ballBounds() {
+        int i = mIndex++ & (SAMPLES - 1);
+        mStub.ballBounds(mXs[i], mYs[i]);
+        return mStub.left + mStub.bottom;
+    }
+
+    /**
+     * 一次完整的移动：几何计算加上绘制所需的边界
+     */
+    @Benchmark
+    public int moveAndBounds() {
+        int i = mIndex++ & (SAMPLES - 1);
+        mEngine.update(mXs[i], mYs[i]);
+        mStub.ballBounds(mEngine.getBallX(), mEngine.getBallY());
+        return mStub.left + mStub.bottom;
+    }
+}
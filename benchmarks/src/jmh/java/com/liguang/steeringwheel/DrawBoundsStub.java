@@ -0,0 +1,42 @@
+package com.liguang.steeringwheel;
+
+/**
+ * SteeringWheelView 绘制时计算球和箭头边界的无界面替身，用基本类型字段代替Rect和Drawable
+ */
+class DrawBoundsStub {
+    private final int mBallWidth;
+    private final int mBallHeight;
+    private final int mArrowWidth;
+    private final int mArrowHeight;
+    int left;
+    int top;
+    int right;
+    int bottom;
+
+    DrawBoundsStub(int ballWidth, int ballHeight, int arrowWidth, int arrowHeight) {
+        mBallWidth = ballWidth;
+        mBallHeight = ballHeight;
+        mArrowWidth = arrowWidth;
+        mArrowHeight = arrowHeight;
+    }
+
+    /**
+     * 对应 drawBall 中的 setBounds
+     */
+    void ballBounds(float ballX, float ballY) {
+        left = (int) (ballX - mBallWidth / 2);
+        top = (int) (ballY - mBallHeight / 2);
+        right = (int) (ballX + mBallWidth / 2);
+        bottom = (int) (ballY + mBallHeight / 2);
+    }
+
+    /**
+     * 对应 onSizeChanged 中箭头的 setBounds
+     */
+    void arrowBounds(float centerX, float centerY, float radius) {
+        left = (int) (centerX + radius - mArrowWidth / 2);
+        top = (int) (centerY - mArrowHeight / 2);
+        right = (int) (centerX + radius + mArrowWidth / 2);
+        bottom = (int) (centerY + mArrowHeight / 2);
+    }
+}
@@ -0,0 +1,58 @@
+package com.liguang.steeringwheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link SteeringWheelHub} 每次tick的耗时，gc.alloc.rate.norm 应为0。
+ * 每次tick前有四分之一的方向盘发布了新状态
+ */
+@State(Scope.Thread)
+public class HubBenchmark {
+    @Param({"4", "16"})
+    public int controllers;
+
+    private SteeringWheelHub mHub;
+    private StateSeqLock[] mLocks;
+    private long mTimeNanos;
+    private int mPowerSum;
+
+    @Setup
+    public void setUp() {
+        mHub = new SteeringWheelHub(controllers);
+        mLocks = new StateSeqLock[controllers];
+        for (int i = 0; i < controllers; i++) {
+            final StateSeqLock lock = new StateSeqLock();
+            mLocks[i] = lock;
+            mHub.register(new SteeringWheelStateSource() {
+                @Override
+                public SteeringWheelState readState(SteeringWheelState out) {
+                    return lock.read(out);
+                }
+            });
+        }
+        mHub.listener(new SteeringWheelHub.HubListener() {
+            @Override
+            public void onFrame(SteeringWheelHub hub, SteeringWheelHub.Frame frame) {
+                int[] powers = frame.getPowers();
+                for (int i = 0; i < powers.length; i++) {
+                    mPowerSum += powers[i];
+                }
+            }
+        });
+    }
+
+    @Benchmark
+    public int tick() {
+        mTimeNanos += 4000000L;
+        int start = (int) (mTimeNanos / 4000000L) & 3;
+        for (int i = start; i < controllers; i += 4) {
+            mLocks[i].write(90, i, JoystickEngine.UP, 0, -i, 0, 0, mTimeNanos);
+        }
+        mHub.tick(mTimeNanos);
+        return mPowerSum;
+    }
+}
@@ -0,0 +1,81 @@
+package com.liguang.steeringwheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * 滤波器每个采样的耗时。试验结束时打印500px/s匀速移动下的滞后，即滤波带来的额外延迟
+ */
+@State(Scope.Thread)
+public class InputFilterBenchmark {
+    private static final int SAMPLES = 4096;
+    private static final long INTERVAL_NANOS = 8000000L;
+
+    @Param({"exponential", "oneEuro", "prediction", "oneEuroPrediction"})
+    public String filter;
+
+    private final long[] mTime = new long[SAMPLES];
+    private final float[] mX = new float[SAMPLES];
+    private final float[] mY = new float[SAMPLES];
+    private InputFilterChain mChain;
+
+    private static InputFilterChain create(String name) {
+        if ("exponential".equals(name))
+            return new InputFilterChain(new ExponentialInputFilter(20));
+        if ("oneEuro".equals(name))
+            return new InputFilterChain(new OneEuroInputFilter(1, 0.02, 1));
+        if ("prediction".equals(name))
+            return new InputFilterChain(new PredictiveInputFilter(16, 5));
+        return new InputFilterChain(new OneEuroInputFilter(1, 0.02, 1), new PredictiveInputFilter(16, 5));
+    }
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        float fingerX = 0;
+        float fingerY = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            fingerX += random.nextFloat() * 6 - 3;
+            fingerY += random.nextFloat() * 6 - 3;
+            mTime[i] = 1000000000L + i * INTERVAL_NANOS;
+            mX[i] = fingerX;
+            mY[i] = fingerY;
+        }
+        mChain = create(filter);
+    }
+
+    @TearDown(Level.Trial)
+    public void reportLag() {
+        InputFilterChain chain = create(filter);
+        double speed = 500;
+        double x = 0;
+        long time = 0;
+        for (int i = 0; i < 500; i++) {
+            time += INTERVAL_NANOS;
+            x = speed * time / 1e9;
+            chain.filter(time, (float) x, 0);
+        }
+        System.out.println(String.format(Locale.US, "%n# %s lag at %.0f px/s: %.2f ms",
+                filter, speed, (x - chain.getX()) / speed * 1000));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public float filterSamples() {
+        InputFilterChain chain = mChain;
+        chain.reset();
+        for (int i = 0; i < SAMPLES; i++) {
+            chain.filter(mTime[i], mX[i], mY[i]);
+        }
+        return chain.getX();
+    }
+}
@@ -0,0 +1,84 @@
+package com.liguang.steeringwheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * 从内存映射的轨迹文件尽快回放的吞吐量，每次操作为一条记录。
+ * 轨迹默认为随机拖动，32MB，也可以通过 -Dtrace=路径 回放现场录制的文件
+ */
+@State(Scope.Thread)
+public class InputTraceReplayBenchmark {
+    private static final int RECORDS = 1 << 20;
+
+    private File mFile;
+    private boolean mTemporary;
+    private InputTraceReader mReader;
+    private final JoystickEngine mEngine = new JoystickEngine();
+    private final InputTraceReplayer mReplayer = new InputTraceReplayer(mEngine);
+    private final InputTraceReplayer mNotifyReplayer = new InputTraceReplayer(mEngine).notifyInterval(16);
+
+    @Setup
+    public void setUp() throws IOException {
+        String path = System.getProperty("trace");
+        if (path != null) {
+            mFile = new File(path);
+        } else {
+            mFile = File.createTempFile("replay", ".trace");
+            mTemporary = true;
+            writeRandomTrace(mFile);
+        }
+        mReader = new InputTraceReader(mFile);
+    }
+
+    private static void writeRandomTrace(File file) throws IOException {
+        Random random = new Random(42);
+        JoystickEngine engine = new JoystickEngine();
+        engine.setGeometry(300, 300, 200);
+        InputTraceWriter writer = new InputTraceWriter(file);
+        writer.recordGeometry(0, 300, 300, 200);
+        float fingerX = 300;
+        float fingerY = 300;
+        for (int i = 1; i < RECORDS; i++) {
+            fingerX += random.nextFloat() * 6 - 3;
+            fingerY += random.nextFloat() * 6 - 3;
+            engine.update(fingerX, fingerY);
+            writer.record(1000000000L + i * 8000000L, InputTraceWriter.KIND_TOUCH, fingerX, fingerY, engine);
+        }
+        writer.close();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mReader.close();
+        if (mTemporary) {
+            mFile.delete();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long replay() throws Exception {
+        mReader.rewind();
+        return mReplayer.replay(mReader, false);
+    }
+
+    /**
+     * 回放同时按轨迹时间经过通知合并
+     */
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long replayWithNotify() throws Exception {
+        mReader.rewind();
+        mNotifyReplayer.replay(mReader, false);
+        return mNotifyReplayer.getDeliveredCount();
+    }
+}
@@ -0,0 +1,61 @@
+package com.liguang.steeringwheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 录制轨迹时每条记录的耗时，每次操作为一条触摸记录。
+ * 每次调用写入新文件，包含首次写入时的缺页，不包含创建映射和关闭时的截断
+ */
+@State(Scope.Thread)
+public class InputTraceWriteBenchmark {
+    /**
+     * 每次调用写入的记录数，8MB
+     */
+    private static final int RECORDS = 1 << 18;
+
+    private File mFile;
+    private InputTraceWriter mWriter;
+    private final JoystickEngine mEngine = new JoystickEngine();
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        mFile = File.createTempFile("write", ".trace");
+        mEngine.setGeometry(300, 300, 200);
+        mEngine.update(350, 260);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+        mWriter = new InputTraceWriter(mFile, RECORDS);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException {
+        mWriter.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        mFile.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long record() {
+        InputTraceWriter writer = mWriter;
+        JoystickEngine engine = mEngine;
+        for (int i = 0; i < RECORDS; i++) {
+            writer.record(i * 8000000L, InputTraceWriter.KIND_TOUCH, 350, 260, engine);
+        }
+        return writer.getRecordCount();
+    }
+}
@@ -0,0 +1,64 @@
+package com.liguang.steeringwheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * {@link JoystickEngine} 几何计算，对应 SteeringWheelView 中的 updateBallData / updatePower / updateDirection
+ */
+@State(Scope.Thread)
+public class JoystickEngineBenchmark {
+    private static final int SAMPLES = 1024;
+    private static final float CENTER = 300;
+    private static final float RANGE = 200;
+
+    /**
+     * inside: 触摸点都在范围内；outside: 都在范围外，需要限制；mixed: 两者各半
+     */
+    @Param({"inside", "outside", "mixed"})
+    public String distribution;
+
+    private final JoystickEngine mEngine = new JoystickEngine();
+    private final float[] mXs = new float[SAMPLES];
+    private final float[] mYs = new float[SAMPLES];
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mEngine.setGeometry(CENTER, CENTER, RANGE);
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            double distance;
+            if ("inside".equals(distribution)) {
+                distance = random.nextDouble() * RANGE * 0.99;
+            } else if ("outside".equals(distribution)) {
+                distance = RANGE * (1.01 + random.nextDouble());
+            } else {
+                distance = random.nextDouble() * RANGE * 2;
+            }
+            double theta = random.nextDouble() * Math.PI * 2;
+            //与触摸事件一致，截断为整数像素
+            mXs[i] = (int) (CENTER + Math.cos(theta) * distance);
+            mYs[i] = (int) (CENTER - Math.sin(theta) * distance);
+        }
+    }
+
+    @Benchmark
+    public int update() {
+        int i = mIndex++ & (SAMPLES - 1);
+        mEngine.update(mXs[i], mYs[i]);
+        return mEngine.getPower() + mEngine.getDirection();
+    }
+
+    @Benchmark
+    public int setBall() {
+        int i = mIndex++ & (SAMPLES - 1);
+        mEngine.setBall(mXs[i], mYs[i]);
+        return mEngine.getPower() + mEngine.getDirection();
+    }
+}
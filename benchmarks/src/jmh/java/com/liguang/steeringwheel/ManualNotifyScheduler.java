@@ -0,0 +1,41 @@
+package com.liguang.steeringwheel;
+
+/**
+ * 无界面的 {@link NotifyScheduler}，用计数代替消息投递，时间由调用方推进
+ */
+class ManualNotifyScheduler extends NotifyScheduler {
+    private long mNow;
+    /**
+     * 待执行通知的到期时间
+     */
+    private long mDueAt;
+    int postCount;
+    int deliverCount;
+
+    ManualNotifyScheduler(long intervalMillis) {
+        setInterval(intervalMillis);
+        setTarget(new Target() {
+            @Override
+            public void deliver(long timeNanos) {
+                deliverCount++;
+            }
+        });
+    }
+
+    void advanceTo(long nowNanos) {
+        mNow = nowNanos;
+        if (isPending() && mDueAt <= nowNanos) {
+            dispatch(nowNanos);
+        }
+    }
+
+    @Override
+    protected void onRequest() {
+        postCount++;
+        mDueAt = mNow + remainingNanos(mNow);
+    }
+
+    @Override
+    protected void onCancel() {
+    }
+}
@@ -0,0 +1,49 @@
+package com.liguang.steeringwheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * notifyStatusChanged 节流逻辑。每次操作模拟一个触摸事件，事件间隔为 eventIntervalMs
+ */
+@State(Scope.Thread)
+public class NotifyThrottleBenchmark {
+    @Param({"16"})
+    public long notifyInterval;
+
+    @Param({"4", "8"})
+    public long eventIntervalMs;
+
+    private PostDelayedThrottleStub mPostDelayed;
+    private ManualNotifyScheduler mCoalescing;
+    private long mNow;
+
+    @Setup
+    public void setUp() {
+        mPostDelayed = new PostDelayedThrottleStub(notifyInterval);
+        mCoalescing = new ManualNotifyScheduler(notifyInterval);
+        mNow = 0;
+    }
+
+    @Benchmark
+    public int postDelayed() {
+        mNow += eventIntervalMs;
+        mPostDelayed.dispatch(mNow);
+        mPostDelayed.notifyStatusChanged(mNow);
+        return mPostDelayed.postCount;
+    }
+
+    /**
+     * {@link NotifyScheduler} 的合并逻辑，已有待执行通知时不再投递
+     */
+    @Benchmark
+    public int coalescing() {
+        mNow += eventIntervalMs;
+        mCoalescing.advanceTo(mNow * 1000000L);
+        mCoalescing.request();
+        return mCoalescing.postCount;
+    }
+}
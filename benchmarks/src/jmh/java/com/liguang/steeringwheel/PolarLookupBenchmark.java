@@ -0,0 +1,77 @@
+package com.liguang.steeringwheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+
+/**
+ * {@link PolarLookupTable} 查表与精确计算的单次耗时，以及不同范围下构建表的耗时和内存
+ */
+@State(Scope.Thread)
+public class PolarLookupBenchmark {
+    private static final int SAMPLES = 1024;
+    private static final float CENTER = 1000;
+
+    /**
+     * 球心可偏离中心的最大距离，像素
+     */
+    @Param({"100", "200", "400"})
+    public int range;
+
+    private final JoystickEngine mExact = new JoystickEngine();
+    private final JoystickEngine mLookup = new JoystickEngine();
+    private final float[] mXs = new float[SAMPLES];
+    private final float[] mYs = new float[SAMPLES];
+    private PolarLookupTable mTable;
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mExact.setGeometry(CENTER, CENTER, range);
+        mLookup.setGeometry(CENTER, CENTER, range);
+        mTable = new PolarLookupTable(range, range + range / 4);
+        mLookup.setPolarLookup(mTable);
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            //一半在范围内，一半需要限制到边界
+            double distance = random.nextDouble() * range * 1.25;
+            double theta = random.nextDouble() * Math.PI * 2;
+            mXs[i] = (int) (CENTER + Math.cos(theta) * distance);
+            mYs[i] = (int) (CENTER - Math.sin(theta) * distance);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void printMemory() {
+        System.out.println("\nrange " + range + " extent " + mTable.getExtent()
+                + " table " + mTable.getMemoryBytes() / 1024 + " KB");
+    }
+
+    @Benchmark
+    public int exact() {
+        int i = mIndex++ & (SAMPLES - 1);
+        mExact.update(mXs[i], mYs[i]);
+        return mExact.getPower() + mExact.getDirection();
+    }
+
+    @Benchmark
+    public int lookup() {
+        int i = mIndex++ & (SAMPLES - 1);
+        mLookup.update(mXs[i], mYs[i]);
+        return mLookup.getPower() + mLookup.getDirection();
+    }
+
+    /**
+     * 布局时在后台线程中的一次性开销
+     */
+    @Benchmark
+    public PolarLookupTable build() {
+        return new PolarLookupTable(range, range + range / 4);
+    }
+}
@@ -0,0 +1,50 @@
+package com.liguang.steeringwheel;
+
+/**
+ * SteeringWheelView.notifyStatusChanged 节流逻辑的无界面替身。
+ * <p>
+ * 用计数代替Handler的 removeCallbacks / postDelayed，时间由调用方传入，
+ * 消息到期后由 {@link #dispatch(long)} 模拟Looper执行。
+ */
+class PostDelayedThrottleStub {
+    private final long mNotifyInterval;
+    private long mLastNotifyTime;
+    private boolean mCreated;
+    /**
+     * 待执行消息的到期时间，-1表示没有
+     */
+    private long mPendingAt = -1;
+    int removeCount;
+    int postCount;
+    int deliverCount;
+
+    PostDelayedThrottleStub(long notifyInterval) {
+        mNotifyInterval = notifyInterval;
+    }
+
+    void notifyStatusChanged(long now) {
+        long delay = 0;
+        if (!mCreated) {
+            mCreated = true;
+        } else {
+            if (now - mLastNotifyTime < mNotifyInterval) {
+                removeCount++;
+                mPendingAt = -1;
+                delay = mNotifyInterval - (now - mLastNotifyTime);
+            }
+        }
+        postCount++;
+        //Handler中只保留最新的一条，旧消息已被移除或先于新消息执行
+        if (mPendingAt < 0 || now + delay < mPendingAt) {
+            mPendingAt = now + delay;
+        }
+    }
+
+    void dispatch(long now) {
+        if (mPendingAt >= 0 && mPendingAt <= now) {
+            mPendingAt = -1;
+            mLastNotifyTime = now;
+            deliverCount++;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.liguang.steeringwheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * {@link JoystickEngine} 各计算精度的耗时，以及单独的角度计算
+ */
+@State(Scope.Thread)
+public class PrecisionBenchmark {
+    private static final int SAMPLES = 1024;
+    private static final float CENTER = 300;
+    private static final float RANGE = 200;
+
+    @Param({"exact", "high", "low"})
+    public String precision;
+
+    private final JoystickEngine mEngine = new JoystickEngine();
+    private final float[] mXs = new float[SAMPLES];
+    private final float[] mYs = new float[SAMPLES];
+    private int mPrecision;
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        if ("high".equals(precision)) {
+            mPrecision = JoystickEngine.PRECISION_HIGH;
+        } else if ("low".equals(precision)) {
+            mPrecision = JoystickEngine.PRECISION_LOW;
+        } else {
+            mPrecision = JoystickEngine.PRECISION_EXACT;
+        }
+        mEngine.setGeometry(CENTER, CENTER, RANGE);
+        mEngine.setPrecision(mPrecision);
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            //全部在范围内，力度走距离平方比较
+            double distance = random.nextDouble() * RANGE * 0.99;
+            double theta = random.nextDouble() * Math.PI * 2;
+            mXs[i] = (int) (CENTER + Math.cos(theta) * distance);
+            mYs[i] = (int) (CENTER - Math.sin(theta) * distance);
+        }
+    }
+
+    @Benchmark
+    public int update() {
+        int i = mIndex++ & (SAMPLES - 1);
+        mEngine.update(mXs[i], mYs[i]);
+        return mEngine.getPower() + mEngine.getDirection();
+    }
+
+    @Benchmark
+    public double atan2() {
+        int i = mIndex++ & (SAMPLES - 1);
+        double y = CENTER - mYs[i];
+        double x = mXs[i] - CENTER;
+        switch (mPrecision) {
+            case JoystickEngine.PRECISION_HIGH:
+                return FastAtan2.high(y, x);
+            case JoystickEngine.PRECISION_LOW:
+                return FastAtan2.low(y, x);
+            default:
+                return Math.toDegrees(Math.atan2(y, x));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.liguang.steeringwheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link SteeringWheelPublisher} 每次发布的耗时，gc.alloc.rate.norm 应为0。
+ * 三个订阅：不限需求的直接投递、需求为0只保留最新状态、带采样去重和窗口算子
+ */
+@State(Scope.Thread)
+public class PublisherBenchmark {
+    private final StateSeqLock mLock = new StateSeqLock();
+    private final SteeringWheelPublisher mPublisher = new SteeringWheelPublisher(new SteeringWheelStateSource() {
+        @Override
+        public SteeringWheelState readState(SteeringWheelState out) {
+            return mLock.read(out);
+        }
+    });
+    private long mTimeNanos;
+    private int mIndex;
+    private int mReceived;
+
+    private class Counter implements SteeringWheelPublisher.StateSubscriber {
+        private final long mRequest;
+
+        Counter(long request) {
+            mRequest = request;
+        }
+
+        @Override
+        public void onSubscribe(SteeringWheelPublisher.Subscription subscription) {
+            if (mRequest > 0) {
+                subscription.request(mRequest);
+            }
+        }
+
+        @Override
+        public void onNext(SteeringWheelState state) {
+            mReceived += state.getPower();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        mPublisher.subscribe(new Counter(Long.MAX_VALUE), null);
+        mPublisher.subscribe(new Counter(0), null);
+        mPublisher.subscribe(new Counter(Long.MAX_VALUE), null,
+                StateOperator.sample(8), StateOperator.distinct(), StateOperator.window(50));
+    }
+
+    @Benchmark
+    public int publish() {
+        int i = mIndex++;
+        //约每毫秒一个触摸点
+        mTimeNanos += 1000000L;
+        mLock.write(i % 360, i % 101, JoystickEngine.RIGHT, 0, 0, 0, 0, mTimeNanos);
+        mPublisher.publish();
+        return mReceived;
+    }
+}